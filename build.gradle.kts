@@ -5,6 +5,8 @@ plugins {
     id("com.gradleup.shadow") version "8.3.0"
     // Apply the Run-Paper plugin for running Paper Minecraft servers
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    // Apply the JMH plugin for running the benchmarks in src/jmh
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 // Define project properties for versions and package name
@@ -16,6 +18,8 @@ val caffeineVersion: String by project
 val placeholderApiVersion: String by project
 val worldGuardVersion: String by project
 val spiGuiVersion: String by project
+val junitVersion: String by project
+val jmhCoreVersion: String by project
 val projectPackageName = "${project.group}.skyBlockCore"
 
 // Configure Java toolchain and compatibility settings
@@ -56,6 +60,18 @@ dependencies {
     implementation("com.github.ben-manes.caffeine:caffeine:${caffeineVersion}")
     // SpiGUI for GUI creation
     implementation("com.samjakob:SpiGUI:${spiGuiVersion}")
+
+    // JUnit for the tests, the compile only dependencies are needed to load the plugin classes
+    testImplementation(platform("org.junit:junit-bom:${junitVersion}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("io.papermc.paper:paper-api:${paperApiVersion}")
+}
+
+// Configure the benchmarks, the gc profiler reports the allocations of the measured code
+jmh {
+    jmhVersion = jmhCoreVersion
+    profilers = listOf("gc")
 }
 
 // Disable the default JAR task
@@ -100,6 +116,11 @@ tasks {
         }
     }
 
+    // Run the tests on the JUnit platform
+    test {
+        useJUnitPlatform()
+    }
+
     // Process resources and expand placeholders in `plugin.yml`
     processResources {
         val props = mapOf("version" to project.version.toString()) // Define properties for resource filtering
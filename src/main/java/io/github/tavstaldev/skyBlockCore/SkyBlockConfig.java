@@ -16,8 +16,31 @@ public class SkyBlockConfig extends ConfigurationBase {
     public boolean checkForUpdates, debug;
 
     // Storage
-    public String storageType, storageFilename, storageHost, storageDatabase, storageUsername, storagePassword, storageTablePrefix;
-    public int storagePort;
+    public String storageType, storageFilename, storageHost, storageDatabase, storageUsername, storagePassword, storageTablePrefix, storageUuidFormat;
+    public int storagePort, storageIoThreads, storageIoQueueSize, storageMigrationChunkSize;
+    public boolean storageWriteBehindEnabled;
+    public int storageWriteBehindFlushInterval, storageWriteBehindMaxStaleness, storageWriteBehindBatchSize;
+    public int storageOfflineCacheMaximumSize, storageOfflineCacheExpireAfterWrite;
+    public int storageNegativeCacheMaximumSize, storageNegativeCacheTtl;
+    public boolean storageKnownPlayerFilterEnabled;
+    public double storageKnownPlayerFilterFalsePositiveRate;
+    public boolean storageChangeLogEnabled;
+    public int storageChangeLogPollInterval, storageChangeLogBatchSize, storageChangeLogRetention;
+    public boolean storageJournalEnabled;
+    public int storageJournalSyncInterval;
+    public int storagePoolMaximumSize, storagePoolMinimumIdle, storagePoolConnectionTimeout, storagePoolIdleTimeout, storagePoolMaxLifetime, storagePoolKeepaliveTime, storagePoolLeakDetectionThreshold;
+    public boolean storagePoolCachePrepStmts, storagePoolUseServerPrepStmts, storagePoolRewriteBatchedStatements;
+    public int storagePoolPrepStmtCacheSize, storagePoolPrepStmtCacheSqlLimit;
+    public String storageSqliteSynchronous;
+    public boolean storageMemorySnapshotEnabled;
+    public int storageMemorySnapshotInterval;
+    public int storageFlatFileInitialCapacity, storageFlatFileCheckpointInterval;
+    public boolean storageFlatFileImportSqlite;
+    public int storageSqliteReaders, storageSqliteMmapSize, storageSqliteCacheSize, storageSqliteBusyTimeout;
+
+    // Leaderboard
+    public boolean leaderboardEnabled;
+    public int leaderboardSize;
 
     // Reward Reset
     public LocalDateTime nextDailyReset, nextWeeklyReset, nextHourlyReset;
@@ -42,6 +65,7 @@ public class SkyBlockConfig extends ConfigurationBase {
 
         // Storage
         storageType = resolveGet("storage.type", "sqlite");
+        resolveComment("storage.type", List.of("Storage backend: mysql, mariadb, sqlite, flatfile or memory", "flatfile stores the players in a memory-mapped binary file, the fastest persistent storage of a single server", "memory keeps every player in memory only, for tests and benchmarks"));
         storageFilename = resolveGet("storage.filename", "database");
         storageHost = resolveGet("storage.host", "localhost");
         storagePort = resolveGet("storage.port", 3306);
@@ -49,6 +73,96 @@ public class SkyBlockConfig extends ConfigurationBase {
         storageUsername = resolveGet("storage.username", "root");
         storagePassword = resolveGet("storage.password", "ascent");
         storageTablePrefix = resolveGet("storage.tablePrefix", "sbc");
+        storageUuidFormat = resolveGet("storage.uuidFormat", "string");
+        resolveComment("storage.uuidFormat", List.of("Storage format of player identifiers: string or binary", "binary stores them in 16 bytes, which keeps the tables and indexes much smaller", "Changing it migrates the existing table on the next start", "On MySQL the migration runs while the other servers keep running, set the same format on every server sharing the database", "The database user needs the TRIGGER privilege for the migration"));
+        storageMigrationChunkSize = resolveGet("storage.migrationChunkSize", 1000);
+        resolveComment("storage.migrationChunkSize", List.of("Number of rows copied per transaction while migrating a table"));
+        storagePoolMaximumSize = resolveGet("storage.pool.maximumSize", 10);
+        resolveComment("storage.pool.maximumSize", List.of("Maximum number of MySQL connections", "Changing the pool settings requires a restart"));
+        storagePoolMinimumIdle = resolveGet("storage.pool.minimumIdle", 10);
+        resolveComment("storage.pool.minimumIdle", List.of("Minimum number of idle MySQL connections kept open", "Same as maximumSize keeps a fixed size pool"));
+        storagePoolConnectionTimeout = resolveGet("storage.pool.connectionTimeout", 5000);
+        resolveComment("storage.pool.connectionTimeout", List.of("Time in milliseconds to wait for a connection before failing"));
+        storagePoolIdleTimeout = resolveGet("storage.pool.idleTimeout", 600000);
+        resolveComment("storage.pool.idleTimeout", List.of("Time in milliseconds after an idle connection above minimumIdle is closed"));
+        storagePoolMaxLifetime = resolveGet("storage.pool.maxLifetime", 1800000);
+        resolveComment("storage.pool.maxLifetime", List.of("Time in milliseconds after a connection is replaced", "Should be a few seconds shorter than the wait_timeout of the server"));
+        storagePoolKeepaliveTime = resolveGet("storage.pool.keepaliveTime", 0);
+        resolveComment("storage.pool.keepaliveTime", List.of("Interval in milliseconds between pings of idle connections, 0 disables it"));
+        storagePoolLeakDetectionThreshold = resolveGet("storage.pool.leakDetectionThreshold", 0);
+        resolveComment("storage.pool.leakDetectionThreshold", List.of("Time in milliseconds a connection may be used before a leak is logged, 0 disables it"));
+        storagePoolCachePrepStmts = resolveGet("storage.pool.properties.cachePrepStmts", true);
+        resolveComment("storage.pool.properties", List.of("Properties of the MySQL driver"));
+        storagePoolPrepStmtCacheSize = resolveGet("storage.pool.properties.prepStmtCacheSize", 250);
+        storagePoolPrepStmtCacheSqlLimit = resolveGet("storage.pool.properties.prepStmtCacheSqlLimit", 2048);
+        storagePoolUseServerPrepStmts = resolveGet("storage.pool.properties.useServerPrepStmts", true);
+        storagePoolRewriteBatchedStatements = resolveGet("storage.pool.properties.rewriteBatchedStatements", true);
+        storageIoThreads = resolveGet("storage.ioThreads", 4);
+        resolveComment("storage.ioThreads", List.of("Number of threads used for database operations", "Changing this requires a restart"));
+        storageIoQueueSize = resolveGet("storage.ioQueueSize", 1000);
+        resolveComment("storage.ioQueueSize", List.of("Maximum number of queued database operations", "When the queue is full, further operations are rejected and reported as failed"));
+        storageWriteBehindEnabled = resolveGet("storage.writeBehind.enabled", true);
+        resolveComment("storage.writeBehind.enabled", List.of("Buffer player data changes and write them in batches", "When disabled, every change is written immediately"));
+        storageWriteBehindFlushInterval = resolveGet("storage.writeBehind.flushInterval", 10);
+        resolveComment("storage.writeBehind.flushInterval", List.of("Interval in seconds between regular flushes"));
+        storageWriteBehindMaxStaleness = resolveGet("storage.writeBehind.maxStaleness", 30);
+        resolveComment("storage.writeBehind.maxStaleness", List.of("Maximum time in seconds a change may stay unsaved"));
+        storageWriteBehindBatchSize = resolveGet("storage.writeBehind.batchSize", 500);
+        resolveComment("storage.writeBehind.batchSize", List.of("Maximum number of players written in one batch", "Reaching this many unsaved players triggers an early flush"));
+        storageJournalEnabled = resolveGet("storage.writeBehind.journal.enabled", true);
+        resolveComment("storage.writeBehind.journal.enabled", List.of("Record the buffered changes in a journal file and replay them after a crash", "Has no effect with the memory storage", "Changing this requires a restart"));
+        storageJournalSyncInterval = resolveGet("storage.writeBehind.journal.syncInterval", 2);
+        resolveComment("storage.writeBehind.journal.syncInterval", List.of("Interval in ticks between writes of the journal to the disk", "A crash loses at most the changes of this interval, every write covers all changes made since the previous one", "Changing this requires a restart"));
+        storageOfflineCacheMaximumSize = resolveGet("storage.offlineCache.maximumSize", 1000);
+        resolveComment("storage.offlineCache.maximumSize", List.of("Maximum number of offline players kept in the player data cache", "Online players are always kept and do not count towards this", "Changing this requires a restart"));
+        storageOfflineCacheExpireAfterWrite = resolveGet("storage.offlineCache.expireAfterWrite", 300);
+        resolveComment("storage.offlineCache.expireAfterWrite", List.of("Time in seconds after a cached offline player is removed from the cache", "Changing this requires a restart"));
+        storageNegativeCacheMaximumSize = resolveGet("storage.negativeCache.maximumSize", 10000);
+        resolveComment("storage.negativeCache.maximumSize", List.of("Maximum number of unknown players remembered without data", "Changing this requires a restart"));
+        storageNegativeCacheTtl = resolveGet("storage.negativeCache.ttl", 30);
+        resolveComment("storage.negativeCache.ttl", List.of("Time in seconds an unknown player is remembered without data", "Changing this requires a restart"));
+        storageKnownPlayerFilterEnabled = resolveGet("storage.knownPlayerFilter.enabled", true);
+        resolveComment("storage.knownPlayerFilter.enabled", List.of("Keep an in-memory filter of every stored player, so lookups of unknown players need no query", "When several servers share the database, enable the change log or disable this, otherwise players created on another server are not added to it"));
+        storageKnownPlayerFilterFalsePositiveRate = resolveGet("storage.knownPlayerFilter.falsePositiveRate", 0.01);
+        resolveComment("storage.knownPlayerFilter.falsePositiveRate", List.of("Rate of unknown players which still need a query, lower values use more memory"));
+        storageChangeLogEnabled = resolveGet("storage.changeLog.enabled", false);
+        resolveComment("storage.changeLog.enabled", List.of("Record every player data change in a shared table and read the changes of the other servers", "Enable it on every server sharing a MySQL database, so their caches and leaderboards stay up-to-date", "Has no effect with SQLite"));
+        storageChangeLogPollInterval = resolveGet("storage.changeLog.pollInterval", 20);
+        resolveComment("storage.changeLog.pollInterval", List.of("Interval in ticks between reads of the changes of the other servers", "Changing this requires a restart"));
+        storageChangeLogBatchSize = resolveGet("storage.changeLog.batchSize", 1000);
+        resolveComment("storage.changeLog.batchSize", List.of("Maximum number of changes read per poll"));
+        storageChangeLogRetention = resolveGet("storage.changeLog.retention", 3600);
+        resolveComment("storage.changeLog.retention", List.of("Time in seconds changes are kept before they are deleted", "Only needs to cover the delay of the slowest poll, a starting server reads only the changes made after its start"));
+        storageFlatFileInitialCapacity = resolveGet("storage.flatFile.initialCapacity", 10000);
+        resolveComment("storage.flatFile.initialCapacity", List.of("Number of players a new flat file has room for, the file doubles when it is full"));
+        storageFlatFileCheckpointInterval = resolveGet("storage.flatFile.checkpointInterval", 5);
+        resolveComment("storage.flatFile.checkpointInterval", List.of("Interval in seconds between forcing the changed records of the flat file to the disk", "A crash loses at most the changes of this interval"));
+        storageFlatFileImportSqlite = resolveGet("storage.flatFile.importSqlite", true);
+        resolveComment("storage.flatFile.importSqlite", List.of("Import the players of the SQLite database when the flat file has no players yet", "A failed import is tried again on the next start, and no player data is loaded until it completes", "Use /sbc export to write the flat file back to a SQLite database"));
+        storageMemorySnapshotEnabled = resolveGet("storage.memory.snapshot", false);
+        resolveComment("storage.memory.snapshot", List.of("Save the memory storage to a snapshot file, and load it on the next start", "When disabled, the data of the memory storage is lost on shutdown"));
+        storageMemorySnapshotInterval = resolveGet("storage.memory.snapshotInterval", 300);
+        resolveComment("storage.memory.snapshotInterval", List.of("Interval in seconds between snapshots of a changed memory storage, 0 only saves it on shutdown"));
+        storageSqliteReaders = resolveGet("storage.sqlite.readers", 4);
+        resolveComment("storage.sqlite.readers", List.of("Number of read-only connections kept open, writes always use a single connection"));
+        storageSqliteSynchronous = resolveGet("storage.sqlite.synchronous", "NORMAL").trim().toUpperCase(Locale.ROOT);
+        if (!List.of("OFF", "NORMAL", "FULL", "EXTRA").contains(storageSqliteSynchronous)) {
+            SkyBlockCore.Instance.getLogger().warning(String.format("Invalid storage.sqlite.synchronous value '%s', using NORMAL.", storageSqliteSynchronous));
+            storageSqliteSynchronous = "NORMAL";
+        }
+        resolveComment("storage.sqlite.synchronous", List.of("Value of the synchronous pragma: OFF, NORMAL, FULL or EXTRA", "NORMAL is safe in WAL mode and much faster than FULL", "Other values fall back to NORMAL"));
+        storageSqliteMmapSize = resolveGet("storage.sqlite.mmapSize", 268435456);
+        resolveComment("storage.sqlite.mmapSize", List.of("Maximum number of bytes of the database file mapped into memory, 0 disables it"));
+        storageSqliteCacheSize = resolveGet("storage.sqlite.cacheSize", -16000);
+        resolveComment("storage.sqlite.cacheSize", List.of("Page cache size per connection", "Positive values are pages, negative values are kibibytes"));
+        storageSqliteBusyTimeout = resolveGet("storage.sqlite.busyTimeout", 5000);
+        resolveComment("storage.sqlite.busyTimeout", List.of("Time in milliseconds to wait for a locked database or a free connection"));
+
+        // Leaderboard
+        leaderboardEnabled = resolveGet("leaderboard.enabled", true);
+        resolveComment("leaderboard.enabled", List.of("Keep the level and experience rankings of every player in memory for the top and rank placeholders", "Changing this requires a restart"));
+        leaderboardSize = resolveGet("leaderboard.size", 10);
+        resolveComment("leaderboard.size", List.of("Number of top positions available in the top placeholders"));
 
         // Reward Reset
         final var date = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
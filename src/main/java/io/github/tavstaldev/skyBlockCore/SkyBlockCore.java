@@ -11,15 +11,25 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.core.PluginTranslator;
 import io.github.tavstaldev.minecorelib.utils.VersionUtils;
 import io.github.tavstaldev.skyBlockCore.commands.*;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
+import io.github.tavstaldev.skyBlockCore.database.FlatFileDatabase;
 import io.github.tavstaldev.skyBlockCore.database.IDatabase;
+import io.github.tavstaldev.skyBlockCore.database.MemoryDatabase;
 import io.github.tavstaldev.skyBlockCore.database.MySqlDatabase;
 import io.github.tavstaldev.skyBlockCore.database.SqlLiteDatabase;
 import io.github.tavstaldev.skyBlockCore.events.PlayerEventListener;
+import io.github.tavstaldev.skyBlockCore.events.RegionChangeListener;
+import io.github.tavstaldev.skyBlockCore.managers.AfkPondRegionManager;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
 import io.github.tavstaldev.skyBlockCore.placeholders.SkyBlockExpansion;
 import io.github.tavstaldev.skyBlockCore.tasks.AfkPondTask;
+import io.github.tavstaldev.skyBlockCore.tasks.ChangeLogPollTask;
 import io.github.tavstaldev.skyBlockCore.tasks.GameTimeTask;
+import io.github.tavstaldev.skyBlockCore.tasks.JournalSyncTask;
 import io.github.tavstaldev.skyBlockCore.tasks.RewardResetTask;
+import io.github.tavstaldev.skyBlockCore.tasks.WriteBehindFlushTask;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 
 /**
  * Main class for the SkyBlockCore plugin.
@@ -34,6 +44,9 @@ public final class SkyBlockCore extends PluginBase {
     private AfkPondTask afkPondTask; // Task for managing AFK pond functionality
     private GameTimeTask gameTimeTask; // Task for managing game time rewards
     private RewardResetTask rewardResetTask; // Task for resetting rewards periodically
+    private WriteBehindFlushTask writeBehindFlushTask; // Task for writing buffered player data changes
+    private ChangeLogPollTask changeLogPollTask; // Task for applying the player data changes of other servers
+    private JournalSyncTask journalSyncTask; // Task for writing the journaled player data changes to the disk
     private SpiGUI spiGUI; // SpiGUI instance for managing GUI interactions
 
     //#region Public Accessors
@@ -137,6 +150,7 @@ public final class SkyBlockCore extends PluginBase {
         }
 
         // Initialize the database
+        DatabaseExecutor.start(config().storageIoThreads, config().storageIoQueueSize);
         String databaseType = config().storageType;
         if (databaseType == null)
             databaseType = "sqlite";
@@ -146,6 +160,14 @@ public final class SkyBlockCore extends PluginBase {
                 database = new MySqlDatabase();
                 break;
             }
+            case "memory": {
+                database = new MemoryDatabase(logger().withModule(MemoryDatabase.class), () -> MemoryDatabase.Settings.of(config()), LeaderboardManager.HOOK);
+                break;
+            }
+            case "flatfile": {
+                database = new FlatFileDatabase();
+                break;
+            }
             case "sqlite":
             default: {
                 database = new SqlLiteDatabase();
@@ -153,7 +175,14 @@ public final class SkyBlockCore extends PluginBase {
             }
         }
         database.load();
-        database.checkSchema();
+        // Migrate the schema in the background, player data operations wait for it
+        var onlinePlayers = Bukkit.getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+        database.checkSchemaAsync().thenRunAsync(() -> {
+            // Pin the data of players who are already online, e.g. after a reload
+            for (var playerId : onlinePlayers) {
+                database.pinPlayer(playerId);
+            }
+        }, DatabaseExecutor.io());
 
         // Register commands
         new CommandSkyBlockCore();
@@ -165,6 +194,7 @@ public final class SkyBlockCore extends PluginBase {
 
         // Register event listeners
         PlayerEventListener.init();
+        RegionChangeListener.init();
 
         // Register tasks
         // AFK Pond task
@@ -186,6 +216,25 @@ public final class SkyBlockCore extends PluginBase {
             rewardResetTask.cancel();
         rewardResetTask = new RewardResetTask();
         rewardResetTask.runTaskTimerAsynchronously(this, 0, 20L * 60 * 60); // Run every hour
+        // Write-behind flush task
+        if (writeBehindFlushTask != null && !writeBehindFlushTask.isCancelled())
+            writeBehindFlushTask.cancel();
+        writeBehindFlushTask = new WriteBehindFlushTask();
+        writeBehindFlushTask.runTaskTimerAsynchronously(this, 20L, 20L); // Run every second
+        // Change log poll task
+        if (config().storageChangeLogEnabled) {
+            if (changeLogPollTask != null && !changeLogPollTask.isCancelled())
+                changeLogPollTask.cancel();
+            changeLogPollTask = new ChangeLogPollTask();
+            changeLogPollTask.runTaskTimerAsynchronously(this, 20L, Math.max(1, config().storageChangeLogPollInterval));
+        }
+        // Journal sync task
+        if (config().storageJournalEnabled) {
+            if (journalSyncTask != null && !journalSyncTask.isCancelled())
+                journalSyncTask.cancel();
+            journalSyncTask = new JournalSyncTask();
+            journalSyncTask.runTaskTimerAsynchronously(this, 1L, Math.max(1, config().storageJournalSyncInterval));
+        }
 
         // Initialize SpiGUI
         _logger.debug("Initializing SpiGUI...");
@@ -208,10 +257,13 @@ public final class SkyBlockCore extends PluginBase {
 
     /**
      * Called when the plugin is disabled.
-     * Logs the unloading of the plugin.
+     * Waits for the pending database operations, then unloads the database.
      */
     @Override
     public void onDisable() {
+        DatabaseExecutor.shutdown();
+        if (database != null)
+            database.unload();
         _logger.info(String.format("%s has been successfully unloaded.", getProjectName()));
     }
 
@@ -250,6 +302,7 @@ public final class SkyBlockCore extends PluginBase {
         _logger.debug("Reloading configuration...");
         this._config.load();
         this.database.update();
+        AfkPondRegionManager.refresh();
 
         // Update tasks
         // Step 1. Cancel existing tasks
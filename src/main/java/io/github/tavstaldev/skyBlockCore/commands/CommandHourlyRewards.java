@@ -4,6 +4,7 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.OfflinePlayer;
@@ -118,18 +119,20 @@ public class CommandHourlyRewards implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setHourlyRewardClaimed(true);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.DailyRewards.Complete.Success", Map.of(
-                                    "player", args[1]
-                            )
-                    );
+                        playerData.setHourlyRewardClaimed(true);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.DailyRewards.Complete.Success", Map.of(
+                                        "player", args[1]
+                                )
+                        );
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "reset": {
@@ -150,18 +153,20 @@ public class CommandHourlyRewards implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setHourlyRewardClaimed(false);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.DailyRewards.Reset.Success", Map.of(
-                                    "player", args[1]
-                            )
-                    );
+                        playerData.setHourlyRewardClaimed(false);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.DailyRewards.Reset.Success", Map.of(
+                                        "player", args[1]
+                                )
+                        );
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
             }
@@ -247,4 +252,4 @@ public class CommandHourlyRewards implements CommandExecutor {
         Component bottomComp = ChatUtils.buildWithButtons(bottomMsg, bottomParams);
         sender.sendMessage(bottomComp);
     }
-}
\ No newline at end of file
+}
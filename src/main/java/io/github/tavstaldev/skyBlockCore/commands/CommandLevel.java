@@ -4,6 +4,7 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.OfflinePlayer;
@@ -125,17 +126,18 @@ public class CommandLevel implements CommandExecutor {
                             return true;
                         }
 
-                        var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId());
-                        if (playerData.isEmpty()) {
-                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                            return true;
-                        }
-
-                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Get.OtherLevel", Map.of(
-                                        "player", args[1],
-                                        "level", String.valueOf(playerData.get().getLevel())
-                                )
-                        );
+                        SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(playerData -> {
+                            if (playerData.isEmpty()) {
+                                SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                                return;
+                            }
+
+                            SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Get.OtherLevel", Map.of(
+                                            "player", args[1],
+                                            "level", String.valueOf(playerData.get().getLevel())
+                                    )
+                            );
+                        }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                         return true;
                     }
 
@@ -146,15 +148,16 @@ public class CommandLevel implements CommandExecutor {
                     }
                     Player player = (Player) sender;
 
-                    var playerData = SkyBlockCore.database().getPlayerData(player.getUniqueId());
-                    if (playerData.isEmpty()) {
-                        SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
-                        return true;
-                    }
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Get.YourLevel", Map.of(
-                                    "level", String.valueOf(playerData.get().getLevel())
-                            )
-                    );
+                    SkyBlockCore.database().getPlayerDataAsync(player.getUniqueId()).thenAcceptAsync(playerData -> {
+                        if (playerData.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
+                            return;
+                        }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Get.YourLevel", Map.of(
+                                        "level", String.valueOf(playerData.get().getLevel())
+                                )
+                        );
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "add": {
@@ -183,23 +186,22 @@ public class CommandLevel implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().incrementLevel(target.getUniqueId(), amount).thenAcceptAsync(newValue -> {
+                        if (newValue.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setLevel(playerData.getLevel() + amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Add.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getLevel())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Add.NewLevel", Map.of("level", String.valueOf(playerData.getLevel())));
-                    }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Add.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(newValue.getAsInt())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Add.NewLevel", Map.of("level", String.valueOf(newValue.getAsInt())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "remove": {
@@ -228,23 +230,22 @@ public class CommandLevel implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().incrementLevel(target.getUniqueId(), -amount).thenAcceptAsync(newValue -> {
+                        if (newValue.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setLevel(playerData.getLevel() - amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Remove.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getLevel())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Remove.NewLevel", Map.of("level", String.valueOf(playerData.getLevel())));
-                    }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Remove.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(newValue.getAsInt())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Remove.NewLevel", Map.of("level", String.valueOf(newValue.getAsInt())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "set": {
@@ -273,23 +274,25 @@ public class CommandLevel implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setLevel(amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Set.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getLevel())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Set.NewLevel", Map.of("level", String.valueOf(playerData.getLevel())));
-                    }
+                        playerData.setLevel(amount);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Set.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(playerData.getLevel())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Set.NewLevel", Map.of("level", String.valueOf(playerData.getLevel())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "reset": {
@@ -318,23 +321,25 @@ public class CommandLevel implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setLevel(0);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Reset.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getLevel())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Reset.NewLevel");
-                    }
+                        playerData.setLevel(0);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Level.Reset.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(playerData.getLevel())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.Level.Reset.NewLevel");
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
             }
@@ -424,4 +429,4 @@ public class CommandLevel implements CommandExecutor {
         Component bottomComp = ChatUtils.buildWithButtons(bottomMsg, bottomParams);
         sender.sendMessage(bottomComp);
     }
-}
\ No newline at end of file
+}
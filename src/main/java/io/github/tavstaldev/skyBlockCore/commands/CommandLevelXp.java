@@ -4,6 +4,7 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.OfflinePlayer;
@@ -129,17 +130,18 @@ public class CommandLevelXp implements CommandExecutor {
                             return true;
                         }
 
-                        var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId());
-                        if (playerData.isEmpty()) {
-                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                            return true;
-                        }
-
-                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.OtherLevel", Map.of(
-                                        "player", args[1],
-                                        "level", String.valueOf(playerData.get().getExperience())
-                                )
-                        );
+                        SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(playerData -> {
+                            if (playerData.isEmpty()) {
+                                SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                                return;
+                            }
+
+                            SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.OtherLevel", Map.of(
+                                            "player", args[1],
+                                            "level", String.valueOf(playerData.get().getExperience())
+                                    )
+                            );
+                        }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                         return true;
                     }
 
@@ -150,15 +152,16 @@ public class CommandLevelXp implements CommandExecutor {
                     }
                     Player player = (Player) sender;
 
-                    var playerData = SkyBlockCore.database().getPlayerData(player.getUniqueId());
-                    if (playerData.isEmpty()) {
-                        SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
-                        return true;
-                    }
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.YourLevel", Map.of(
-                                    "level", String.valueOf(playerData.get().getExperience())
-                            )
-                    );
+                    SkyBlockCore.database().getPlayerDataAsync(player.getUniqueId()).thenAcceptAsync(playerData -> {
+                        if (playerData.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
+                            return;
+                        }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.YourLevel", Map.of(
+                                        "level", String.valueOf(playerData.get().getExperience())
+                                )
+                        );
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "add": {
@@ -187,23 +190,22 @@ public class CommandLevelXp implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().incrementExperience(target.getUniqueId(), amount).thenAcceptAsync(newValue -> {
+                        if (newValue.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setExperience(playerData.getExperience() + amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Add.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getExperience())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Add.NewLevel", Map.of("level", String.valueOf(playerData.getExperience())));
-                    }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Add.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(newValue.getAsInt())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Add.NewLevel", Map.of("level", String.valueOf(newValue.getAsInt())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "remove": {
@@ -232,23 +234,22 @@ public class CommandLevelXp implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().incrementExperience(target.getUniqueId(), -amount).thenAcceptAsync(newValue -> {
+                        if (newValue.isEmpty()) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setExperience(playerData.getExperience() - amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Remove.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getExperience())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Remove.NewLevel", Map.of("level", String.valueOf(playerData.getExperience())));
-                    }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Remove.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(newValue.getAsInt())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Remove.NewLevel", Map.of("level", String.valueOf(newValue.getAsInt())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "set": {
@@ -277,23 +278,25 @@ public class CommandLevelXp implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setExperience(amount);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Set.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getExperience())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Set.NewLevel", Map.of("level", String.valueOf(playerData.getExperience())));
-                    }
+                        playerData.setExperience(amount);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Set.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(playerData.getExperience())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Set.NewLevel", Map.of("level", String.valueOf(playerData.getExperience())));
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
                 case "reset": {
@@ -322,23 +325,25 @@ public class CommandLevelXp implements CommandExecutor {
                         return true;
                     }
 
-                    var playerData = SkyBlockCore.database().getPlayerData(target.getUniqueId()).orElse(null);
-                    if (playerData == null) {
-                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
-                        return true;
-                    }
+                    SkyBlockCore.database().getPlayerDataAsync(target.getUniqueId()).thenAcceptAsync(optionalData -> {
+                        var playerData = optionalData.orElse(null);
+                        if (playerData == null) {
+                            SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPlayerData", Map.of("player", args[1]));
+                            return;
+                        }
 
-                    playerData.setExperience(0);
-                    SkyBlockCore.database().updatePlayerData(playerData);
-                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Reset.Success", Map.of(
-                                    "player", args[1],
-                                    "amount", String.valueOf(amount),
-                                    "new_level", String.valueOf(playerData.getExperience())
-                            )
-                    );
-                    if (target.isOnline()) {
-                        SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Reset.NewLevel");
-                    }
+                        playerData.setExperience(0);
+                        SkyBlockCore.database().updatePlayerDataAsync(playerData);
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Reset.Success", Map.of(
+                                        "player", args[1],
+                                        "amount", String.valueOf(amount),
+                                        "new_level", String.valueOf(playerData.getExperience())
+                                )
+                        );
+                        if (target.isOnline()) {
+                            SkyBlockCore.Instance.sendCommandReply(target.getPlayer(), "Commands.LevelXP.Reset.NewLevel");
+                        }
+                    }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
                     return true;
                 }
             }
@@ -354,15 +359,16 @@ public class CommandLevelXp implements CommandExecutor {
             return true;
         }
 
-        var playerData = SkyBlockCore.database().getPlayerData(player.getUniqueId());
-        if (playerData.isEmpty()) {
-            SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
-            return true;
-        }
-        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.YourLevel", Map.of(
-                        "level", String.valueOf(playerData.get().getExperience())
-                )
-        );
+        SkyBlockCore.database().getPlayerDataAsync(player.getUniqueId()).thenAcceptAsync(playerData -> {
+            if (playerData.isEmpty()) {
+                SkyBlockCore.Instance.sendCommandReply(player, "General.NoPlayerData", Map.of("player", player.getName()));
+                return;
+            }
+            SkyBlockCore.Instance.sendCommandReply(sender, "Commands.LevelXP.Get.YourLevel", Map.of(
+                            "level", String.valueOf(playerData.get().getExperience())
+                    )
+            );
+        }, DatabaseExecutor.mainThread()).exceptionally(ex -> CommandUtils.failed(_logger, sender, ex));
         return true;
     }
 
@@ -438,4 +444,4 @@ public class CommandLevelXp implements CommandExecutor {
         Component bottomComp = ChatUtils.buildWithButtons(bottomMsg, bottomParams);
         sender.sendMessage(bottomComp);
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,9 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
+import io.github.tavstaldev.skyBlockCore.database.FlatFileDatabase;
+import io.github.tavstaldev.skyBlockCore.database.PoolMetrics;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.command.Command;
@@ -20,7 +23,8 @@ import java.util.Map;
 
 /**
  * Handles the /sbc command and its subcommands.
- * Provides functionality for displaying help, checking the plugin version, and reloading the plugin configuration.
+ * Provides functionality for displaying help, checking the plugin version, reloading the plugin configuration,
+ * showing the statistics of the database connection pool and exporting the flat file storage to SQLite.
  */
 public class CommandSkyBlockCore implements CommandExecutor {
     private final PluginLogger _logger = SkyBlockCore.logger().withModule(CommandSkyBlockCore.class); // Logger for command-related operations.
@@ -42,6 +46,16 @@ public class CommandSkyBlockCore implements CommandExecutor {
                     "syntax", "",
                     "description", "Commands.Reload.Desc"
             )));
+            // POOL subcommand
+            add(new SubCommandData("pool", "skyblockcore.commands.pool", Map.of(
+                    "syntax", "",
+                    "description", "Commands.Pool.Desc"
+            )));
+            // EXPORT subcommand
+            add(new SubCommandData("export", "skyblockcore.commands.export", Map.of(
+                    "syntax", "",
+                    "description", "Commands.Export.Desc"
+            )));
         }
     };
 
@@ -145,6 +159,46 @@ public class CommandSkyBlockCore implements CommandExecutor {
                     SkyBlockCore.Instance.sendCommandReply(player, "Commands.Reload.Done");
                     return true;
                 }
+                case "pool": {
+                    // Handle the pool subcommand, available from the console as well
+                    if (!sender.hasPermission("skyblockcore.commands.pool")) {
+                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPermission");
+                        return true;
+                    }
+
+                    var metrics = SkyBlockCore.database().getPoolMetrics();
+                    if (metrics.isEmpty()) {
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Pool.NotAvailable");
+                        return true;
+                    }
+                    pool(sender, metrics.get());
+                    return true;
+                }
+                case "export": {
+                    // Handle the export subcommand, available from the console as well
+                    if (!sender.hasPermission("skyblockcore.commands.export")) {
+                        SkyBlockCore.Instance.sendCommandReply(sender, "General.NoPermission");
+                        return true;
+                    }
+
+                    if (!(SkyBlockCore.database() instanceof FlatFileDatabase flatFile)) {
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Export.NotAvailable");
+                        return true;
+                    }
+                    SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Export.Started");
+                    flatFile.exportSqliteAsync().whenCompleteAsync((result, ex) -> {
+                        if (ex != null) {
+                            _logger.error("Failed to export the player file: " + ex.getMessage());
+                            SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Export.Failed");
+                            return;
+                        }
+                        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Export.Done", Map.of(
+                                "count", String.valueOf(result.getValue()),
+                                "file", result.getKey().toString()
+                        ));
+                    }, DatabaseExecutor.mainThread());
+                    return true;
+                }
             }
 
             // Handle invalid subcommands
@@ -161,6 +215,43 @@ public class CommandSkyBlockCore implements CommandExecutor {
         return true;
     }
 
+    /**
+     * Displays the statistics of the database connection pool.
+     *
+     * @param sender  The sender of the command.
+     * @param metrics The statistics of the connection pool.
+     */
+    private void pool(CommandSender sender, PoolMetrics metrics) {
+        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Pool.Connections", Map.of(
+                "active", metrics.getActiveConnections(),
+                "idle", metrics.getIdleConnections(),
+                "total", metrics.getTotalConnections(),
+                "max", metrics.getMaxConnections(),
+                "pending", metrics.getPendingThreads()
+        ));
+        SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Pool.Acquire", Map.of(
+                "count", metrics.getAcquireCount(),
+                "average", String.format("%.2f", metrics.getAverageAcquireMillis()),
+                "max", String.format("%.2f", metrics.getMaxAcquireMillis()),
+                "timeouts", metrics.getTimeouts()
+        ));
+
+        long[] buckets = metrics.getAcquireBuckets();
+        for (int i = 0; i < buckets.length; i++) {
+            String range;
+            if (i == 0)
+                range = "< " + PoolMetrics.ACQUIRE_BUCKET_BOUNDS[0];
+            else if (i == PoolMetrics.ACQUIRE_BUCKET_BOUNDS.length)
+                range = ">= " + PoolMetrics.ACQUIRE_BUCKET_BOUNDS[i - 1];
+            else
+                range = PoolMetrics.ACQUIRE_BUCKET_BOUNDS[i - 1] + "-" + PoolMetrics.ACQUIRE_BUCKET_BOUNDS[i];
+            SkyBlockCore.Instance.sendCommandReply(sender, "Commands.Pool.Bucket", Map.of(
+                    "range", range,
+                    "count", buckets[i]
+            ));
+        }
+    }
+
     /**
      * Displays the help menu for the /sbc command.
      *
@@ -0,0 +1,34 @@
+package io.github.tavstaldev.skyBlockCore.commands;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.DatabaseExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Provides the helpers shared by the commands.
+ */
+final class CommandUtils {
+    /**
+     * Prevents instantiation, the class only has static helpers.
+     */
+    private CommandUtils() {
+    }
+
+    /**
+     * Logs a failed database operation of a subcommand and tells the sender on the main thread.
+     *
+     * @param logger The logger of the command.
+     * @param sender The sender of the command.
+     * @param ex     The error of the operation.
+     * @return Null, so it can complete the chain of the operation.
+     */
+    static Void failed(PluginLogger logger, CommandSender sender, Throwable ex) {
+        var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        logger.error(String.format("Unknown error happened while running the command...\n%s", cause.getMessage()));
+        DatabaseExecutor.mainThread().execute(() -> SkyBlockCore.Instance.sendCommandReply(sender, "Commands.UnknownError"));
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+/**
+ * Thrown when a database operation failed, so the callers can tell a failure apart from a player without data.
+ */
+public class DatabaseException extends RuntimeException {
+    /**
+     * Constructs a new DatabaseException.
+     *
+     * @param message The description of the failed operation.
+     * @param cause   The error which made the operation fail.
+     */
+    public DatabaseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
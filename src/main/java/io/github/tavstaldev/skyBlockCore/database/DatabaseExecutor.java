@@ -0,0 +1,128 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Provides the executors used by the database layer.
+ * Blocking database work runs on a bounded I/O pool, while results that touch the Bukkit API
+ * are handed back to the server main thread.
+ * An operation submitted while the queue is full is rejected, and its future fails with a {@link RejectedExecutionException},
+ * so a stalled database never grows an unbounded backlog.
+ */
+public class DatabaseExecutor {
+    private static ThreadPoolExecutor _ioExecutor; // Bounded executor for blocking database operations.
+    private static final Executor _mainThreadExecutor = task -> {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+            return;
+        }
+        Bukkit.getScheduler().runTask(SkyBlockCore.Instance, task);
+    };
+    // Rejects the operations a full queue cannot take, so the backlog stays bounded and the calling thread never blocks.
+    private static final RejectedExecutionHandler _overflowHandler = (task, executor) -> {
+        if (executor.isShutdown() || !SkyBlockCore.Instance.isEnabled()) {
+            task.run(); // Plugin is shutting down, the same as io() after the shutdown.
+            return;
+        }
+        throw new RejectedExecutionException(String.format("The database queue is full, %d operations are waiting.", executor.getQueue().size()));
+    };
+
+    /**
+     * Starts the I/O executor if it is not running yet.
+     *
+     * @param threads   The number of worker threads.
+     * @param queueSize The maximum number of queued operations, further operations are rejected.
+     */
+    public static synchronized void start(int threads, int queueSize) {
+        if (_ioExecutor != null && !_ioExecutor.isShutdown())
+            return;
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        _ioExecutor = new ThreadPoolExecutor(
+                Math.max(1, threads),
+                Math.max(1, threads),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "SkyBlockCore-IO-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Running a rejected operation on the caller would put blocking database work back on the main thread.
+                _overflowHandler
+        );
+        _ioExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stops the I/O executor and waits for the queued operations to finish.
+     */
+    public static synchronized void shutdown() {
+        if (_ioExecutor == null)
+            return;
+
+        _ioExecutor.shutdown();
+        try {
+            if (!_ioExecutor.awaitTermination(10, TimeUnit.SECONDS))
+                SkyBlockCore.logger().warn("Database operations did not finish in time, some changes might be lost.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        _ioExecutor = null;
+    }
+
+    /**
+     * Gets the executor used for blocking database operations.
+     *
+     * @return The I/O executor.
+     */
+    public static Executor io() {
+        var executor = _ioExecutor;
+        if (executor == null || executor.isShutdown())
+            return Runnable::run; // Plugin is shutting down, run the work on the calling thread.
+        return executor;
+    }
+
+    /**
+     * Gets an executor that runs tasks on the server main thread.
+     *
+     * @return The main thread executor.
+     */
+    public static Executor mainThread() {
+        return _mainThreadExecutor;
+    }
+
+    /**
+     * Runs a blocking database operation on the I/O executor.
+     *
+     * @param supplier The operation to run.
+     * @param <T>      The type of the result.
+     * @return A future completed with the result of the operation, or failed with a {@link RejectedExecutionException} if the queue is full.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, io());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Runs a blocking database operation on the I/O executor.
+     *
+     * @param runnable The operation to run.
+     * @return A future completed when the operation finished, or failed with a {@link RejectedExecutionException} if the queue is full.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        try {
+            return CompletableFuture.runAsync(runnable, io());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+}
@@ -0,0 +1,671 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implements the IDatabase interface using a memory-mapped binary file of fixed-width player records.
+ * Reads and writes are hash lookups into the mapped file without any SQL, and the changed records
+ * are forced to the disk at regular checkpoints. Meant for servers which do not share their players.
+ * A new file imports the players of the SQLite database, and the file can be exported to a SQLite database.
+ * The import is written to a temporary file which replaces the record file only once it is complete,
+ * and no player is loaded while the record file is not open.
+ */
+public class FlatFileDatabase implements IDatabase {
+    private final PluginLogger _logger = SkyBlockCore.logger().withModule(FlatFileDatabase.class); // Logger for database operations.
+    private final CompletableFuture<Void> _schemaReady = new CompletableFuture<>(); // Completed when the file is opened.
+    private SkyBlockConfig _config; // Configuration for database settings.
+    private PlayerRecordFile _file; // The record file.
+    private PlayerDataCache _playerCache; // Cache of loaded player data.
+    private final WriteBehindBuffer _writeBehind = new WriteBehindBuffer(this::writePlayerData); // Buffer of unsaved player data changes.
+    private volatile PlayerDataConflictResolver _conflictResolver = PlayerDataConflictResolver.DEFAULT; // Merges the fields changed by concurrent writers.
+    private volatile long _lastCheckpointAt = System.currentTimeMillis(); // Time of the last checkpoint in milliseconds.
+    private volatile boolean _opened; // Whether the record file was opened, false while the import did not complete.
+
+    /**
+     * Loads the database by creating the record file and the player cache. The file is opened by {@link #checkSchema()}.
+     */
+    @Override
+    public void load() {
+        _config = SkyBlockCore.config();
+        _file = new PlayerRecordFile(getPath(".dat"));
+        _playerCache = new PlayerDataCache(_config, _writeBehind, this::selectPlayerData);
+        update();
+    }
+
+    /**
+     * Does nothing, the location of the file is only read when the database is loaded.
+     */
+    @Override
+    public void update() {
+    }
+
+    /**
+     * Unloads the database by writing the pending changes and closing the file.
+     */
+    @Override
+    public void unload() {
+        flush();
+        try {
+            _writeBehind.closeJournal();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while closing the journal...\n%s", ex.getMessage()));
+        }
+        try {
+            _file.close();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while closing the player file...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Opens the record file, importing the SQLite database first when the file has no players yet, then seeds the leaderboard.
+     * Player data operations wait until this completed, and fail when the file could not be opened,
+     * so players joining meanwhile do not get default data in place of the stored data.
+     */
+    @Override
+    public void checkSchema() {
+        try {
+            Path path = getPath(".dat");
+            Path source = getPath(".db");
+            Files.createDirectories(path.getParent());
+            // A file without players might be left by a failed import of an older version, so it is imported again
+            if (_config.storageFlatFileImportSqlite && Files.exists(source) && !hasPlayers(path))
+                importSqlite(source, path);
+            int damaged = _file.open(_config.storageFlatFileInitialCapacity);
+            if (damaged > 0)
+                _logger.warn(String.format("Skipped %d damaged player records.", damaged));
+            _opened = true;
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while opening the player file...\n%s", ex.getMessage()));
+            _logger.error("No player data is loaded until the player file opens, fix the error and restart the server.");
+            return;
+        } finally {
+            _schemaReady.complete(null);
+        }
+
+        recoverJournal();
+        _file.forEach((playerId, record) -> LeaderboardManager.seed(playerId,
+                record.values()[PlayerDataField.LEVEL.ordinal()], record.values()[PlayerDataField.EXPERIENCE.ordinal()]));
+        _logger.info(String.format("Loaded %d stored players.", _file.size()));
+    }
+
+    /**
+     * Replays the changes a crash left in the journal and writes them to the file, then journals the new changes.
+     */
+    private void recoverJournal() {
+        if (!_config.storageJournalEnabled)
+            return;
+        try {
+            var journal = new MutationJournal(_logger, Path.of("plugins", "SkyBlockCore", "journal"), _config.storageFilename);
+            int recovered = _writeBehind.recover(journal, this::loadForRecovery);
+            if (recovered > 0) {
+                _logger.warn(String.format("Recovered the unsaved changes of %d players from the journal.", recovered));
+                flush();
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while recovering the journal...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Loads the data of a player on the current thread, used by the journal recovery.
+     * The recovery runs on the I/O executor, so waiting for a load of the cache queued on the same executor
+     * could deadlock with a single I/O thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData loadForRecovery(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null)
+            return data;
+        data = selectPlayerData(playerId);
+        if (data != null)
+            _playerCache.put(data); // Players joining meanwhile see the recovered changes.
+        return data;
+    }
+
+    /**
+     * Opens the record file on the I/O executor, so the server can finish enabling meanwhile.
+     *
+     * @return A future completing when the file is opened, even if it failed.
+     */
+    @Override
+    public CompletableFuture<Void> checkSchemaAsync() {
+        DatabaseExecutor.runAsync(this::checkSchema);
+        return _schemaReady;
+    }
+
+    /**
+     * Waits until the file is opened, before the first player data operation touches it.
+     *
+     * @throws DatabaseException If the file could not be opened.
+     */
+    private void awaitSchema() {
+        _schemaReady.join();
+        if (!_opened)
+            throw new DatabaseException("The player file is not open, the player data cannot be accessed.", null);
+    }
+
+    /**
+     * Adds a new player's data to the file and caches it.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void addPlayerData(UUID playerId) {
+        try {
+            awaitSchema();
+            PlayerData data = new PlayerData(playerId);
+            if (!_file.insert(playerId, data.getValues())) {
+                _logger.warn(String.format("The data of player %s already exists.", playerId));
+                return;
+            }
+            _playerCache.markCreated(playerId);
+            _playerCache.put(data);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Updates an existing player's data in the cache and queues it for the next flush.
+     *
+     * @param newData The updated player data.
+     */
+    @Override
+    public void updatePlayerData(PlayerData newData) {
+        _playerCache.put(newData);
+        _writeBehind.enqueue(newData);
+        if (!_config.storageWriteBehindEnabled)
+            _writeBehind.flush(newData.getUuid());
+    }
+
+    /**
+     * Writes a batch of player data changes to the file.
+     * Records changed by another writer since they were read are merged with the current record instead of overwritten.
+     * Every record is written on its own, so a single failing record does not keep the others from being stored.
+     *
+     * @param batch The pending writes.
+     * @return The pending writes which were not written.
+     */
+    private List<WriteBehindBuffer.PendingWrite> writePlayerData(List<WriteBehindBuffer.PendingWrite> batch) {
+        var resolver = _conflictResolver;
+        List<WriteBehindBuffer.PendingWrite> failed = new ArrayList<>();
+        try {
+            awaitSchema();
+        } catch (DatabaseException ex) {
+            _logger.error(String.format("Unknown error happened while writing player data...\n%s", ex.getMessage()));
+            return batch;
+        }
+        for (var pendingWrite : batch) {
+            try {
+                var record = _file.update(pendingWrite.data().getUuid(), current -> {
+                    int[] values = current.values().clone();
+                    for (var field : PlayerDataField.values()) {
+                        int index = field.ordinal();
+                        if (!field.isIn(pendingWrite.fields()))
+                            continue;
+                        values[index] = current.version() == pendingWrite.version()
+                                ? pendingWrite.values()[index]
+                                : resolver.merge(field, pendingWrite.baseValues()[index], pendingWrite.values()[index], values[index]);
+                    }
+                    return new PlayerRecordFile.Record(values, current.version() + 1);
+                });
+                if (record == null)
+                    continue;
+                PlayerDataUpdateSql.applyStored(pendingWrite, new PlayerDataUpdateSql.StoredRow(record.values(), record.version()), resolver);
+                LeaderboardManager.update(pendingWrite.data());
+            } catch (Exception ex) {
+                _logger.error(String.format("Unknown error happened while writing the data of player %s...\n%s", pendingWrite.data().getUuid(), ex.getMessage()));
+                failed.add(pendingWrite);
+            }
+        }
+        // The journal is truncated after the flush, so the records have to reach the disk first
+        if (_config.storageJournalEnabled) {
+            try {
+                _file.checkpoint();
+            } catch (Exception ex) {
+                _logger.error(String.format("Unknown error happened while writing player data...\n%s", ex.getMessage()));
+                return batch;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player in the file and patches the cached data.
+     * The value is clamped between 0 and the largest value of the column, like on every other backend.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return The new value of the field, or empty if the player has no data.
+     * @throws DatabaseException If the increment failed.
+     */
+    @Override
+    public OptionalInt incrementField(UUID playerId, PlayerDataField field, int delta) {
+        if (!field.isIncrementable())
+            throw new IllegalArgumentException(String.format("The field %s cannot be incremented.", field));
+
+        _writeBehind.flush(playerId); // A buffered absolute value would overwrite the increment.
+        awaitSchema();
+        PlayerRecordFile.Record record;
+        try {
+            record = _file.update(playerId, current -> {
+                int[] values = current.values().clone();
+                values[field.ordinal()] = field.add(values[field.ordinal()], delta);
+                return new PlayerRecordFile.Record(values, current.version() + 1);
+            });
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while incrementing player data...\n%s", ex.getMessage()));
+            throw new DatabaseException("Failed to increment player data.", ex);
+        }
+
+        if (record == null)
+            return OptionalInt.empty();
+        int value = record.values()[field.ordinal()];
+        _playerCache.patch(playerId, field, value, record.version());
+        return OptionalInt.of(value);
+    }
+
+    /**
+     * Writes every pending player data change to the file.
+     */
+    @Override
+    public void flush() {
+        _writeBehind.flush(_config.storageWriteBehindBatchSize);
+    }
+
+    /**
+     * Writes the pending changes of a player to the file.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void flush(UUID playerId) {
+        _writeBehind.flush(playerId);
+    }
+
+    /**
+     * Writes the pending player data changes if a flush is due,
+     * and forces the changed records to the disk when the checkpoint interval elapsed.
+     */
+    @Override
+    public void flushIfDue() {
+        if (_writeBehind.isFlushDue(_config.storageWriteBehindFlushInterval * 1000L, _config.storageWriteBehindMaxStaleness * 1000L, _config.storageWriteBehindBatchSize))
+            flush();
+
+        long now = System.currentTimeMillis();
+        if (now - _lastCheckpointAt < _config.storageFlatFileCheckpointInterval * 1000L || !_opened)
+            return;
+        _lastCheckpointAt = now;
+        try {
+            _file.checkpoint();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while writing the player file...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Does nothing, the file belongs to a single server.
+     */
+    @Override
+    public void pollChanges() {
+    }
+
+    /**
+     * Writes the journaled player data changes to the disk.
+     */
+    @Override
+    public void syncJournal() {
+        _writeBehind.syncJournal();
+    }
+
+    /**
+     * Removes a player's data from the file and cache.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void removePlayerData(UUID playerId) {
+        _writeBehind.discard(playerId);
+        try {
+            awaitSchema();
+            if (_file.remove(playerId))
+                _playerCache.markRemoved(playerId);
+            _playerCache.invalidate(playerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves a player's data from the cache, loading it from the file on a miss.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if not found.
+     */
+    @Override
+    public Optional<PlayerData> getPlayerData(UUID playerId) {
+        return _playerCache.get(playerId).join();
+    }
+
+    /**
+     * Loads a player's data from the file, used by the player cache.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData selectPlayerData(UUID playerId) {
+        try {
+            awaitSchema();
+            var record = _file.read(playerId);
+            return record == null ? null : PlayerData.fromValues(playerId, record.values(), record.version());
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Adds the default data of a player when it does not exist, then loads it, used by the player cache.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if an error occurred.
+     */
+    private PlayerData upsertPlayerData(UUID playerId) {
+        try {
+            awaitSchema();
+            if (_file.insert(playerId, new PlayerData(playerId).getValues()))
+                _playerCache.markCreated(playerId);
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while loading player data...\n%s", ex.getMessage()));
+            return null;
+        }
+        return selectPlayerData(playerId);
+    }
+
+    /**
+     * Retrieves a player's data, adding the default data first when it does not exist.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public Optional<PlayerData> loadOrCreate(UUID playerId) {
+        return loadOrCreateAsync(playerId).join();
+    }
+
+    /**
+     * Loads a player's data, adding the default data first when it does not exist,
+     * and pins it in the player cache until the player quits.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public Optional<PlayerData> pinPlayer(UUID playerId) {
+        return _playerCache.pin(playerId, this::upsertPlayerData);
+    }
+
+    /**
+     * Unpins a player's data in the player cache and writes its buffered changes asynchronously.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void unpinPlayer(UUID playerId) {
+        _playerCache.unpin(playerId);
+        // Called on the main thread, the write and the wait for a running batch flush happen on the I/O executor
+        DatabaseExecutor.runAsync(() -> _writeBehind.flush(playerId));
+    }
+
+    /**
+     * Retrieves the statistics of the connection pool.
+     *
+     * @return An empty Optional, the file has no connections.
+     */
+    @Override
+    public Optional<PoolMetrics> getPoolMetrics() {
+        return Optional.empty();
+    }
+
+    /**
+     * Sets the resolver merging the fields changed both locally and by another writer.
+     *
+     * @param resolver The conflict resolver.
+     */
+    @Override
+    public void setConflictResolver(PlayerDataConflictResolver resolver) {
+        _conflictResolver = resolver;
+    }
+
+    //#region SQLite
+    /**
+     * Checks whether a record file holds any player.
+     *
+     * @param path The path of the record file.
+     * @return True if the file exists and holds at least one player, false otherwise.
+     * @throws IOException If the file cannot be opened.
+     */
+    private boolean hasPlayers(Path path) throws IOException {
+        if (!Files.exists(path))
+            return false;
+        try (var file = new PlayerRecordFile(path)) {
+            file.open(_config.storageFlatFileInitialCapacity);
+            return file.size() > 0;
+        }
+    }
+
+    /**
+     * Imports the players of a SQLite database into a new record file.
+     * The database is migrated to the current schema and identifier format first, like the SQLite storage does on start.
+     * The players are written to a temporary file, which replaces the record file only after every player was imported,
+     * so a failed import leaves no record file behind and is tried again on the next start.
+     *
+     * @param source The path of the SQLite database.
+     * @param target The path of the record file.
+     * @throws Exception If the database cannot be read or a record cannot be stored.
+     */
+    private void importSqlite(Path source, Path target) throws Exception {
+        _logger.info(String.format("Importing the players of %s...", source));
+        var uuidCodec = UuidCodec.fromConfig(_config.storageUuidFormat);
+        Path temporary = getPath(".dat.import");
+        Files.deleteIfExists(temporary);
+        int count = 0;
+        try (var file = new PlayerRecordFile(temporary)) {
+            file.open(_config.storageFlatFileInitialCapacity);
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + source)) {
+                new SchemaMigrator(_logger, _config.storageTablePrefix, true, SqlLiteDatabase.createPlayersSql(uuidCodec), uuidCodec, _config.storageMigrationChunkSize)
+                        .run(connection);
+                try (Statement statement = connection.createStatement();
+                     ResultSet result = statement.executeQuery(String.format("SELECT * FROM %s_players;", _config.storageTablePrefix))) {
+                    while (result.next()) {
+                        int[] values = new int[PlayerDataField.values().length];
+                        for (var field : PlayerDataField.values()) {
+                            values[field.ordinal()] = result.getInt(field.getColumn());
+                        }
+                        var playerId = uuidCodec.read(result, "PlayerId");
+                        long version = result.getLong("Version");
+                        if (!file.insert(playerId, values))
+                            continue;
+                        if (version != 0)
+                            file.update(playerId, record -> new PlayerRecordFile.Record(record.values(), version));
+                        count++;
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        _logger.ok(String.format("Imported %d players from %s.", count, source));
+    }
+
+    /**
+     * Exports every player of the file into a new SQLite database next to the file.
+     * The export is a complete database of the sqlite storage type, replacing the database file with it switches back to SQLite.
+     *
+     * @return The path of the exported database and the number of exported players.
+     * @throws Exception If the database cannot be written.
+     */
+    public Map.Entry<Path, Integer> exportSqlite() throws Exception {
+        awaitSchema();
+        flush();
+        // Copy the rows first, so the file is not locked while the database is written
+        Map<UUID, PlayerRecordFile.Record> rows = new LinkedHashMap<>();
+        _file.forEach(rows::put);
+
+        Path target = getPath("-export.db");
+        Files.deleteIfExists(target);
+        var uuidCodec = UuidCodec.fromConfig(_config.storageUuidFormat);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + target)) {
+            new SchemaMigrator(_logger, _config.storageTablePrefix, true, SqlLiteDatabase.createPlayersSql(uuidCodec), uuidCodec, _config.storageMigrationChunkSize)
+                    .run(connection);
+
+            StringBuilder columns = new StringBuilder("PlayerId");
+            StringBuilder parameters = new StringBuilder("?");
+            for (var field : PlayerDataField.values()) {
+                columns.append(", ").append(field.getColumn());
+                parameters.append(", ?");
+            }
+            String insertSql = String.format("INSERT INTO %s_players (%s, Version) VALUES (%s, ?);", _config.storageTablePrefix, columns, parameters);
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                int pending = 0;
+                for (var entry : rows.entrySet()) {
+                    int index = 1;
+                    uuidCodec.bind(statement, index++, entry.getKey());
+                    for (int value : entry.getValue().values()) {
+                        statement.setInt(index++, value);
+                    }
+                    statement.setLong(index, entry.getValue().version());
+                    statement.addBatch();
+                    if (++pending >= _config.storageMigrationChunkSize) {
+                        statement.executeBatch();
+                        connection.commit();
+                        pending = 0;
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            }
+        }
+        _logger.ok(String.format("Exported %d players to %s.", rows.size(), target));
+        return Map.entry(target, rows.size());
+    }
+
+    /**
+     * Exports every player of the file into a new SQLite database on the I/O executor.
+     *
+     * @return A future containing the path of the exported database and the number of exported players.
+     */
+    public CompletableFuture<Map.Entry<Path, Integer>> exportSqliteAsync() {
+        return DatabaseExecutor.supplyAsync(() -> {
+            try {
+                return exportSqlite();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        });
+    }
+
+    //#endregion
+
+    /**
+     * Retrieves the path of a file of this storage, named after the configured file name.
+     *
+     * @param suffix The suffix of the file name.
+     * @return The path.
+     */
+    private Path getPath(String suffix) {
+        return Path.of("plugins", "SkyBlockCore", _config.storageFilename + suffix);
+    }
+
+    //#region Async
+    /**
+     * Adds a new player's data to the file on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was added.
+     */
+    @Override
+    public CompletableFuture<Void> addPlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> addPlayerData(playerId));
+    }
+
+    /**
+     * Retrieves a player's data from the cache, or loads or creates it on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> loadOrCreateAsync(UUID playerId) {
+        return _playerCache.get(playerId, this::upsertPlayerData);
+    }
+
+    /**
+     * Updates an existing player's data in the file on the I/O executor.
+     *
+     * @param newData The updated player data.
+     * @return A future completed when the data was updated.
+     */
+    @Override
+    public CompletableFuture<Void> updatePlayerDataAsync(PlayerData newData) {
+        return DatabaseExecutor.runAsync(() -> updatePlayerData(newData));
+    }
+
+    /**
+     * Removes a player's data from the file on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was removed.
+     */
+    @Override
+    public CompletableFuture<Void> removePlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> removePlayerData(playerId));
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return A future containing the new value of the field, or empty if the player has no data.
+     */
+    @Override
+    public CompletableFuture<OptionalInt> incrementFieldAsync(UUID playerId, PlayerDataField field, int delta) {
+        return DatabaseExecutor.supplyAsync(() -> incrementField(playerId, field, delta));
+    }
+
+    /**
+     * Retrieves a player's data from the cache, or from the file on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if not found.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getPlayerDataAsync(UUID playerId) {
+        return _playerCache.get(playerId);
+    }
+    //#endregion
+}
@@ -1,13 +1,19 @@
 package io.github.tavstaldev.skyBlockCore.database;
 
 import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
 
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents the interface for database operations in the SkyBlockCore plugin.
  * Provides methods for managing player data, rewards, and schema validation.
+ * The synchronous methods block the calling thread, so code running on the server main thread
+ * should use their asynchronous counterparts.
  */
 public interface IDatabase {
 
@@ -31,6 +37,14 @@ public interface IDatabase {
      */
     void checkSchema();
 
+    /**
+     * Checks and ensures the database schema is up-to-date on the I/O executor.
+     * Player data operations issued meanwhile wait until the schema is up-to-date.
+     *
+     * @return A future completing when the schema check finished.
+     */
+    CompletableFuture<Void> checkSchemaAsync();
+
     /**
      * Adds a new player's data to the database.
      *
@@ -40,32 +54,61 @@ public interface IDatabase {
 
     /**
      * Updates an existing player's data in the database.
+     * The changes are buffered and written by the next flush when write-behind is enabled.
      *
      * @param newData The updated player data.
      */
     void updatePlayerData(PlayerData newData);
 
     /**
-     * Removes a player's data from the database.
+     * Atomically adds a delta to a counter field of a player in the database.
+     * The cached player data is patched with the new value instead of being replaced.
+     * The new value is clamped between 0 and the largest value of the column, a decrement below 0 leaves the field at 0.
      *
      * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return The new value of the field, or empty if the player has no data.
+     * @throws IllegalArgumentException If the field is not incrementable.
+     * @throws DatabaseException        If the increment failed.
      */
-    void removePlayerData(UUID playerId);
+    OptionalInt incrementField(UUID playerId, PlayerDataField field, int delta);
 
     /**
-     * Resets the daily rewards for all players in the database.
+     * Writes every buffered player data change to the database.
      */
-    void resetDailyRewards();
+    void flush();
 
     /**
-     * Resets the weekly rewards for all players in the database.
+     * Writes the buffered changes of a player to the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    void flush(UUID playerId);
+
+    /**
+     * Writes the buffered player data changes when the configured interval or staleness limit is reached.
      */
-    void resetWeeklyRewards();
+    void flushIfDue();
 
     /**
-     * Resets the hourly rewards for all players in the database.
+     * Applies the player data changes made by the other servers sharing the database to the caches.
+     * Does nothing unless the change log is enabled and supported by the database.
      */
-    void resetHourlyRewards();
+    void pollChanges();
+
+    /**
+     * Writes the journaled player data changes to the disk, so they survive a crash before the next flush.
+     * Does nothing unless the journal is enabled and used by the database.
+     */
+    void syncJournal();
+
+    /**
+     * Removes a player's data from the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    void removePlayerData(UUID playerId);
 
     /**
      * Retrieves a player's data from the database.
@@ -74,4 +117,134 @@ public interface IDatabase {
      * @return An Optional containing the player's data, or empty if not found.
      */
     Optional<PlayerData> getPlayerData(UUID playerId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a player's data, adding the default data first when it does not exist.
+     * The insert and the read are executed in a single transaction.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    Optional<PlayerData> loadOrCreate(UUID playerId);
+
+    /**
+     * Loads a player's data, adding the default data first when it does not exist,
+     * and keeps it in memory until the player quits.
+     * Blocks until the data is loaded, so it should be called off the main thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    Optional<PlayerData> pinPlayer(UUID playerId);
+
+    /**
+     * Releases a player's data kept in memory by {@link #pinPlayer(UUID)} and writes its buffered changes on the I/O executor.
+     * The data stays cached like the data of any other offline player.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    void unpinPlayer(UUID playerId);
+
+    /**
+     * Retrieves the statistics of the connection pool.
+     *
+     * @return An Optional containing the pool statistics, or empty if the database has no connection pool metrics.
+     */
+    Optional<PoolMetrics> getPoolMetrics();
+
+    /**
+     * Sets the resolver merging the fields of a player changed both locally and by another writer
+     * since they were read. The default resolver re-applies the local delta of counter fields.
+     *
+     * @param resolver The conflict resolver.
+     */
+    void setConflictResolver(PlayerDataConflictResolver resolver);
+
+    //#region Async
+    /**
+     * Adds a new player's data to the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was added.
+     */
+    CompletableFuture<Void> addPlayerDataAsync(UUID playerId);
+
+    /**
+     * Updates an existing player's data in the database on the I/O executor.
+     *
+     * @param newData The updated player data.
+     * @return A future completed when the data was updated.
+     */
+    CompletableFuture<Void> updatePlayerDataAsync(PlayerData newData);
+
+    /**
+     * Removes a player's data from the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was removed.
+     */
+    CompletableFuture<Void> removePlayerDataAsync(UUID playerId);
+
+    /**
+     * Atomically adds a delta to a counter field of a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return A future containing the new value of the field, or empty if the player has no data.
+     *         The future completes with a {@link DatabaseException} if the increment failed.
+     */
+    CompletableFuture<OptionalInt> incrementFieldAsync(UUID playerId, PlayerDataField field, int delta);
+
+    /**
+     * Atomically adds experience to a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param delta    The amount to add, negative values remove experience.
+     * @return A future containing the new experience, or empty if the player has no data.
+     */
+    default CompletableFuture<OptionalInt> incrementExperience(UUID playerId, int delta) {
+        return incrementFieldAsync(playerId, PlayerDataField.EXPERIENCE, delta);
+    }
+
+    /**
+     * Atomically adds levels to a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param delta    The amount to add, negative values remove levels.
+     * @return A future containing the new level, or empty if the player has no data.
+     */
+    default CompletableFuture<OptionalInt> incrementLevel(UUID playerId, int delta) {
+        return incrementFieldAsync(playerId, PlayerDataField.LEVEL, delta);
+    }
+
+    /**
+     * Atomically adds factories to a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param delta    The amount to add, negative values remove factories.
+     * @return A future containing the new number of factories, or empty if the player has no data.
+     */
+    default CompletableFuture<OptionalInt> incrementFactories(UUID playerId, int delta) {
+        return incrementFieldAsync(playerId, PlayerDataField.FACTORIES, delta);
+    }
+
+    /**
+     * Retrieves a player's data without blocking the calling thread.
+     * The returned future is already completed when the data is cached.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if not found.
+     */
+    CompletableFuture<Optional<PlayerData>> getPlayerDataAsync(UUID playerId);
+
+    /**
+     * Retrieves a player's data, adding the default data first when it does not exist, without blocking the calling thread.
+     * The returned future is already completed when the data is cached.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if an error occurred.
+     */
+    CompletableFuture<Optional<PlayerData>> loadOrCreateAsync(UUID playerId);
+    //#endregion
+}
@@ -0,0 +1,53 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+
+import java.util.UUID;
+
+/**
+ * Receives the score changes of the stored players, to keep the rankings up-to-date.
+ * Every method does nothing by default, so a database used without the plugin, for example by a test, takes {@link #NONE}.
+ */
+public interface LeaderboardHook {
+    /**
+     * Ignores every change.
+     */
+    LeaderboardHook NONE = new LeaderboardHook() {};
+
+    /**
+     * Adds the stored score of a player, read when the database is opened.
+     *
+     * @param playerId   The unique identifier of the player.
+     * @param level      The stored level of the player.
+     * @param experience The stored experience of the player.
+     */
+    default void seed(UUID playerId, int level, int experience) {
+    }
+
+    /**
+     * Updates the score of a player from its data.
+     *
+     * @param data The player data.
+     */
+    default void update(PlayerData data) {
+    }
+
+    /**
+     * Updates a single field of a player's score.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The changed field.
+     * @param value    The new value of the field.
+     */
+    default void update(UUID playerId, PlayerDataField field, int value) {
+    }
+
+    /**
+     * Removes a player whose data was deleted.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    default void remove(UUID playerId) {
+    }
+}
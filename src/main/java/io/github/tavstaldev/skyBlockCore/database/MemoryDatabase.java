@@ -0,0 +1,508 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Implements the IDatabase interface without any I/O, keeping every player in memory.
+ * Rows are stored as plain value arrays with a version, like the rows of the SQL backends,
+ * and every operation completes on the calling thread.
+ * Used by tests, benchmarks and small test servers, and as the baseline latency of the other backends.
+ * The rows can be saved to a snapshot file, which is loaded on the next start.
+ * The logger, the settings and the leaderboard are passed in, so the database also works without a running plugin.
+ */
+public class MemoryDatabase implements IDatabase {
+    private static final int SNAPSHOT_MAGIC = 0x53424353; // Marks a snapshot file of this backend.
+    private static final int SNAPSHOT_FORMAT = 1; // The layout of the snapshot file.
+
+    private final PluginLogger _logger; // Logger for database operations.
+    private final Supplier<Settings> _settingsSource; // Reads the settings of the configuration.
+    private final LeaderboardHook _leaderboard; // Receives the score changes.
+    private final Map<UUID, Row> _rows = new ConcurrentHashMap<>(); // The stored rows by player.
+    private final Map<UUID, PlayerData> _loaded = new ConcurrentHashMap<>(); // The player data handed out, by player.
+    private final CompletableFuture<Void> _schemaReady = new CompletableFuture<>(); // Completed when the snapshot is loaded.
+    private volatile Settings _settings; // The current settings.
+    private volatile PlayerDataConflictResolver _conflictResolver = PlayerDataConflictResolver.DEFAULT; // Merges the fields changed by concurrent writers.
+    private volatile boolean _changed; // Whether a row changed since the last snapshot.
+    private volatile long _lastSnapshotAt = System.currentTimeMillis(); // Time of the last snapshot in milliseconds.
+
+    /**
+     * A stored player row.
+     *
+     * @param values  The stored values, by field ordinal. Never modified after the row is stored.
+     * @param version The version of the row.
+     */
+    private record Row(int[] values, long version) {}
+
+    /**
+     * The settings of the memory storage.
+     *
+     * @param snapshotFile     The snapshot file.
+     * @param snapshotEnabled  Whether the rows are saved to the snapshot file.
+     * @param snapshotInterval The interval in seconds between snapshots, 0 or less to save only on shutdown.
+     */
+    public record Settings(Path snapshotFile, boolean snapshotEnabled, int snapshotInterval) {
+        /**
+         * Reads the settings of the memory storage from the configuration.
+         *
+         * @param config The configuration.
+         * @return The settings.
+         */
+        public static Settings of(SkyBlockConfig config) {
+            return new Settings(Path.of("plugins", "SkyBlockCore", config.storageFilename + ".snapshot"),
+                    config.storageMemorySnapshotEnabled, config.storageMemorySnapshotInterval);
+        }
+    }
+
+    /**
+     * Constructs a new MemoryDatabase.
+     *
+     * @param logger         The logger of the database.
+     * @param settingsSource Reads the settings, called on load and on every reload of the configuration.
+     * @param leaderboard    Receives the score changes, {@link LeaderboardHook#NONE} to keep no rankings.
+     */
+    public MemoryDatabase(PluginLogger logger, Supplier<Settings> settingsSource, LeaderboardHook leaderboard) {
+        _logger = logger;
+        _settingsSource = settingsSource;
+        _leaderboard = leaderboard;
+    }
+
+    /**
+     * Loads the database settings.
+     */
+    @Override
+    public void load() {
+        update();
+    }
+
+    /**
+     * Updates the settings, including the location of the snapshot file, based on the current configuration.
+     */
+    @Override
+    public void update() {
+        _settings = _settingsSource.get();
+    }
+
+    /**
+     * Unloads the database by saving a snapshot, if snapshots are enabled.
+     */
+    @Override
+    public void unload() {
+        if (_settings.snapshotEnabled() && _changed)
+            saveSnapshot();
+    }
+
+    /**
+     * Loads the snapshot file, if snapshots are enabled, and seeds the leaderboard with the loaded players.
+     */
+    @Override
+    public void checkSchema() {
+        try {
+            if (_settings.snapshotEnabled() && Files.exists(_settings.snapshotFile()))
+                loadSnapshot();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while loading the snapshot...\n%s", ex.getMessage()));
+        } finally {
+            _schemaReady.complete(null);
+        }
+        for (var entry : _rows.entrySet()) {
+            int[] values = entry.getValue().values();
+            _leaderboard.seed(entry.getKey(), values[PlayerDataField.LEVEL.ordinal()], values[PlayerDataField.EXPERIENCE.ordinal()]);
+        }
+    }
+
+    /**
+     * Loads the snapshot file on the I/O executor.
+     *
+     * @return A future completing when the snapshot is loaded, even if it failed.
+     */
+    @Override
+    public CompletableFuture<Void> checkSchemaAsync() {
+        DatabaseExecutor.runAsync(this::checkSchema);
+        return _schemaReady;
+    }
+
+    /**
+     * Waits until the snapshot is loaded, before the first player data operation touches the rows.
+     */
+    private void awaitSchema() {
+        _schemaReady.join();
+    }
+
+    /**
+     * Adds the default data of a new player.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void addPlayerData(UUID playerId) {
+        awaitSchema();
+        if (!createRow(playerId))
+            _logger.warn(String.format("The data of player %s already exists.", playerId));
+    }
+
+    /**
+     * Stores the data of a player.
+     * A row changed since the data was read is merged by the conflict resolver, like the SQL backends do.
+     *
+     * @param newData The updated player data.
+     */
+    @Override
+    public void updatePlayerData(PlayerData newData) {
+        awaitSchema();
+        var resolver = _conflictResolver;
+        newData.clearDirty();
+        var pendingWrite = WriteBehindBuffer.PendingWrite.of(newData, PlayerDataField.ALL_MASK);
+        Row row = _rows.computeIfPresent(newData.getUuid(), (key, current) -> {
+            if (current.version() == pendingWrite.version())
+                return new Row(pendingWrite.values(), current.version() + 1);
+            int[] values = current.values().clone();
+            for (var field : PlayerDataField.values()) {
+                int index = field.ordinal();
+                values[index] = resolver.merge(field, pendingWrite.baseValues()[index], pendingWrite.values()[index], values[index]);
+            }
+            return new Row(values, current.version() + 1);
+        });
+        if (row == null)
+            return;
+
+        _changed = true;
+        PlayerDataUpdateSql.applyStored(pendingWrite, new PlayerDataUpdateSql.StoredRow(row.values(), row.version()), resolver);
+        _leaderboard.update(newData);
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player.
+     * The value is clamped between 0 and the largest value of the column, like on every other backend.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return The new value of the field, or empty if the player has no data.
+     */
+    @Override
+    public OptionalInt incrementField(UUID playerId, PlayerDataField field, int delta) {
+        if (!field.isIncrementable())
+            throw new IllegalArgumentException(String.format("The field %s cannot be incremented.", field));
+
+        awaitSchema();
+        Row row = _rows.computeIfPresent(playerId, (key, current) -> {
+            int[] values = current.values().clone();
+            values[field.ordinal()] = field.add(values[field.ordinal()], delta);
+            return new Row(values, current.version() + 1);
+        });
+        if (row == null)
+            return OptionalInt.empty();
+
+        _changed = true;
+        int value = row.values()[field.ordinal()];
+        var data = _loaded.get(playerId);
+        if (data != null)
+            data.patchSaved(field, value, row.version());
+        _leaderboard.update(playerId, field, value);
+        return OptionalInt.of(value);
+    }
+
+    /**
+     * Does nothing, changes are stored immediately.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Does nothing, changes are stored immediately.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void flush(UUID playerId) {
+    }
+
+    /**
+     * Saves a snapshot when snapshots are enabled, the rows changed and the snapshot interval elapsed.
+     */
+    @Override
+    public void flushIfDue() {
+        var settings = _settings;
+        if (!settings.snapshotEnabled() || settings.snapshotInterval() <= 0 || !_changed)
+            return;
+        if (System.currentTimeMillis() - _lastSnapshotAt >= settings.snapshotInterval() * 1000L)
+            saveSnapshot();
+    }
+
+    /**
+     * Does nothing, the memory storage belongs to a single server.
+     */
+    @Override
+    public void pollChanges() {
+    }
+
+    /**
+     * Does nothing, the memory storage has no buffered changes to journal.
+     */
+    @Override
+    public void syncJournal() {
+    }
+
+    /**
+     * Removes a player's data.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void removePlayerData(UUID playerId) {
+        awaitSchema();
+        if (_rows.remove(playerId) != null) {
+            _changed = true;
+            _leaderboard.remove(playerId);
+        }
+        _loaded.remove(playerId);
+    }
+
+    /**
+     * Retrieves a player's data. Every call returns the same instance until the player is removed.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if not found.
+     */
+    @Override
+    public Optional<PlayerData> getPlayerData(UUID playerId) {
+        var data = _loaded.get(playerId);
+        if (data != null)
+            return Optional.of(data);
+
+        awaitSchema();
+        var row = _rows.get(playerId);
+        if (row == null)
+            return Optional.empty();
+        return Optional.of(_loaded.computeIfAbsent(playerId, key -> PlayerData.fromValues(key, row.values(), row.version())));
+    }
+
+    /**
+     * Retrieves a player's data, adding the default data first when it does not exist.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data.
+     */
+    @Override
+    public Optional<PlayerData> loadOrCreate(UUID playerId) {
+        var data = _loaded.get(playerId);
+        if (data != null)
+            return Optional.of(data);
+
+        awaitSchema();
+        createRow(playerId);
+        return getPlayerData(playerId);
+    }
+
+    /**
+     * Loads a player's data, adding the default data first when it does not exist.
+     * Every player stays in memory, so there is nothing to pin.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data.
+     */
+    @Override
+    public Optional<PlayerData> pinPlayer(UUID playerId) {
+        return loadOrCreate(playerId);
+    }
+
+    /**
+     * Does nothing, every player stays in memory.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void unpinPlayer(UUID playerId) {
+    }
+
+    /**
+     * Retrieves the statistics of the connection pool.
+     *
+     * @return An empty Optional, the memory storage has no connections.
+     */
+    @Override
+    public Optional<PoolMetrics> getPoolMetrics() {
+        return Optional.empty();
+    }
+
+    /**
+     * Sets the resolver merging the fields changed both locally and by another writer.
+     *
+     * @param resolver The conflict resolver.
+     */
+    @Override
+    public void setConflictResolver(PlayerDataConflictResolver resolver) {
+        _conflictResolver = resolver;
+    }
+
+    /**
+     * Stores the default row of a player, unless the player already has one.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return True if the row was created, false if it already existed.
+     */
+    private boolean createRow(UUID playerId) {
+        var defaults = new PlayerData(playerId);
+        if (_rows.putIfAbsent(playerId, new Row(defaults.getValues(), 0)) != null)
+            return false;
+        _changed = true;
+        _leaderboard.update(defaults);
+        return true;
+    }
+
+    //#region Snapshot
+    /**
+     * Writes every row to the snapshot file.
+     * The snapshot is written to a temporary file first, so a crash while writing keeps the previous snapshot.
+     */
+    private synchronized void saveSnapshot() {
+        Path snapshotFile = _settings.snapshotFile();
+        _changed = false;
+        _lastSnapshotAt = System.currentTimeMillis();
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeInt(SNAPSHOT_FORMAT);
+                output.writeInt(PlayerDataField.values().length);
+                for (var entry : _rows.entrySet()) {
+                    output.writeBoolean(true);
+                    output.writeLong(entry.getKey().getMostSignificantBits());
+                    output.writeLong(entry.getKey().getLeastSignificantBits());
+                    output.writeLong(entry.getValue().version());
+                    for (int value : entry.getValue().values()) {
+                        output.writeInt(value);
+                    }
+                }
+                output.writeBoolean(false);
+            }
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            _logger.debug(String.format("Saved a snapshot of %d players.", _rows.size()));
+        } catch (Exception ex) {
+            _changed = true;
+            _logger.error(String.format("Unknown error happened while saving the snapshot...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Reads every row from the snapshot file.
+     *
+     * @throws IOException If the file cannot be read or is not a snapshot of this backend.
+     */
+    private void loadSnapshot() throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(_settings.snapshotFile())))) {
+            if (input.readInt() != SNAPSHOT_MAGIC)
+                throw new IOException("The file is not a snapshot of the memory storage.");
+            int format = input.readInt();
+            if (format != SNAPSHOT_FORMAT)
+                throw new IOException(String.format("The snapshot format %d is not supported.", format));
+            int fieldCount = input.readInt();
+            int fields = PlayerDataField.values().length;
+            while (input.readBoolean()) {
+                var playerId = new UUID(input.readLong(), input.readLong());
+                long version = input.readLong();
+                // Fields added since the snapshot keep their default values
+                int[] values = new PlayerData(playerId).getValues();
+                for (int i = 0; i < fieldCount; i++) {
+                    int value = input.readInt();
+                    if (i < fields)
+                        values[i] = value;
+                }
+                _rows.put(playerId, new Row(values, version));
+            }
+        }
+        _logger.info(String.format("Loaded a snapshot of %d players.", _rows.size()));
+    }
+    //#endregion
+
+    //#region Async
+    /**
+     * Adds a new player's data on the calling thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A completed future.
+     */
+    @Override
+    public CompletableFuture<Void> addPlayerDataAsync(UUID playerId) {
+        addPlayerData(playerId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Stores the data of a player on the calling thread.
+     *
+     * @param newData The updated player data.
+     * @return A completed future.
+     */
+    @Override
+    public CompletableFuture<Void> updatePlayerDataAsync(PlayerData newData) {
+        updatePlayerData(newData);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Removes a player's data on the calling thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A completed future.
+     */
+    @Override
+    public CompletableFuture<Void> removePlayerDataAsync(UUID playerId) {
+        removePlayerData(playerId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player on the calling thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return A completed future containing the new value of the field, or empty if the player has no data.
+     */
+    @Override
+    public CompletableFuture<OptionalInt> incrementFieldAsync(UUID playerId, PlayerDataField field, int delta) {
+        return CompletableFuture.completedFuture(incrementField(playerId, field, delta));
+    }
+
+    /**
+     * Retrieves a player's data on the calling thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A completed future containing the player's data, or empty if not found.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getPlayerDataAsync(UUID playerId) {
+        return CompletableFuture.completedFuture(getPlayerData(playerId));
+    }
+
+    /**
+     * Retrieves a player's data, adding the default data first when it does not exist, on the calling thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A completed future containing the player's data.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> loadOrCreateAsync(UUID playerId) {
+        return CompletableFuture.completedFuture(loadOrCreate(playerId));
+    }
+    //#endregion
+}
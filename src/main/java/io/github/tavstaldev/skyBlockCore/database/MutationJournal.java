@@ -0,0 +1,370 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Records the buffered player data changes in an append-only binary journal, so a crash before a flush loses none of them.
+ * Every entry holds a sequence number and the new values of the changed fields of a player,
+ * prefixed by its length and followed by a checksum.
+ * Entries are collected in memory and written by a single group commit, so one sync of the disk covers many changes.
+ * The journal is split into segments: a flush starts a new segment, and the older segments are deleted once the flush
+ * wrote every change. A flush of a single player cannot delete segments, so it retires the entries of the player
+ * it wrote with a marker instead, and the replay skips them. The segments left after a crash are replayed on the next start.
+ */
+public class MutationJournal implements AutoCloseable {
+    private static final int MAGIC = 0x53424A4C; // Marks a journal segment of this plugin.
+    private static final int FORMAT = 2; // The layout of the header and the entries.
+    private static final int FIELD_COUNT = PlayerDataField.values().length; // The number of fields of a player.
+    private static final int HEADER_SIZE = 12; // Magic, format and field count.
+    private static final int ENTRY_OVERHEAD = 8; // The length prefix and the checksum of an entry.
+    private static final int ENTRY_HEADER_SIZE = 28; // The sequence number, the player and the field mask of an entry.
+    private static final int RETIRED = 0; // The field mask of a marker retiring the earlier entries of a player.
+
+    private final PluginLogger _logger; // Logger of the owning database.
+    private final Path _directory; // The directory of the segments.
+    private final String _name; // The file name prefix of the segments.
+    private final Pattern _segmentPattern; // Matches the file names of the segments and captures their number.
+    private final Object _appendLock = new Object(); // Guards the pending entries.
+    private ByteBuffer _pending = ByteBuffer.allocate(16 * 1024); // Entries appended since the last commit.
+    private ByteBuffer _spare = ByteBuffer.allocate(16 * 1024); // Written by the commit while new entries are appended.
+    private final CRC32C _checksum = new CRC32C(); // Calculates the entry checksums, guarded by the append lock.
+    private long _sequence; // The sequence number of the last appended entry, guarded by the append lock.
+    private final ReentrantLock _commitLock = new ReentrantLock(); // Serializes the commits and the segment changes.
+    private FileChannel _channel; // The current segment.
+    private long _segment; // The number of the current segment.
+
+    /**
+     * A recovered change of a player's data.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param fields   The mask of the changed fields.
+     * @param values   The new values, by field ordinal. Fields outside the mask are 0.
+     */
+    public record Mutation(UUID playerId, int fields, int[] values) {}
+
+    /**
+     * Constructs a new MutationJournal. The journal is opened by {@link #open()}.
+     *
+     * @param logger    The logger of the owning database.
+     * @param directory The directory of the segments.
+     * @param name      The file name prefix of the segments.
+     */
+    public MutationJournal(PluginLogger logger, Path directory, String name) {
+        _logger = logger;
+        _directory = directory;
+        _name = name;
+        _segmentPattern = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.journal");
+    }
+
+    /**
+     * Reads the changes left in the segments of the journal, then starts a new segment.
+     * The old segments are kept until the recovered changes were flushed.
+     *
+     * @return The recovered changes, one per player, with the latest value of every changed field.
+     * @throws IOException If the directory cannot be read or the new segment cannot be created.
+     */
+    public List<Mutation> open() throws IOException {
+        _commitLock.lock();
+        try {
+            Files.createDirectories(_directory);
+            Map<UUID, Recovered> recovered = new LinkedHashMap<>();
+            long last = 0;
+            for (var segment : listSegments()) {
+                last = Math.max(last, segment.getKey());
+                readSegment(segment.getValue(), recovered);
+            }
+            List<Mutation> mutations = new ArrayList<>();
+            long sequence = 0;
+            for (var entry : recovered.entrySet()) {
+                var changes = entry.getValue();
+                sequence = Math.max(sequence, changes.lastSequence);
+                if (changes.fields != 0)
+                    mutations.add(new Mutation(entry.getKey(), changes.fields, changes.values));
+            }
+            synchronized (_appendLock) {
+                // Continues the numbering, so the retire markers of the new entries never cover the recovered ones
+                _sequence = Math.max(_sequence, sequence);
+            }
+            _segment = last;
+            startSegment(last + 1);
+            return mutations;
+        } finally {
+            _commitLock.unlock();
+        }
+    }
+
+    /**
+     * Appends the new values of the changed fields of a player. The entry is stored by the next commit.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param fields   The mask of the changed fields.
+     * @param values   The values of the player, by field ordinal.
+     */
+    public void append(UUID playerId, int fields, int[] values) {
+        synchronized (_appendLock) {
+            write(++_sequence, playerId, fields, values);
+        }
+    }
+
+    /**
+     * Retires every entry of a player appended so far, after a flush of the player wrote the changes they hold.
+     * The changes made since the flush took the values are appended again behind the marker, so only the written ones are retired.
+     * The marker is stored by the next commit.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param fields   The mask of the fields changed since the flush took the values, 0 if none.
+     * @param values   The values of the player, by field ordinal.
+     */
+    public void retire(UUID playerId, int fields, int[] values) {
+        synchronized (_appendLock) {
+            write(_sequence, playerId, RETIRED, null);
+            if (fields != 0)
+                write(++_sequence, playerId, fields, values);
+        }
+    }
+
+    /**
+     * Writes an entry to the pending entries. Called while holding the append lock.
+     *
+     * @param sequence The sequence number of the entry, or the last retired one of a marker.
+     * @param playerId The unique identifier of the player.
+     * @param fields   The mask of the changed fields, {@link #RETIRED} for a marker.
+     * @param values   The values of the player, by field ordinal. Unused by a marker.
+     */
+    private void write(long sequence, UUID playerId, int fields, int[] values) {
+        int length = ENTRY_HEADER_SIZE + Integer.bitCount(fields) * 4;
+        if (_pending.remaining() < length + ENTRY_OVERHEAD) {
+            var grown = ByteBuffer.allocate(Math.max(_pending.capacity() * 2, _pending.position() + length + ENTRY_OVERHEAD));
+            _pending.flip();
+            grown.put(_pending);
+            _pending = grown;
+        }
+
+        _pending.putInt(length);
+        int start = _pending.position();
+        _pending.putLong(sequence);
+        _pending.putLong(playerId.getMostSignificantBits());
+        _pending.putLong(playerId.getLeastSignificantBits());
+        _pending.putInt(fields);
+        for (var field : PlayerDataField.values()) {
+            if (field.isIn(fields))
+                _pending.putInt(values[field.ordinal()]);
+        }
+        _checksum.reset();
+        _checksum.update(_pending.array(), start, length);
+        _pending.putInt((int) _checksum.getValue());
+    }
+
+    /**
+     * Writes the appended entries to the current segment and waits until the disk confirmed them.
+     * Entries appended meanwhile are collected for the next commit.
+     */
+    public void commit() {
+        _commitLock.lock();
+        try {
+            if (_channel == null)
+                return;
+            ByteBuffer batch;
+            synchronized (_appendLock) {
+                if (_pending.position() == 0)
+                    return;
+                batch = _pending;
+                _pending = _spare;
+                _spare = batch;
+            }
+
+            batch.flip();
+            while (batch.hasRemaining()) {
+                _channel.write(batch);
+            }
+            _channel.force(false);
+        } catch (IOException ex) {
+            _logger.error(String.format("Unknown error happened while writing the journal...\n%s", ex.getMessage()));
+        } finally {
+            _spare.clear();
+            _commitLock.unlock();
+        }
+    }
+
+    /**
+     * Commits the appended entries and starts a new segment. Called before a flush takes the pending changes.
+     *
+     * @return The number of the last segment before the new one, passed to {@link #truncate(long)} after the flush.
+     */
+    public long rotate() {
+        _commitLock.lock();
+        try {
+            if (_channel == null)
+                return 0;
+            commit();
+            long previous = _segment;
+            _channel.close();
+            _channel = null;
+            startSegment(previous + 1);
+            return previous;
+        } catch (IOException ex) {
+            _logger.error(String.format("Unknown error happened while starting a journal segment...\n%s", ex.getMessage()));
+            return 0;
+        } finally {
+            _commitLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments up to a checkpoint, after a flush wrote every change they hold.
+     *
+     * @param segment The number of the last segment to delete.
+     */
+    public void truncate(long segment) {
+        _commitLock.lock();
+        try {
+            for (var entry : listSegments()) {
+                if (entry.getKey() <= segment)
+                    Files.deleteIfExists(entry.getValue());
+            }
+        } catch (IOException ex) {
+            _logger.error(String.format("Unknown error happened while truncating the journal...\n%s", ex.getMessage()));
+        } finally {
+            _commitLock.unlock();
+        }
+    }
+
+    /**
+     * Commits the appended entries and closes the current segment.
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        _commitLock.lock();
+        try {
+            if (_channel == null)
+                return;
+            commit();
+            _channel.close();
+            _channel = null;
+        } finally {
+            _commitLock.unlock();
+        }
+    }
+
+    /**
+     * Creates a new segment and makes it the current one.
+     *
+     * @param segment The number of the segment.
+     * @throws IOException If the segment cannot be created.
+     */
+    private void startSegment(long segment) throws IOException {
+        var channel = FileChannel.open(_directory.resolve(String.format("%s-%d.journal", _name, segment)),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT).putInt(FIELD_COUNT).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        _channel = channel;
+        _segment = segment;
+    }
+
+    /**
+     * Lists the segments of the journal in number order.
+     *
+     * @return The number and the path of every segment.
+     * @throws IOException If the directory cannot be read.
+     */
+    private List<Map.Entry<Long, Path>> listSegments() throws IOException {
+        List<Map.Entry<Long, Path>> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(_directory)) {
+            files.forEach(file -> {
+                var matcher = _segmentPattern.matcher(file.getFileName().toString());
+                if (matcher.matches())
+                    segments.add(Map.entry(Long.parseLong(matcher.group(1)), file));
+            });
+        }
+        segments.sort(Map.Entry.comparingByKey());
+        return segments;
+    }
+
+    /**
+     * Reads the entries of a segment into the recovered changes, in the order they were appended.
+     * A marker drops the fields of its player whose latest value is not newer than the retired entries.
+     * Reading stops at the first incomplete or damaged entry, which is the tail of a write torn by a crash.
+     *
+     * @param file      The path of the segment.
+     * @param recovered The recovered changes by player, updated with the entries of the segment.
+     * @throws IOException If the segment cannot be read.
+     */
+    private void readSegment(Path file, Map<UUID, Recovered> recovered) throws IOException {
+        var buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+            return;
+        int format = buffer.getInt();
+        if (format != FORMAT || buffer.getInt() != FIELD_COUNT) {
+            _logger.warn(String.format("Skipped the journal segment %s written by another version.", file.getFileName()));
+            return;
+        }
+
+        var checksum = new CRC32C();
+        int damaged = 0;
+        while (buffer.remaining() >= ENTRY_OVERHEAD) {
+            int length = buffer.getInt();
+            int start = buffer.position();
+            if (length < ENTRY_HEADER_SIZE || length > ENTRY_HEADER_SIZE + FIELD_COUNT * 4 || buffer.remaining() < length + 4) {
+                damaged = buffer.remaining();
+                break;
+            }
+            checksum.reset();
+            checksum.update(buffer.array(), start, length);
+            if (buffer.getInt(start + length) != (int) checksum.getValue()) {
+                damaged = buffer.remaining();
+                break;
+            }
+
+            long sequence = buffer.getLong();
+            var playerId = new UUID(buffer.getLong(), buffer.getLong());
+            int fields = buffer.getInt();
+            var changes = recovered.computeIfAbsent(playerId, key -> new Recovered());
+            changes.lastSequence = Math.max(changes.lastSequence, sequence);
+            if (fields == RETIRED) {
+                for (var field : PlayerDataField.values()) {
+                    if (field.isIn(changes.fields) && changes.sequences[field.ordinal()] <= sequence)
+                        changes.fields &= ~field.mask();
+                }
+            } else {
+                for (var field : PlayerDataField.values()) {
+                    if (!field.isIn(fields))
+                        continue;
+                    changes.values[field.ordinal()] = buffer.getInt();
+                    changes.sequences[field.ordinal()] = sequence;
+                }
+                changes.fields |= fields;
+            }
+            buffer.getInt(); // Checksum
+        }
+        if (damaged > 0)
+            _logger.warn(String.format("Skipped the last %d bytes of the journal segment %s, they were not fully written.", damaged, file.getFileName()));
+    }
+
+    /**
+     * The changes of a player read from the segments so far.
+     */
+    private static final class Recovered {
+        private int fields; // The mask of the changed fields which are not retired.
+        private final int[] values = new int[FIELD_COUNT]; // The latest values, by field ordinal.
+        private final long[] sequences = new long[FIELD_COUNT]; // The sequence numbers of the latest values, by field ordinal.
+        private long lastSequence; // The highest sequence number read for the player.
+    }
+}
@@ -1,21 +1,30 @@
 package io.github.tavstaldev.skyBlockCore.database;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
 import io.github.tavstaldev.skyBlockCore.models.PlayerData;
-import org.jetbrains.annotations.NotNull;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import io.github.tavstaldev.skyBlockCore.models.RewardPeriod;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implements the IDatabase interface using a MySQL database.
@@ -25,29 +34,38 @@ import java.util.concurrent.TimeUnit;
 public class MySqlDatabase implements IDatabase {
     private final PluginLogger _logger = SkyBlockCore.logger().withModule(MySqlDatabase.class); // Logger for database operations.
     private HikariDataSource _dataSource; // HikariCP data source for database connections.
+    private final PoolMetrics _poolMetrics = new PoolMetrics(); // Statistics of the connection pool.
+    private final CompletableFuture<Void> _schemaReady = new CompletableFuture<>(); // Completed when the schema is up-to-date.
     private SkyBlockConfig _config; // Configuration for database settings.
-    private final Cache<@NotNull UUID, PlayerData> _playerCache = Caffeine.newBuilder()
-            .maximumSize(1000) // Maximum cache size.
-            .expireAfterWrite(5, TimeUnit.MINUTES) // Cache expiration time.
-            .build();
+    private UuidCodec _uuidCodec; // Storage format of player identifiers.
+    private PlayerDataCache _playerCache; // Cache of loaded player data.
+    private final WriteBehindBuffer _writeBehind = new WriteBehindBuffer(this::writePlayerData); // Buffer of unsaved player data changes.
+    private PlayerChangeLog _changeLog; // Shared log of player data changes, null when disabled.
+    private long _lastChangeLogPrune; // Time of the last deletion of expired changes.
+    private volatile PlayerDataConflictResolver _conflictResolver = PlayerDataConflictResolver.DEFAULT; // Merges the fields changed by concurrent writers.
 
     //#region SQL Statements
     private String addPlayerDataSql; // SQL statement for adding player data.
-    private String updatePlayerDataSql; // SQL statement for updating player data.
+    private String upsertPlayerDataSql; // SQL statement for adding player data when it does not exist yet.
+    private PlayerDataUpdateSql updatePlayerDataSql; // Delta UPDATE statements for player data.
     private String removePlayerDataSql; // SQL statement for removing player data.
     private String getPlayerDataSql; // SQL statement for retrieving player data.
-    private String resetDailyRewardsSql; // SQL statement for resetting daily rewards.
-    private String resetWeeklyRewardsSql; // SQL statement for resetting weekly rewards.
-    private String resetHourlyRewardsSql; // SQL statement for resetting hourly rewards.
+    private String countPlayerDataSql; // SQL statement for counting the stored players.
+    private String listPlayerScoresSql; // SQL statement for listing the identifiers and scores of the stored players.
+    private final Map<PlayerDataField, String> incrementPlayerDataSql = new EnumMap<>(PlayerDataField.class); // SQL statements for incrementing counter fields.
+    private final Map<PlayerDataField, String> getPlayerFieldSql = new EnumMap<>(PlayerDataField.class); // SQL statements for reading a single field.
     //#endregion
 
     /**
-     * Loads the database by initializing the data source and updating SQL statements.
+     * Loads the database by initializing the data source, creating the player cache and updating SQL statements.
      */
     @Override
     public void load() {
         _config = SkyBlockCore.config();
+        _uuidCodec = UuidCodec.fromConfig(_config.storageUuidFormat);
         _dataSource = createDataSource();
+        _playerCache = new PlayerDataCache(_config, _writeBehind, this::selectPlayerData);
+        _changeLog = _config.storageChangeLogEnabled ? new PlayerChangeLog(_config.storageTablePrefix, _uuidCodec) : null;
         update();
     }
 
@@ -57,27 +75,40 @@ public class MySqlDatabase implements IDatabase {
     @Override
     public void update() {
         addPlayerDataSql = String.format("INSERT INTO %s_players (PlayerId, Experience, Level, Factories, " +
-                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardClaimed, WeeklyRewardClaimed, HourlyRewardClaimed) " +
+                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardPeriod, WeeklyRewardPeriod, HourlyRewardPeriod) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);",
                 _config.storageTablePrefix);
 
-        updatePlayerDataSql = String.format("UPDATE %s_players SET Experience = ?, Level = ?, Factories = ?, " +
-                "CompletedFactories = ?, MaxFactories = ?, OnGoingFactories = ?, FactoryResearch = ?, " +
-                "DailyRewardClaimed = ?, WeeklyRewardClaimed = ?, HourlyRewardClaimed = ? " +
-                "WHERE PlayerId = ?;", _config.storageTablePrefix);
+        upsertPlayerDataSql = String.format("INSERT INTO %s_players (PlayerId, Experience, Level, Factories, " +
+                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardPeriod, WeeklyRewardPeriod, HourlyRewardPeriod) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE PlayerId = PlayerId;",
+                _config.storageTablePrefix);
+        updatePlayerDataSql = new PlayerDataUpdateSql(_config.storageTablePrefix, _uuidCodec);
         removePlayerDataSql = String.format("DELETE FROM %s_players WHERE PlayerId = ?;", _config.storageTablePrefix);
         getPlayerDataSql = String.format("SELECT * FROM %s_players WHERE PlayerId = ?;", _config.storageTablePrefix);
-
-        resetDailyRewardsSql = String.format("UPDATE %s_players SET DailyRewardClaimed = FALSE;", _config.storageTablePrefix);
-        resetWeeklyRewardsSql = String.format("UPDATE %s_players SET WeeklyRewardClaimed = FALSE;", _config.storageTablePrefix);
-        resetHourlyRewardsSql = String.format("UPDATE %s_players SET HourlyRewardClaimed = FALSE;", _config.storageTablePrefix);
+        countPlayerDataSql = String.format("SELECT COUNT(*) FROM %s_players;", _config.storageTablePrefix);
+        listPlayerScoresSql = String.format("SELECT PlayerId, Level, Experience FROM %s_players;", _config.storageTablePrefix);
+        for (var field : PlayerDataField.values()) {
+            if (!field.isIncrementable())
+                continue;
+            incrementPlayerDataSql.put(field, String.format("UPDATE %s_players SET %s = LEAST(GREATEST(CAST(%s AS SIGNED) + ?, 0), %d), Version = Version + 1 WHERE PlayerId = ?;",
+                    _config.storageTablePrefix, field.getColumn(), field.getColumn(), field.getMaxValue()));
+            getPlayerFieldSql.put(field, String.format("SELECT %s, Version FROM %s_players WHERE PlayerId = ?;",
+                    field.getColumn(), _config.storageTablePrefix));
+        }
     }
 
     /**
-     * Unloads the database by closing the data source and releasing resources.
+     * Unloads the database by writing the pending changes and closing the data source.
      */
     @Override
     public void unload() {
+        flush();
+        try {
+            _writeBehind.closeJournal();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while closing the journal...\n%s", ex.getMessage()));
+        }
         if (_dataSource != null) {
             if (!_dataSource.isClosed())
                 _dataSource.close();
@@ -98,8 +129,20 @@ public class MySqlDatabase implements IDatabase {
                     _config.storageDatabase));
             config.setUsername(_config.storageUsername);
             config.setPassword(_config.storagePassword);
-            config.setMaximumPoolSize(10); // Pool size defaults to 10.
-            config.setMaxLifetime(30000); // Maximum lifetime of a connection in milliseconds.
+            config.setPoolName("SkyBlockCore");
+            config.setMaximumPoolSize(_config.storagePoolMaximumSize);
+            config.setMinimumIdle(Math.min(_config.storagePoolMinimumIdle, _config.storagePoolMaximumSize));
+            config.setConnectionTimeout(_config.storagePoolConnectionTimeout);
+            config.setIdleTimeout(_config.storagePoolIdleTimeout);
+            config.setMaxLifetime(_config.storagePoolMaxLifetime);
+            config.setKeepaliveTime(_config.storagePoolKeepaliveTime);
+            config.setLeakDetectionThreshold(_config.storagePoolLeakDetectionThreshold);
+            config.addDataSourceProperty("cachePrepStmts", _config.storagePoolCachePrepStmts);
+            config.addDataSourceProperty("prepStmtCacheSize", _config.storagePoolPrepStmtCacheSize);
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", _config.storagePoolPrepStmtCacheSqlLimit);
+            config.addDataSourceProperty("useServerPrepStmts", _config.storagePoolUseServerPrepStmts);
+            config.addDataSourceProperty("rewriteBatchedStatements", _config.storagePoolRewriteBatchedStatements);
+            config.setMetricsTrackerFactory(_poolMetrics);
             return new HikariDataSource(config);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened during the creation of database connection...\n%s", ex.getMessage()));
@@ -108,14 +151,15 @@ public class MySqlDatabase implements IDatabase {
     }
 
     /**
-     * Ensures the database schema is up-to-date by creating necessary tables if they do not exist.
+     * Ensures the database schema is up-to-date by applying the pending schema migrations.
+     * Player data operations wait until this completed, and the stored players are scanned afterwards.
      */
     @Override
     public void checkSchema() {
         try (Connection connection = _dataSource.getConnection()) {
             // Players table
-            String sql = String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
-                            "PlayerId VARCHAR(36) PRIMARY KEY, " +
+            String createSql = "CREATE TABLE IF NOT EXISTS %s (" +
+                            "PlayerId " + _uuidCodec.getColumnType(false) + " PRIMARY KEY, " +
                             "Experience INT(11) UNSIGNED NOT NULL, " +
                             "Level TINYINT UNSIGNED NOT NULL, " +
                             "Factories INT(11) NOT NULL, " +
@@ -123,14 +167,113 @@ public class MySqlDatabase implements IDatabase {
                             "MaxFactories INT(11) NOT NULL, " +
                             "OnGoingFactories INT(11) NOT NULL, " +
                             "FactoryResearch INT(11) NOT NULL, " +
-                            "DailyRewardClaimed BOOLEAN NOT NULL, " +
-                            "WeeklyRewardClaimed BOOLEAN NOT NULL, " +
-                            "HourlyRewardClaimed BOOLEAN NOT NULL);",
-                    _config.storageTablePrefix);
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
+                            "DailyRewardPeriod INT(11) NOT NULL, " +
+                            "WeeklyRewardPeriod INT(11) NOT NULL, " +
+                            "HourlyRewardPeriod INT(11) NOT NULL, " +
+                            "Version BIGINT NOT NULL DEFAULT 0);";
+            new SchemaMigrator(_logger, _config.storageTablePrefix, false, createSql, _uuidCodec, _config.storageMigrationChunkSize)
+                    .run(connection);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+            return;
+        } finally {
+            _schemaReady.complete(null);
+        }
+        recoverJournal();
+        DatabaseExecutor.runAsync(this::scanStoredPlayers);
+    }
+
+    /**
+     * Replays the changes a crash left in the journal and writes them to the database, then journals the new changes.
+     */
+    private void recoverJournal() {
+        if (!_config.storageJournalEnabled)
+            return;
+        try {
+            var journal = new MutationJournal(_logger, Path.of("plugins", "SkyBlockCore", "journal"), _config.storageFilename);
+            int recovered = _writeBehind.recover(journal, this::loadForRecovery);
+            if (recovered > 0) {
+                _logger.warn(String.format("Recovered the unsaved changes of %d players from the journal.", recovered));
+                flush();
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while recovering the journal...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Loads the data of a player on the current thread, used by the journal recovery.
+     * The recovery runs on the I/O executor, so waiting for a load of the cache queued on the same executor
+     * could deadlock with a single I/O thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData loadForRecovery(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null)
+            return data;
+        data = selectPlayerData(playerId);
+        if (data != null)
+            _playerCache.put(data); // Players joining meanwhile see the recovered changes.
+        return data;
+    }
+
+    /**
+     * Applies the pending schema migrations on the I/O executor, so the server can finish enabling meanwhile.
+     *
+     * @return A future completing when the schema is up-to-date, even if a migration failed.
+     */
+    @Override
+    public CompletableFuture<Void> checkSchemaAsync() {
+        DatabaseExecutor.runAsync(this::checkSchema);
+        return _schemaReady;
+    }
+
+    /**
+     * Waits until the schema is up-to-date, before the first player data operation touches the tables.
+     */
+    private void awaitSchema() {
+        _schemaReady.join();
+    }
+
+    /**
+     * Streams the identifier and scores of every stored player once, to build the filter of the stored players
+     * and to seed the leaderboard.
+     * The filter is registered before the scan, so players created during the scan are added to it as well.
+     */
+    private void scanStoredPlayers() {
+        boolean filterEnabled = _config.storageKnownPlayerFilterEnabled;
+        if (!filterEnabled && !_config.leaderboardEnabled)
+            return;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            long count = 0;
+            try (PreparedStatement statement = connection.prepareStatement(countPlayerDataSql);
+                 ResultSet result = statement.executeQuery()) {
+                if (result.next())
+                    count = result.getLong(1);
+            }
+
+            var filter = filterEnabled ? new PlayerIdFilter(Math.max(count * 2, 10000), _config.storageKnownPlayerFilterFalsePositiveRate) : null;
+            _playerCache.setKnownPlayers(filter);
+            try (PreparedStatement statement = connection.prepareStatement(listPlayerScoresSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(Integer.MIN_VALUE); // Stream the rows instead of buffering the whole table.
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        var playerId = _uuidCodec.read(result, "PlayerId");
+                        if (filter != null)
+                            filter.add(playerId);
+                        LeaderboardManager.seed(playerId, result.getInt("Level"), result.getInt("Experience"));
+                    }
+                }
+            }
+            if (filter != null)
+                filter.markReady();
+            _logger.info(String.format("Scanned %d stored players.", count));
+        } catch (Exception ex) {
+            _playerCache.setKnownPlayers(null);
+            _logger.error(String.format("Unknown error happened while scanning the stored players...\n%s", ex.getMessage()));
         }
     }
 
@@ -141,56 +284,319 @@ public class MySqlDatabase implements IDatabase {
      */
     @Override
     public void addPlayerData(UUID playerId) {
+        awaitSchema();
         try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(addPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setInt(2, 0); // Experience
-                statement.setInt(3, 0); // Level
-                statement.setInt(4, 0); // Factories
-                statement.setInt(5, 0); // CompletedFactories
-                statement.setInt(6, 3); // MaxFactories
-                statement.setInt(7, 0); // OnGoingFactories
-                statement.setInt(8, 0); // FactoryResearch
-                statement.setBoolean(9, false); // DailyRewardClaimed
-                statement.setBoolean(10, false); // WeeklyRewardClaimed
-                statement.setBoolean(11, false); // HourlyRewardClaimed
-                statement.executeUpdate();
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(addPlayerDataSql)) {
+                    bindNewPlayerData(statement, playerId);
+                    statement.executeUpdate();
+                }
+                recordChange(connection, playerId, PlayerChangeLog.CREATED);
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
             }
 
+            _playerCache.markCreated(playerId);
             PlayerData data = new PlayerData(playerId);
-            _playerCache.put(playerId, data);
+            _playerCache.put(data);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Updates an existing player's data in the database and cache.
+     * Updates an existing player's data in the cache and queues it for the next flush.
      *
      * @param newData The updated player data.
      */
     @Override
     public void updatePlayerData(PlayerData newData) {
+        _playerCache.put(newData);
+        _writeBehind.enqueue(newData);
+        if (!_config.storageWriteBehindEnabled)
+            _writeBehind.flush(newData.getUuid());
+    }
+
+    /**
+     * Writes a batch of player data changes to the database in a single transaction.
+     * Only the changed columns are updated, rows with the same changed columns share one statement.
+     * Rows changed by another writer since they were read are merged with the current row instead of overwritten.
+     * When the transaction fails, the rows are written one by one, so a single failing row does not keep the others from being stored.
+     *
+     * @param batch The pending writes.
+     * @return The pending writes which were not written.
+     */
+    private List<WriteBehindBuffer.PendingWrite> writePlayerData(List<WriteBehindBuffer.PendingWrite> batch) {
+        List<WriteBehindBuffer.PendingWrite> failed = new ArrayList<>();
+        if (writePlayerDataTransaction(batch, failed) || batch.size() == 1)
+            return failed.isEmpty() ? List.of() : failed;
+
+        failed.clear();
+        for (var pendingWrite : batch) {
+            writePlayerDataTransaction(List.of(pendingWrite), failed);
+        }
+        return failed;
+    }
+
+    /**
+     * Writes player data changes to the database in a single transaction.
+     * A row whose conflict cannot be resolved is left out of the transaction, the other rows are still committed.
+     *
+     * @param batch  The pending writes.
+     * @param failed Collects the pending writes which were not written.
+     * @return True if the transaction was committed, false if it was rolled back and none of the writes were stored.
+     */
+    private boolean writePlayerDataTransaction(List<WriteBehindBuffer.PendingWrite> batch, List<WriteBehindBuffer.PendingWrite> failed) {
+        var resolver = _conflictResolver;
+        Map<WriteBehindBuffer.PendingWrite, PlayerDataUpdateSql.StoredRow> stored = new HashMap<>();
+        List<WriteBehindBuffer.PendingWrite> conflicts = new ArrayList<>();
+        List<WriteBehindBuffer.PendingWrite> unresolved = new ArrayList<>();
+        awaitSchema();
         try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(updatePlayerDataSql)) {
-                statement.setInt(1, newData.getExperience()); // Experience
-                statement.setInt(2, newData.getLevel()); // Level
-                statement.setInt(3, newData.getFactories()); // Factories
-                statement.setInt(4, newData.getCompletedFactories()); // CompletedFactories
-                statement.setInt(5, newData.getMaxFactories()); // MaxFactories
-                statement.setInt(6, newData.getOngoingFactories()); // OnGoingFactories
-                statement.setInt(7, newData.getFactoryResearch()); // FactoryResearch
-                statement.setBoolean(8, newData.isDailyRewardClaimed()); // DailyRewardClaimed
-                statement.setBoolean(9, newData.isWeeklyRewardClaimed()); // WeeklyRewardClaimed
-                statement.setBoolean(10, newData.isHourlyRewardClaimed()); // HourlyRewardClaimed
-                statement.setString(11, newData.getUuid().toString());
-                statement.executeUpdate();
+            connection.setAutoCommit(false);
+            try {
+                for (var group : PlayerDataUpdateSql.groupByMask(batch).entrySet()) {
+                    int mask = group.getKey();
+                    try (PreparedStatement statement = connection.prepareStatement(updatePlayerDataSql.get(mask))) {
+                        for (var pendingWrite : group.getValue()) {
+                            updatePlayerDataSql.bind(statement, pendingWrite);
+                            statement.addBatch();
+                        }
+                        int[] counts = statement.executeBatch();
+                        for (int i = 0; i < counts.length; i++) {
+                            var pendingWrite = group.getValue().get(i);
+                            if (counts[i] == 0)
+                                conflicts.add(pendingWrite);
+                            else
+                                stored.put(pendingWrite, PlayerDataUpdateSql.written(pendingWrite));
+                        }
+                    }
+                }
+                for (var pendingWrite : conflicts) {
+                    try {
+                        var row = updatePlayerDataSql.resolveConflict(connection, pendingWrite, this::selectPlayerData, resolver);
+                        if (row != null)
+                            stored.put(pendingWrite, row);
+                    } catch (PlayerDataUpdateSql.UnresolvedConflictException ex) {
+                        // The statements of the row changed nothing, so the other rows can still be committed
+                        _logger.error(String.format("Unknown error happened while writing the data of player %s...\n%s", pendingWrite.data().getUuid(), ex.getMessage()));
+                        unresolved.add(pendingWrite);
+                    }
+                }
+                if (_changeLog != null) {
+                    List<PlayerChangeLog.Change> changes = new ArrayList<>(batch.size());
+                    for (var pendingWrite : batch) {
+                        if (!unresolved.contains(pendingWrite))
+                            changes.add(new PlayerChangeLog.Change(pendingWrite.data().getUuid(), pendingWrite.fields()));
+                    }
+                    _changeLog.record(connection, changes);
+                }
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
             }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while writing player data...\n%s", ex.getMessage()));
+            failed.addAll(batch);
+            return false;
+        }
+
+        failed.addAll(unresolved);
+        for (var entry : stored.entrySet()) {
+            PlayerDataUpdateSql.applyStored(entry.getKey(), entry.getValue(), resolver);
+        }
+        for (var pendingWrite : conflicts) {
+            if (!unresolved.contains(pendingWrite))
+                LeaderboardManager.update(pendingWrite.data());
+        }
+        return true;
+    }
+
+    /**
+     * Sets the resolver merging the fields changed both locally and by another writer.
+     *
+     * @param resolver The conflict resolver.
+     */
+    @Override
+    public void setConflictResolver(PlayerDataConflictResolver resolver) {
+        _conflictResolver = resolver;
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player in the database.
+     * The new value is read back in the same transaction and patched into the cached data.
+     * The value is clamped between 0 and the largest value of the column, the unsigned columns would reject it otherwise.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return The new value of the field, or empty if the player has no data.
+     * @throws DatabaseException If the increment failed.
+     */
+    @Override
+    public OptionalInt incrementField(UUID playerId, PlayerDataField field, int delta) {
+        String incrementSql = incrementPlayerDataSql.get(field);
+        if (incrementSql == null)
+            throw new IllegalArgumentException(String.format("The field %s cannot be incremented.", field));
 
-            _playerCache.put(newData.getUuid(), newData);
+        _writeBehind.flush(playerId); // A buffered absolute value would overwrite the increment.
+        OptionalInt newValue = OptionalInt.empty();
+        long newVersion = 0;
+        awaitSchema();
+        try (Connection connection = _dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(incrementSql)) {
+                    statement.setInt(1, delta);
+                    _uuidCodec.bind(statement, 2, playerId);
+                    if (statement.executeUpdate() > 0) {
+                        try (PreparedStatement select = connection.prepareStatement(getPlayerFieldSql.get(field))) {
+                            _uuidCodec.bind(select, 1, playerId);
+                            try (ResultSet result = select.executeQuery()) {
+                                if (result.next()) {
+                                    newValue = OptionalInt.of(result.getInt(1));
+                                    newVersion = result.getLong(2);
+                                }
+                            }
+                        }
+                        recordChange(connection, playerId, field.mask());
+                    }
+                }
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            }
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+            _logger.error(String.format("Unknown error happened while incrementing player data...\n%s", ex.getMessage()));
+            throw new DatabaseException("Failed to increment player data.", ex);
+        }
+
+        if (newValue.isPresent())
+            _playerCache.patch(playerId, field, newValue.getAsInt(), newVersion);
+        return newValue;
+    }
+
+    /**
+     * Writes every pending player data change to the database.
+     */
+    @Override
+    public void flush() {
+        _writeBehind.flush(_config.storageWriteBehindBatchSize);
+    }
+
+    /**
+     * Writes the pending changes of a player to the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void flush(UUID playerId) {
+        _writeBehind.flush(playerId);
+    }
+
+    /**
+     * Writes the pending player data changes if the flush interval elapsed,
+     * the oldest change reached the maximum staleness, or the buffer is full.
+     */
+    @Override
+    public void flushIfDue() {
+        if (_writeBehind.isFlushDue(_config.storageWriteBehindFlushInterval * 1000L, _config.storageWriteBehindMaxStaleness * 1000L, _config.storageWriteBehindBatchSize))
+            flush();
+    }
+
+    /**
+     * Reads the changes of the other servers from the change log and applies them to the caches,
+     * then deletes the expired changes once a minute.
+     */
+    @Override
+    public void pollChanges() {
+        if (_changeLog == null)
+            return;
+        awaitSchema();
+        List<PlayerChangeLog.Change> changes;
+        try (Connection connection = _dataSource.getConnection()) {
+            changes = _changeLog.poll(connection, _config.storageChangeLogBatchSize);
+            long now = System.currentTimeMillis();
+            if (now - _lastChangeLogPrune >= 60000L) {
+                _lastChangeLogPrune = now;
+                _changeLog.prune(connection, _config.storageChangeLogRetention * 1000L);
+            }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while reading the player change log...\n%s", ex.getMessage()));
+            return;
+        }
+
+        Map<UUID, Optional<PlayerData>> reloaded = new HashMap<>(); // The rows read in this poll, they are already the latest.
+        for (var change : changes) {
+            applyChange(change, reloaded);
+        }
+    }
+
+    /**
+     * Writes the journaled player data changes to the disk.
+     */
+    @Override
+    public void syncJournal() {
+        _writeBehind.syncJournal();
+    }
+
+    /**
+     * Applies a change of another server to the player cache and the leaderboard.
+     * Removed players are evicted. Changed players are only re-read when they are cached or ranked,
+     * and cached data is moved onto the newer row, merging the fields which have unsaved local changes.
+     *
+     * @param change   The change.
+     * @param reloaded The rows already read in this poll by player, reused for the later changes of the same player.
+     */
+    private void applyChange(PlayerChangeLog.Change change, Map<UUID, Optional<PlayerData>> reloaded) {
+        UUID playerId = change.playerId();
+        if (change.fields() == PlayerChangeLog.REMOVED) {
+            reloaded.remove(playerId);
+            _writeBehind.discard(playerId);
+            _playerCache.markRemoved(playerId);
+            _playerCache.invalidate(playerId);
+            return;
         }
+
+        int fields = change.fields();
+        if (fields == PlayerChangeLog.CREATED) {
+            _playerCache.markCreated(playerId);
+            fields = PlayerDataField.ALL_MASK;
+        }
+        PlayerData cached = _playerCache.getIfPresent(playerId);
+        boolean ranked = _config.leaderboardEnabled && (PlayerDataField.LEVEL.isIn(fields) || PlayerDataField.EXPERIENCE.isIn(fields));
+        if (cached == null && !ranked)
+            return;
+
+        var remote = reloaded.computeIfAbsent(playerId, key -> Optional.ofNullable(selectPlayerData(key)));
+        if (remote.isEmpty())
+            return;
+        if (cached == null) {
+            LeaderboardManager.update(remote.get());
+            return;
+        }
+        synchronized (cached) {
+            cached.rebase(cached.getVersion(), cached.getSavedValues(), remote.get().getValues(), remote.get().getVersion(), _conflictResolver);
+        }
+        LeaderboardManager.update(cached);
+    }
+
+    /**
+     * Records a change of this server in the change log, in the transaction of the connection.
+     *
+     * @param connection The connection of the transaction writing the change.
+     * @param playerId   The unique identifier of the player.
+     * @param fields     The mask of the changed fields, or {@link PlayerChangeLog#CREATED} or {@link PlayerChangeLog#REMOVED}.
+     * @throws SQLException If the insert fails.
+     */
+    private void recordChange(Connection connection, UUID playerId, int fields) throws SQLException {
+        if (_changeLog != null)
+            _changeLog.record(connection, playerId, fields);
     }
 
     /**
@@ -200,109 +606,278 @@ public class MySqlDatabase implements IDatabase {
      */
     @Override
     public void removePlayerData(UUID playerId) {
+        _writeBehind.discard(playerId);
+        awaitSchema();
         try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(removePlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.executeUpdate();
+            boolean removed;
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(removePlayerDataSql)) {
+                    _uuidCodec.bind(statement, 1, playerId);
+                    removed = statement.executeUpdate() > 0;
+                }
+                if (removed)
+                    recordChange(connection, playerId, PlayerChangeLog.REMOVED);
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
             }
+            if (removed)
+                _playerCache.markRemoved(playerId);
 
-            if (_playerCache.getIfPresent(playerId) != null) {
-                _playerCache.invalidate(playerId);
-            }
+            _playerCache.invalidate(playerId);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Retrieves a player's data from the database or cache.
+     * Retrieves a player's data from the cache, loading it from the database on a miss.
+     * Concurrent misses of the same player share a single query.
      *
      * @param playerId The unique identifier of the player.
      * @return An Optional containing the player's data, or empty if not found.
      */
     @Override
     public Optional<PlayerData> getPlayerData(UUID playerId) {
-        var data = _playerCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data);
-        }
+        return _playerCache.get(playerId).join();
+    }
+
+    /**
+     * Loads a player's data from the database, used by the player cache.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData selectPlayerData(UUID playerId) {
+        awaitSchema();
         try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                try (ResultSet result = statement.executeQuery()) {
-                    if (result.next()) {
-                        data = new PlayerData(
-                                UUID.fromString(result.getString("PlayerId")),
-                                result.getInt("Experience"),
-                                result.getInt("Level"),
-                                result.getInt("Factories"),
-                                result.getInt("CompletedFactories"),
-                                result.getInt("MaxFactories"),
-                                result.getInt("OnGoingFactories"),
-                                result.getInt("FactoryResearch"),
-                                result.getBoolean("DailyRewardClaimed"),
-                                result.getBoolean("WeeklyRewardClaimed"),
-                                result.getBoolean("HourlyRewardClaimed")
-                        );
-                    }
-                }
-            }
+            return selectPlayerData(connection, playerId);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
-            return Optional.empty();
+            return null;
         }
+    }
 
-        if (data != null) {
-            _playerCache.put(playerId, data);
+    /**
+     * Loads a player's data with a connection, used to re-read a row inside a transaction.
+     *
+     * @param connection The connection.
+     * @param playerId   The unique identifier of the player.
+     * @return The player's data, or null if not found.
+     * @throws SQLException If the query fails.
+     */
+    private PlayerData selectPlayerData(Connection connection, UUID playerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
+            _uuidCodec.bind(statement, 1, playerId);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? readPlayerData(result) : null;
+            }
         }
-        return Optional.ofNullable(data);
     }
 
     /**
-     * Resets the daily rewards for all players in the database and invalidates the cache.
+     * Retrieves a player's data, adding the default data first when it does not exist.
+     * Concurrent calls for the same player share a single query.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
      */
     @Override
-    public void resetDailyRewards() {
-        try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(resetDailyRewardsSql)) {
-                statement.executeUpdate();
-            }
+    public Optional<PlayerData> loadOrCreate(UUID playerId) {
+        return loadOrCreateAsync(playerId).join();
+    }
 
-            _playerCache.invalidateAll();
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting daily rewards...\n%s", ex.getMessage()));
-        }
+    /**
+     * Loads a player's data, adding the default data first when it does not exist,
+     * and pins it in the player cache until the player quits.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public Optional<PlayerData> pinPlayer(UUID playerId) {
+        return _playerCache.pin(playerId, this::upsertPlayerData);
     }
 
     /**
-     * Resets the weekly rewards for all players in the database and invalidates the cache.
+     * Unpins a player's data in the player cache and writes its buffered changes asynchronously.
+     *
+     * @param playerId The unique identifier of the player.
      */
     @Override
-    public void resetWeeklyRewards() {
+    public void unpinPlayer(UUID playerId) {
+        _playerCache.unpin(playerId);
+        // Called on the main thread, the write and the wait for a running batch flush happen on the I/O executor
+        DatabaseExecutor.runAsync(() -> _writeBehind.flush(playerId));
+    }
+
+    /**
+     * Retrieves the statistics of the HikariCP connection pool.
+     *
+     * @return An Optional containing the pool statistics.
+     */
+    @Override
+    public Optional<PoolMetrics> getPoolMetrics() {
+        return Optional.of(_poolMetrics);
+    }
+
+    /**
+     * Adds the default data of a player when it does not exist, then loads it, used by the player cache.
+     * The insert and the read share a single transaction, so concurrent joins of the same player cannot collide.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if an error occurred.
+     */
+    private PlayerData upsertPlayerData(UUID playerId) {
+        PlayerData data = null;
+        boolean created;
+        awaitSchema();
         try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(resetWeeklyRewardsSql)) {
-                statement.executeUpdate();
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(upsertPlayerDataSql)) {
+                    bindNewPlayerData(statement, playerId);
+                    created = statement.executeUpdate() > 0;
+                }
+                if (created)
+                    recordChange(connection, playerId, PlayerChangeLog.CREATED);
+                try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
+                    _uuidCodec.bind(statement, 1, playerId);
+                    try (ResultSet result = statement.executeQuery()) {
+                        if (result.next())
+                            data = readPlayerData(result);
+                    }
+                }
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
             }
-
-            _playerCache.invalidateAll();
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting weekly rewards...\n%s", ex.getMessage()));
+            _logger.error(String.format("Unknown error happened while loading player data...\n%s", ex.getMessage()));
+            return null;
         }
+        if (created)
+            _playerCache.markCreated(playerId);
+        return data;
+    }
+
+    /**
+     * Binds the default values of a new player to an INSERT statement.
+     *
+     * @param statement The INSERT statement.
+     * @param playerId  The unique identifier of the player.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private void bindNewPlayerData(PreparedStatement statement, UUID playerId) throws SQLException {
+        _uuidCodec.bind(statement, 1, playerId);
+        statement.setInt(2, 0); // Experience
+        statement.setInt(3, 0); // Level
+        statement.setInt(4, 0); // Factories
+        statement.setInt(5, 0); // CompletedFactories
+        statement.setInt(6, 3); // MaxFactories
+        statement.setInt(7, 0); // OnGoingFactories
+        statement.setInt(8, 0); // FactoryResearch
+        statement.setInt(9, RewardPeriod.NEVER); // DailyRewardPeriod
+        statement.setInt(10, RewardPeriod.NEVER); // WeeklyRewardPeriod
+        statement.setInt(11, RewardPeriod.NEVER); // HourlyRewardPeriod
+    }
+
+    /**
+     * Reads the player data of the current row.
+     *
+     * @param result The result set positioned on a player row.
+     * @return The player data, with the stored values and version of the row.
+     * @throws SQLException If a column cannot be read.
+     */
+    private PlayerData readPlayerData(ResultSet result) throws SQLException {
+        var data = new PlayerData(
+                _uuidCodec.read(result, "PlayerId"),
+                result.getInt("Experience"),
+                result.getInt("Level"),
+                result.getInt("Factories"),
+                result.getInt("CompletedFactories"),
+                result.getInt("MaxFactories"),
+                result.getInt("OnGoingFactories"),
+                result.getInt("FactoryResearch"),
+                result.getInt("DailyRewardPeriod"),
+                result.getInt("WeeklyRewardPeriod"),
+                result.getInt("HourlyRewardPeriod")
+        );
+        data.markSaved(PlayerDataField.ALL_MASK, data.getValues(), result.getLong("Version"));
+        return data;
     }
 
+    //#region Async
     /**
-     * Resets the hourly rewards for all players in the database and invalidates the cache.
+     * Adds a new player's data to the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was added.
      */
     @Override
-    public void resetHourlyRewards() {
-        try (Connection connection = _dataSource.getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(resetHourlyRewardsSql)) {
-                statement.executeUpdate();
-            }
+    public CompletableFuture<Void> addPlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> addPlayerData(playerId));
+    }
 
-            _playerCache.invalidateAll();
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting monthly rewards...\n%s", ex.getMessage()));
-        }
+    /**
+     * Retrieves a player's data from the cache, or loads or creates it on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> loadOrCreateAsync(UUID playerId) {
+        return _playerCache.get(playerId, this::upsertPlayerData);
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates an existing player's data in the database on the I/O executor.
+     *
+     * @param newData The updated player data.
+     * @return A future completed when the data was updated.
+     */
+    @Override
+    public CompletableFuture<Void> updatePlayerDataAsync(PlayerData newData) {
+        return DatabaseExecutor.runAsync(() -> updatePlayerData(newData));
+    }
+
+    /**
+     * Removes a player's data from the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was removed.
+     */
+    @Override
+    public CompletableFuture<Void> removePlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> removePlayerData(playerId));
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return A future containing the new value of the field, or empty if the player has no data.
+     */
+    @Override
+    public CompletableFuture<OptionalInt> incrementFieldAsync(UUID playerId, PlayerDataField field, int delta) {
+        return DatabaseExecutor.supplyAsync(() -> incrementField(playerId, field, delta));
+    }
+
+    /**
+     * Retrieves a player's data from the cache, or from the database on the I/O executor.
+     * Concurrent misses of the same player share a single query.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if not found.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getPlayerDataAsync(UUID playerId) {
+        return _playerCache.get(playerId);
+    }
+    //#endregion
+}
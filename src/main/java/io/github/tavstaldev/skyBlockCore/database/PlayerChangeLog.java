@@ -0,0 +1,243 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Records the player data changes of this server in a shared table, and reads the changes of the other servers.
+ * Every write of player data inserts a row in the same transaction, naming the player and the changed fields.
+ * The other servers poll the table with an indexed cursor on the auto-increment identifier,
+ * so a poll without changes is a single primary key range lookup.
+ * <p>
+ * Identifiers are assigned at insert, but transactions commit out of order, so an identifier below the cursor may
+ * still arrive. The missing identifiers are remembered and read again by the next polls, until they arrive or
+ * {@link #MISSING_TIMEOUT_MILLIS} passed on the clock of this server, as a rolled back transaction never fills its gap.
+ * With an {@code auto_increment_increment} above 1, only the identifiers in the sequences seen so far are missing.
+ */
+public class PlayerChangeLog {
+    /**
+     * The fields value of a change which created the data of a player.
+     */
+    public static final int CREATED = -1;
+    /**
+     * The fields value of a change which deleted the data of a player.
+     */
+    public static final int REMOVED = -2;
+    /**
+     * Time in milliseconds a missing identifier is read again before it is given up.
+     * Measured on the clock of this server from when the gap was seen, so neither the clock of the writer nor
+     * the time its transaction took to commit matter.
+     */
+    private static final long MISSING_TIMEOUT_MILLIS = 10 * 60_000L;
+    private static final int MAX_MISSING = 10_000; // The most missing identifiers remembered, the oldest are given up first.
+    private static final int MISSING_QUERY_SIZE = 500; // The most missing identifiers read again by a single query.
+
+    private final String _table; // The name of the change log table.
+    private final UuidCodec _uuidCodec; // The format of the player identifiers.
+    private final String _nodeId = UUID.randomUUID().toString(); // Identifies the changes of this server.
+    private long _cursor = -1; // The identifier of the last read change, -1 until the first poll.
+    private long _step = 1; // The auto_increment_increment of the database.
+    private final BitSet _sequences = new BitSet(); // The identifiers modulo the step seen so far, the sequences gaps are looked for in.
+    private final LinkedHashMap<Long, Long> _missing = new LinkedHashMap<>(); // The missing identifiers in the order they were seen, with the time they were seen in nanoseconds.
+
+    /**
+     * A change of a player's data made by another server.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param fields   The mask of the changed fields, or {@link #CREATED} or {@link #REMOVED}.
+     */
+    public record Change(UUID playerId, int fields) {}
+
+    /**
+     * Constructs a new PlayerChangeLog.
+     *
+     * @param tablePrefix The prefix of the database tables.
+     * @param uuidCodec   The configured identifier format.
+     */
+    public PlayerChangeLog(String tablePrefix, UuidCodec uuidCodec) {
+        _table = getTableName(tablePrefix);
+        _uuidCodec = uuidCodec;
+    }
+
+    /**
+     * Builds the statement creating the change log table.
+     *
+     * @param tablePrefix The prefix of the database tables.
+     * @param uuidCodec   The configured identifier format, used for the player identifiers.
+     * @return The CREATE TABLE statement.
+     */
+    public static String createTableSql(String tablePrefix, UuidCodec uuidCodec) {
+        String table = getTableName(tablePrefix);
+        return String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                "Id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "NodeId CHAR(36) NOT NULL, " +
+                "PlayerId %s NOT NULL, " +
+                "Fields INT NOT NULL, " +
+                "ChangedAt BIGINT NOT NULL, " +
+                "INDEX idx_%s_changed_at (ChangedAt));", table, uuidCodec.getColumnType(false), table);
+    }
+
+    /**
+     * Records changes of this server, in the transaction of the connection.
+     *
+     * @param connection The connection of the transaction writing the changes.
+     * @param changes    The changes.
+     * @throws SQLException If the insert fails.
+     */
+    public void record(Connection connection, List<Change> changes) throws SQLException {
+        if (changes.isEmpty())
+            return;
+        long now = System.currentTimeMillis();
+        try (PreparedStatement statement = connection.prepareStatement(String.format("INSERT INTO %s (NodeId, PlayerId, Fields, ChangedAt) VALUES (?, ?, ?, ?);", _table))) {
+            for (var change : changes) {
+                statement.setString(1, _nodeId);
+                _uuidCodec.bind(statement, 2, change.playerId());
+                statement.setInt(3, change.fields());
+                statement.setLong(4, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Records a change of this server, in the transaction of the connection.
+     *
+     * @param connection The connection of the transaction writing the change.
+     * @param playerId   The unique identifier of the player.
+     * @param fields     The mask of the changed fields, or {@link #CREATED} or {@link #REMOVED}.
+     * @throws SQLException If the insert fails.
+     */
+    public void record(Connection connection, UUID playerId, int fields) throws SQLException {
+        record(connection, List.of(new Change(playerId, fields)));
+    }
+
+    /**
+     * Reads the changes of the other servers since the last poll, and the missing changes which arrived meanwhile.
+     * The first poll only positions the cursor at the end of the table.
+     *
+     * @param connection The connection.
+     * @param limit      The maximum number of new changes read.
+     * @return The changes, the late ones first, then the new ones in identifier order.
+     * @throws SQLException If the query fails.
+     */
+    public synchronized List<Change> poll(Connection connection, int limit) throws SQLException {
+        List<Change> changes = new ArrayList<>();
+        if (_cursor < 0) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet result = statement.executeQuery("SELECT @@auto_increment_increment;")) {
+                    _step = result.next() ? Math.max(1, result.getLong(1)) : 1;
+                }
+                try (ResultSet result = statement.executeQuery(String.format("SELECT COALESCE(MAX(Id), 0) FROM %s;", _table))) {
+                    _cursor = result.next() ? result.getLong(1) : 0;
+                }
+            }
+            _sequences.set((int) (_cursor % _step));
+            return changes;
+        }
+
+        long now = System.nanoTime();
+        pollMissing(connection, changes, now);
+        try (PreparedStatement statement = connection.prepareStatement(String.format("SELECT Id, NodeId, PlayerId, Fields FROM %s WHERE Id > ? ORDER BY Id LIMIT ?;", _table))) {
+            statement.setLong(1, _cursor);
+            statement.setInt(2, limit);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long id = result.getLong("Id");
+                    _sequences.set((int) (id % _step));
+                    // The identifiers skipped over belong to transactions which did not commit yet, or never will
+                    for (long missing = Math.max(_cursor + 1, id - MAX_MISSING); missing < id; missing++) {
+                        if (_sequences.get((int) (missing % _step)))
+                            addMissing(missing, now);
+                    }
+                    _cursor = id;
+                    readChange(result, changes);
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Reads the missing changes again, taking the ones which arrived, and gives up the ones missing for too long.
+     *
+     * @param connection The connection.
+     * @param changes    Receives the changes which arrived.
+     * @param now        The current time in nanoseconds.
+     * @throws SQLException If the query fails.
+     */
+    private void pollMissing(Connection connection, List<Change> changes, long now) throws SQLException {
+        var iterator = _missing.values().iterator();
+        while (iterator.hasNext() && now - iterator.next() > MISSING_TIMEOUT_MILLIS * 1_000_000L) {
+            iterator.remove();
+        }
+        if (_missing.isEmpty())
+            return;
+
+        List<Long> ids = new ArrayList<>(_missing.keySet());
+        for (int from = 0; from < ids.size(); from += MISSING_QUERY_SIZE) {
+            var chunk = ids.subList(from, Math.min(ids.size(), from + MISSING_QUERY_SIZE));
+            String parameters = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement statement = connection.prepareStatement(String.format("SELECT Id, NodeId, PlayerId, Fields FROM %s WHERE Id IN (%s) ORDER BY Id;", _table, parameters))) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    statement.setLong(i + 1, chunk.get(i));
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        _missing.remove(result.getLong("Id"));
+                        readChange(result, changes);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remembers a missing identifier, giving up the oldest one when too many are missing.
+     *
+     * @param id  The missing identifier.
+     * @param now The current time in nanoseconds.
+     */
+    private void addMissing(long id, long now) {
+        if (_missing.size() >= MAX_MISSING)
+            _missing.remove(_missing.keySet().iterator().next());
+        _missing.put(id, now);
+    }
+
+    /**
+     * Reads the change of the current row, unless it was made by this server.
+     *
+     * @param result  The result set positioned on a row.
+     * @param changes Receives the change.
+     * @throws SQLException If a column cannot be read.
+     */
+    private void readChange(ResultSet result, List<Change> changes) throws SQLException {
+        if (!_nodeId.equals(result.getString("NodeId")))
+            changes.add(new Change(_uuidCodec.read(result, "PlayerId"), result.getInt("Fields")));
+    }
+
+    /**
+     * Deletes the changes older than the retention, in a bounded batch so the table is never locked for long.
+     *
+     * @param connection      The connection.
+     * @param retentionMillis The time in milliseconds changes are kept.
+     * @return The number of deleted changes.
+     * @throws SQLException If the delete fails.
+     */
+    public int prune(Connection connection, long retentionMillis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(String.format("DELETE FROM %s WHERE ChangedAt < ? LIMIT 10000;", _table))) {
+            statement.setLong(1, System.currentTimeMillis() - retentionMillis);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the name of the change log table.
+     *
+     * @param tablePrefix The prefix of the database tables.
+     * @return The name of the table.
+     */
+    static String getTableName(String tablePrefix) {
+        return tablePrefix + "_player_changes";
+    }
+}
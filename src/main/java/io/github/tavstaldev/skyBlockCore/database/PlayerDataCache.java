@@ -0,0 +1,300 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Caches player data in front of a database in two tiers.
+ * The data of online players is pinned in a map from pre-login until quit, so it never expires or gets evicted.
+ * Every other player is kept in a bounded cache with its own size and expiry, where concurrent misses
+ * of the same player share a single load.
+ * Lookups of players which do not exist are answered without I/O by a short-lived negative cache,
+ * and by a filter of every stored identifier once it is built.
+ * Every stored, loaded or patched player data is passed on to the leaderboard.
+ */
+public class PlayerDataCache {
+    private final ConcurrentHashMap<UUID, Pin> _online = new ConcurrentHashMap<>(); // Pinned player data of online players.
+    private final AsyncLoadingCache<@NotNull UUID, PlayerData> _cache; // Loaded player data of offline players.
+    private final WriteBehindBuffer _writeBehind; // Buffer of unsaved changes, checked before the database.
+    private final Function<UUID, PlayerData> _loader; // Loads the data of a player from the database, null if missing.
+    private final Cache<@NotNull UUID, Boolean> _missingPlayers; // Players recently found missing from the database.
+    private volatile PlayerIdFilter _knownPlayers; // Filter of the stored players, null when disabled.
+
+    /**
+     * Constructs a new PlayerDataCache.
+     *
+     * @param config      The configuration of the cache.
+     * @param writeBehind The buffer of unsaved changes of the database.
+     * @param loader      Loads the data of a player from the database, returning null if it does not exist.
+     */
+    public PlayerDataCache(SkyBlockConfig config, WriteBehindBuffer writeBehind, Function<UUID, PlayerData> loader) {
+        _writeBehind = writeBehind;
+        _loader = loader;
+        _cache = Caffeine.newBuilder()
+                .maximumSize(config.storageOfflineCacheMaximumSize)
+                .expireAfterWrite(config.storageOfflineCacheExpireAfterWrite, TimeUnit.SECONDS)
+                .executor(runnable -> DatabaseExecutor.io().execute(runnable))
+                .buildAsync(new Loader());
+        _missingPlayers = Caffeine.newBuilder()
+                .maximumSize(config.storageNegativeCacheMaximumSize)
+                .expireAfterWrite(config.storageNegativeCacheTtl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Retrieves the data of a player if it is already loaded, without blocking.
+     * Data evicted from the cache with unsaved changes is still returned.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player data, or null if it is not loaded.
+     */
+    public @Nullable PlayerData getIfPresent(UUID playerId) {
+        var pin = _online.get(playerId);
+        if (pin != null)
+            return pin._data;
+        var data = _cache.synchronous().getIfPresent(playerId);
+        if (data == null)
+            data = _writeBehind.get(playerId); // Evicted, but not saved yet.
+        return data;
+    }
+
+    /**
+     * Retrieves the data of a player, loading it on the I/O executor when it is not cached.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player data, or empty if it does not exist. Fails if the I/O executor rejected the load.
+     */
+    public CompletableFuture<Optional<PlayerData>> get(UUID playerId) {
+        var pin = _online.get(playerId);
+        if (pin != null)
+            return CompletableFuture.completedFuture(Optional.of(pin._data));
+        var future = _cache.getIfPresent(playerId);
+        if (future == null && isKnownMissing(playerId))
+            return CompletableFuture.completedFuture(Optional.empty());
+        try {
+            return (future != null ? future : _cache.get(playerId)).thenApply(Optional::ofNullable);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Retrieves the data of a player, loading it with a custom loader on the I/O executor when it is not cached.
+     * The custom load is shared with concurrent loads of the same player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param loader   Loads the data of the player from the database, returning null if it does not exist.
+     * @return A future containing the player data, or empty if it does not exist. Fails if the I/O executor rejected the load.
+     */
+    public CompletableFuture<Optional<PlayerData>> get(UUID playerId, Function<UUID, PlayerData> loader) {
+        var pin = _online.get(playerId);
+        if (pin != null)
+            return CompletableFuture.completedFuture(Optional.of(pin._data));
+        try {
+            return _cache.get(playerId, (key, executor) -> CompletableFuture.supplyAsync(() -> {
+                var pending = _writeBehind.get(key);
+                if (pending != null)
+                    return pending;
+                var data = loader.apply(key);
+                if (data != null) {
+                    _missingPlayers.invalidate(key);
+                    LeaderboardManager.update(data);
+                }
+                return data;
+            }, executor)).thenApply(Optional::ofNullable);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Stores the data of a player, replacing any cached or loading data.
+     *
+     * @param data The player data.
+     */
+    public void put(PlayerData data) {
+        _missingPlayers.invalidate(data.getUuid());
+        LeaderboardManager.update(data);
+        _online.compute(data.getUuid(), (key, pin) -> {
+            if (pin != null)
+                pin._data = data;
+            else
+                _cache.put(key, CompletableFuture.completedFuture(data));
+            return pin;
+        });
+    }
+
+    /**
+     * Applies a value changed in the database to the loaded data of a player, without marking it as unsaved.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The changed field.
+     * @param value    The new value of the field.
+     * @param version  The version of the stored row after the change.
+     */
+    public void patch(UUID playerId, PlayerDataField field, int value, long version) {
+        var data = getIfPresent(playerId);
+        if (data != null)
+            data.patchSaved(field, value, version);
+        LeaderboardManager.update(playerId, field, value);
+    }
+
+    /**
+     * Removes the data of a player from both tiers of the cache.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void invalidate(UUID playerId) {
+        _online.remove(playerId);
+        _cache.synchronous().invalidate(playerId);
+    }
+
+    /**
+     * Loads the data of a player and pins it until the player quits.
+     * Pins are counted, so a second login of the same player keeps the data pinned when the first session quits.
+     * This blocks until the data is loaded, so it should be called off the main thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param loader   Loads the data of the player from the database, returning null if it does not exist.
+     * @return The pinned player data, or empty if it could not be loaded.
+     */
+    public Optional<PlayerData> pin(UUID playerId, Function<UUID, PlayerData> loader) {
+        var loaded = get(playerId, loader).join();
+        if (loaded.isEmpty())
+            return loaded;
+
+        var pin = _online.compute(playerId, (key, current) -> {
+            if (current == null) {
+                // Prefer data stored while loading over the loaded data
+                var cached = _cache.synchronous().getIfPresent(key);
+                current = new Pin(cached != null ? cached : loaded.get());
+                _cache.synchronous().invalidate(key);
+            }
+            current._count++;
+            return current;
+        });
+        return Optional.of(pin._data);
+    }
+
+    /**
+     * Releases a pin of a player, moving the data to the offline tier when it was the last one.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void unpin(UUID playerId) {
+        _online.computeIfPresent(playerId, (key, pin) -> {
+            if (--pin._count > 0)
+                return pin;
+            _cache.put(key, CompletableFuture.completedFuture(pin._data));
+            return null;
+        });
+    }
+
+    /**
+     * Records that the data of a player was inserted into the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void markCreated(UUID playerId) {
+        _missingPlayers.invalidate(playerId);
+        var knownPlayers = _knownPlayers;
+        if (knownPlayers != null)
+            knownPlayers.add(playerId);
+    }
+
+    /**
+     * Records that the data of a player was deleted from the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void markRemoved(UUID playerId) {
+        _missingPlayers.put(playerId, Boolean.TRUE);
+        LeaderboardManager.remove(playerId);
+        var knownPlayers = _knownPlayers;
+        if (knownPlayers != null)
+            knownPlayers.remove(playerId);
+    }
+
+    /**
+     * Sets the filter of the stored players.
+     * The filter should be set before it is filled, so players created in the meantime are added to it as well.
+     * It answers lookups once it is marked as ready.
+     *
+     * @param knownPlayers The filter, or null to disable it.
+     */
+    public void setKnownPlayers(PlayerIdFilter knownPlayers) {
+        _knownPlayers = knownPlayers;
+    }
+
+    /**
+     * Checks whether a player is known to have no data, without any I/O.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return True if the player definitely has no data, false if it might have.
+     */
+    private boolean isKnownMissing(UUID playerId) {
+        if (_missingPlayers.getIfPresent(playerId) != null)
+            return true;
+        var knownPlayers = _knownPlayers;
+        return knownPlayers != null && !knownPlayers.mightContain(playerId);
+    }
+
+    /**
+     * The pinned data of an online player.
+     * Both fields are only modified inside the compute functions of the online map.
+     */
+    private static class Pin {
+        private volatile PlayerData _data; // The player data.
+        private int _count; // The number of sessions holding the pin.
+
+        /**
+         * Constructs a new Pin.
+         *
+         * @param data The player data.
+         */
+        private Pin(PlayerData data) {
+            _data = data;
+        }
+    }
+
+    /**
+     * Loads the entries of the offline tier.
+     */
+    private class Loader implements CacheLoader<@NotNull UUID, PlayerData> {
+        /**
+         * Loads the data of a player, preferring unsaved changes over the database.
+         * Missing players are remembered by the negative cache.
+         *
+         * @param playerId The unique identifier of the player.
+         * @return The player data, or null if it does not exist.
+         */
+        @Override
+        public PlayerData load(@NotNull UUID playerId) {
+            var pending = _writeBehind.get(playerId);
+            if (pending != null)
+                return pending;
+            var data = _loader.apply(playerId);
+            if (data == null)
+                _missingPlayers.put(playerId, Boolean.TRUE);
+            else
+                LeaderboardManager.update(data);
+            return data;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Generates UPDATE statements which only touch the changed columns of a player.
+ * The SQL of every column set is generated once and cached by its dirty mask.
+ * Every statement checks and increments the version of the row, so a write based on an outdated row
+ * updates nothing and is resolved against the current row instead of overwriting it.
+ */
+public class PlayerDataUpdateSql {
+    private static final int MAX_CONFLICT_ATTEMPTS = 3; // Number of times a conflicting write is resolved before it fails.
+
+    private final String _tablePrefix; // Prefix of the database tables.
+    private final UuidCodec _uuidCodec; // Storage format of player identifiers.
+    private final AtomicReferenceArray<String> _statements = new AtomicReferenceArray<>(PlayerDataField.ALL_MASK + 1); // Cached SQL by dirty mask.
+
+    /**
+     * Constructs a new PlayerDataUpdateSql.
+     *
+     * @param tablePrefix The prefix of the database tables.
+     * @param uuidCodec   The storage format of player identifiers.
+     */
+    public PlayerDataUpdateSql(String tablePrefix, UuidCodec uuidCodec) {
+        _tablePrefix = tablePrefix;
+        _uuidCodec = uuidCodec;
+    }
+
+    /**
+     * Gets the UPDATE statement which sets the columns of the given mask.
+     *
+     * @param mask The mask of the changed fields.
+     * @return The SQL statement.
+     */
+    public String get(int mask) {
+        mask &= PlayerDataField.ALL_MASK;
+        String sql = _statements.get(mask);
+        if (sql != null)
+            return sql;
+
+        StringBuilder builder = new StringBuilder("UPDATE ").append(_tablePrefix).append("_players SET ");
+        boolean first = true;
+        for (var field : PlayerDataField.values()) {
+            if (!field.isIn(mask))
+                continue;
+            if (!first)
+                builder.append(", ");
+            builder.append(field.getColumn()).append(" = ?");
+            first = false;
+        }
+        if (!first)
+            builder.append(", ");
+        builder.append("Version = Version + 1 WHERE PlayerId = ? AND Version = ?;");
+        sql = builder.toString();
+        _statements.compareAndSet(mask, null, sql);
+        return sql;
+    }
+
+    /**
+     * Binds the values of a pending write, its player's identifier and the version it was based on.
+     *
+     * @param statement    The statement returned by {@link #get(int)} for the mask of the write.
+     * @param pendingWrite The pending write.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    public void bind(PreparedStatement statement, WriteBehindBuffer.PendingWrite pendingWrite) throws SQLException {
+        bind(statement, pendingWrite.data().getUuid(), pendingWrite.values(), pendingWrite.fields(), pendingWrite.version());
+    }
+
+    /**
+     * Binds the values of the changed fields, the player's identifier and the expected row version.
+     *
+     * @param statement The statement returned by {@link #get(int)} for the same mask.
+     * @param playerId  The unique identifier of the player.
+     * @param values    The values to write, by field ordinal.
+     * @param mask      The mask of the changed fields.
+     * @param version   The version the row must have.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private void bind(PreparedStatement statement, UUID playerId, int[] values, int mask, long version) throws SQLException {
+        int index = 1;
+        for (var field : PlayerDataField.values()) {
+            if (field.isIn(mask))
+                statement.setInt(index++, values[field.ordinal()]);
+        }
+        _uuidCodec.bind(statement, index++, playerId);
+        statement.setLong(index, version);
+    }
+
+    /**
+     * Writes a pending write again whose row was changed by another writer since it was read.
+     * The current row is read, the written fields are merged into it by the resolver,
+     * and the result is written with the version check again, retrying while other writers keep winning.
+     *
+     * @param connection   The connection of the transaction writing the batch.
+     * @param pendingWrite The conflicting pending write.
+     * @param reader       Reads the current row of a player on the same connection.
+     * @param resolver     Merges the fields changed both locally and in the database.
+     * @return The stored row after the write, or null if the player has no row anymore.
+     * @throws UnresolvedConflictException If the row kept changing, the statements of the write changed nothing.
+     * @throws SQLException                If a statement fails.
+     */
+    public @Nullable StoredRow resolveConflict(Connection connection, WriteBehindBuffer.PendingWrite pendingWrite, RowReader reader, PlayerDataConflictResolver resolver) throws SQLException {
+        UUID playerId = pendingWrite.data().getUuid();
+        int mask = pendingWrite.fields();
+        for (int attempt = 0; attempt < MAX_CONFLICT_ATTEMPTS; attempt++) {
+            PlayerData stored = reader.read(connection, playerId);
+            if (stored == null)
+                return null;
+            int[] values = stored.getValues();
+            for (var field : PlayerDataField.values()) {
+                int index = field.ordinal();
+                if (field.isIn(mask))
+                    values[index] = resolver.merge(field, pendingWrite.baseValues()[index], pendingWrite.values()[index], values[index]);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(get(mask))) {
+                bind(statement, playerId, values, mask, stored.getVersion());
+                if (statement.executeUpdate() > 0)
+                    return new StoredRow(values, stored.getVersion() + 1);
+            }
+        }
+        throw new UnresolvedConflictException(String.format("The data of player %s kept changing while it was written.", playerId));
+    }
+
+    /**
+     * Builds the stored row after a pending write succeeded without a conflict.
+     *
+     * @param pendingWrite The pending write.
+     * @return The stored row after the write.
+     */
+    public static StoredRow written(WriteBehindBuffer.PendingWrite pendingWrite) {
+        int[] values = pendingWrite.baseValues().clone();
+        for (var field : PlayerDataField.values()) {
+            if (field.isIn(pendingWrite.fields()))
+                values[field.ordinal()] = pendingWrite.values()[field.ordinal()];
+        }
+        return new StoredRow(values, pendingWrite.version() + 1);
+    }
+
+    /**
+     * Moves the data of a committed pending write onto the stored row, keeping the changes made while it was written.
+     *
+     * @param pendingWrite The committed pending write.
+     * @param row          The stored row after the write.
+     * @param resolver     Merges the fields changed both locally and in the database.
+     */
+    public static void applyStored(WriteBehindBuffer.PendingWrite pendingWrite, StoredRow row, PlayerDataConflictResolver resolver) {
+        // Local changes made after the values were taken are relative to the written values
+        int[] base = pendingWrite.baseValues().clone();
+        for (var field : PlayerDataField.values()) {
+            if (field.isIn(pendingWrite.fields()))
+                base[field.ordinal()] = pendingWrite.values()[field.ordinal()];
+        }
+        pendingWrite.data().rebase(pendingWrite.version(), base, row.values(), row.version(), resolver);
+    }
+
+    /**
+     * Thrown when a conflicting write could not be resolved because the row kept changing.
+     * The write changed nothing, so the other writes of its transaction can still be committed.
+     */
+    public static class UnresolvedConflictException extends SQLException {
+        /**
+         * Constructs a new UnresolvedConflictException.
+         *
+         * @param message The detail message.
+         */
+        public UnresolvedConflictException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The values and version of a stored player row.
+     *
+     * @param values  The stored values, by field ordinal.
+     * @param version The version of the row.
+     */
+    public record StoredRow(int[] values, long version) {}
+
+    /**
+     * Reads the current row of a player.
+     */
+    @FunctionalInterface
+    public interface RowReader {
+        /**
+         * Reads the current row of a player.
+         *
+         * @param connection The connection to read with.
+         * @param playerId   The unique identifier of the player.
+         * @return The player data with its row version, or null if the player has no row.
+         * @throws SQLException If the query fails.
+         */
+        @Nullable PlayerData read(Connection connection, UUID playerId) throws SQLException;
+    }
+
+    /**
+     * Groups a batch of pending writes by their dirty mask, so each group can share one statement.
+     *
+     * @param batch The pending writes.
+     * @return The pending writes by dirty mask.
+     */
+    public static Map<Integer, List<WriteBehindBuffer.PendingWrite>> groupByMask(List<WriteBehindBuffer.PendingWrite> batch) {
+        Map<Integer, List<WriteBehindBuffer.PendingWrite>> groups = new TreeMap<>();
+        for (var pendingWrite : batch) {
+            groups.computeIfAbsent(pendingWrite.fields(), mask -> new ArrayList<>()).add(pendingWrite);
+        }
+        return groups;
+    }
+}
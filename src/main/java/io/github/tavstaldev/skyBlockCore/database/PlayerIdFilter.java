@@ -0,0 +1,137 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counting Bloom filter of the identifiers of every stored player.
+ * It answers whether a player might exist without any I/O: a negative answer is always correct,
+ * a positive answer is wrong with roughly the configured false positive rate.
+ * Every position holds a 4-bit counter instead of a bit, so removed players can be taken out again.
+ * Counters which reach the maximum are never decremented, which can only cause false positives.
+ */
+public class PlayerIdFilter {
+    private static final int COUNTER_BITS = 4; // Size of a counter in bits.
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS; // Number of counters in a long.
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1; // The saturated value of a counter.
+
+    private final AtomicLongArray _words; // The packed counters.
+    private final long _counterCount; // The number of counters.
+    private final int _hashCount; // The number of counters per identifier.
+    private volatile boolean _ready; // Whether every stored identifier was added.
+
+    /**
+     * Constructs a new PlayerIdFilter.
+     *
+     * @param expectedPlayers   The expected number of stored players.
+     * @param falsePositiveRate The expected rate of false positives, between 0 and 1.
+     */
+    public PlayerIdFilter(long expectedPlayers, double falsePositiveRate) {
+        long players = Math.max(1, expectedPlayers);
+        double rate = Math.min(0.5, Math.max(0.000001, falsePositiveRate));
+        long counters = (long) Math.ceil(-players * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        long words = Math.min(Integer.MAX_VALUE - 8, (counters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        _words = new AtomicLongArray((int) words);
+        _counterCount = words * COUNTERS_PER_WORD;
+        _hashCount = (int) Math.max(1, Math.min(16, Math.round((double) _counterCount / players * Math.log(2))));
+    }
+
+    /**
+     * Adds a stored player.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void add(UUID playerId) {
+        long h1 = mix(playerId.getMostSignificantBits() ^ Long.rotateLeft(playerId.getLeastSignificantBits(), 32));
+        long h2 = mix(playerId.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < _hashCount; i++) {
+            long counter = Long.remainderUnsigned(h1 + i * h2, _counterCount);
+            int word = (int) (counter / COUNTERS_PER_WORD);
+            int shift = (int) (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+            long current;
+            do {
+                current = _words.get(word);
+                if (((current >>> shift) & COUNTER_MAX) == COUNTER_MAX)
+                    break; // Saturated
+            } while (!_words.compareAndSet(word, current, current + (1L << shift)));
+        }
+    }
+
+    /**
+     * Removes a player whose data was deleted.
+     * Removals are ignored until the filter is ready, because the player might not have been added yet,
+     * and removing an identifier which was never added could hide other players.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void remove(UUID playerId) {
+        if (!_ready)
+            return;
+        long h1 = mix(playerId.getMostSignificantBits() ^ Long.rotateLeft(playerId.getLeastSignificantBits(), 32));
+        long h2 = mix(playerId.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < _hashCount; i++) {
+            long counter = Long.remainderUnsigned(h1 + i * h2, _counterCount);
+            int word = (int) (counter / COUNTERS_PER_WORD);
+            int shift = (int) (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+            long current;
+            do {
+                current = _words.get(word);
+                long value = (current >>> shift) & COUNTER_MAX;
+                if (value == 0 || value == COUNTER_MAX)
+                    break; // Empty or saturated
+            } while (!_words.compareAndSet(word, current, current - (1L << shift)));
+        }
+    }
+
+    /**
+     * Checks whether a player might be stored.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return False if the player is definitely not stored, true otherwise or while the filter is not ready.
+     */
+    public boolean mightContain(UUID playerId) {
+        if (!_ready)
+            return true;
+        long h1 = mix(playerId.getMostSignificantBits() ^ Long.rotateLeft(playerId.getLeastSignificantBits(), 32));
+        long h2 = mix(playerId.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < _hashCount; i++) {
+            long counter = Long.remainderUnsigned(h1 + i * h2, _counterCount);
+            int word = (int) (counter / COUNTERS_PER_WORD);
+            int shift = (int) (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+            if (((_words.get(word) >>> shift) & COUNTER_MAX) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the filter as ready, after every stored identifier was added.
+     */
+    public void markReady() {
+        _ready = true;
+    }
+
+    /**
+     * Checks whether every stored identifier was added to the filter.
+     *
+     * @return True if the filter answers lookups, false otherwise.
+     */
+    public boolean isReady() {
+        return _ready;
+    }
+
+    /**
+     * Spreads the bits of a value, using the finalizer of MurmurHash3.
+     *
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,340 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+
+/**
+ * Stores player rows as fixed-width binary records in a memory-mapped file.
+ * A record holds the identifier of a player and two copies of its row, the version and every field,
+ * so a read or write is a hash lookup followed by a few absolute reads or writes of the mapped memory.
+ * Writes alternate between the copies and every copy carries a checksum, so a write torn by a crash
+ * between checkpoints leaves the previous copy intact, which is used on the next start.
+ * The file grows by doubling, and the slots of removed players are reused.
+ */
+public class PlayerRecordFile implements AutoCloseable {
+    private static final int MAGIC = 0x53424346; // Marks a record file of this plugin.
+    private static final int FORMAT = 1; // The layout of the header and the records.
+    private static final int HEADER_SIZE = 64; // The size of the header in bytes.
+    private static final int FIELD_COUNT = PlayerDataField.values().length; // The number of fields per record.
+    private static final int COPY_SIZE = 16 + FIELD_COUNT * 4; // Checksum, padding, version and fields.
+    private static final int RECORD_SIZE = 24 + COPY_SIZE * 2; // State, padding, identifier and two copies of the row.
+    private static final int STATE_FREE = 0; // The state of a record slot without a player.
+    private static final int STATE_USED = 1; // The state of a record slot holding a player.
+
+    private final Path _path; // The path of the file.
+    private FileChannel _channel; // The channel the file is mapped through.
+    private MappedByteBuffer _buffer; // The mapped header and records.
+    private int _capacity; // The number of record slots in the mapped region.
+    private int _recordCount; // The number of record slots in use or freed, the next new slot.
+    private final PlayerSlotIndex _index = new PlayerSlotIndex(1024); // The record slot of every player.
+    private final Deque<Integer> _freeSlots = new ArrayDeque<>(); // The slots of removed players, reused first.
+    private final CRC32C _checksum = new CRC32C(); // Calculates the record checksums.
+    private boolean _dirty; // Whether a record changed since the last checkpoint.
+
+    /**
+     * A stored player row.
+     *
+     * @param values  The stored values, by field ordinal.
+     * @param version The version of the row.
+     */
+    public record Record(int[] values, long version) {}
+
+    /**
+     * Constructs a new PlayerRecordFile. The file is opened by {@link #open(int)}.
+     *
+     * @param path The path of the file.
+     */
+    public PlayerRecordFile(Path path) {
+        _path = path;
+    }
+
+    /**
+     * Opens or creates the file, maps it and indexes its records.
+     *
+     * @param initialCapacity The number of record slots of a new file.
+     * @return The number of damaged records which were skipped.
+     * @throws IOException If the file cannot be opened or belongs to another format.
+     */
+    public synchronized int open(int initialCapacity) throws IOException {
+        _channel = FileChannel.open(_path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = _channel.size() == 0;
+        _capacity = created ? Math.max(initialCapacity, 16) : (int) ((_channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        map();
+
+        if (created) {
+            _buffer.putInt(0, MAGIC);
+            _buffer.putInt(4, FORMAT);
+            _buffer.putInt(8, FIELD_COUNT);
+            _buffer.putInt(12, 0);
+            _buffer.force();
+            return 0;
+        }
+
+        if (_buffer.getInt(0) != MAGIC)
+            throw new IOException(String.format("The file %s is not a player record file.", _path));
+        if (_buffer.getInt(4) != FORMAT || _buffer.getInt(8) != FIELD_COUNT)
+            throw new IOException(String.format("The player record file %s has format %d with %d fields, expected format %d with %d fields.",
+                    _path, _buffer.getInt(4), _buffer.getInt(8), FORMAT, FIELD_COUNT));
+        _recordCount = Math.min(_buffer.getInt(12), _capacity);
+
+        int damaged = 0;
+        for (int slot = 0; slot < _recordCount; slot++) {
+            int offset = offset(slot);
+            if (_buffer.getInt(offset) != STATE_USED) {
+                _freeSlots.push(slot);
+                continue;
+            }
+            if (currentCopy(offset) < 0) {
+                damaged++;
+                _buffer.putInt(offset, STATE_FREE);
+                _freeSlots.push(slot);
+                continue;
+            }
+            _index.put(new UUID(_buffer.getLong(offset + 8), _buffer.getLong(offset + 16)), slot);
+        }
+        return damaged;
+    }
+
+    /**
+     * Retrieves the number of stored players.
+     *
+     * @return The number of players.
+     */
+    public synchronized int size() {
+        return _index.size();
+    }
+
+    /**
+     * Reads the row of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The row, or null if the player has no row.
+     */
+    public synchronized @Nullable Record read(UUID playerId) {
+        int slot = _index.get(playerId);
+        return slot < 0 ? null : readRecord(offset(slot));
+    }
+
+    /**
+     * Stores the row of a new player, unless the player already has one.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param values   The values, by field ordinal.
+     * @return True if the row was stored, false if the player already had one.
+     * @throws IOException If the file cannot grow.
+     */
+    public synchronized boolean insert(UUID playerId, int[] values) throws IOException {
+        if (_index.get(playerId) >= 0)
+            return false;
+        int slot = allocate();
+        int offset = offset(slot);
+        _buffer.putLong(offset + 8, playerId.getMostSignificantBits());
+        _buffer.putLong(offset + 16, playerId.getLeastSignificantBits());
+        var record = new Record(values, 0);
+        writeCopy(offset, offset + 24, record);
+        writeCopy(offset, offset + 24 + COPY_SIZE, record);
+        _buffer.putInt(offset, STATE_USED);
+        _index.put(playerId, slot);
+        return true;
+    }
+
+    /**
+     * Replaces the row of a player atomically with respect to the other operations of this file.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param function Builds the new row from the current row.
+     * @return The new row, or null if the player has no row.
+     */
+    public synchronized @Nullable Record update(UUID playerId, UnaryOperator<Record> function) {
+        int slot = _index.get(playerId);
+        if (slot < 0)
+            return null;
+        int offset = offset(slot);
+        var record = function.apply(readRecord(offset));
+        writeRecord(offset, record);
+        return record;
+    }
+
+    /**
+     * Removes the row of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return True if the row was removed, false if the player had none.
+     */
+    public synchronized boolean remove(UUID playerId) {
+        int slot = _index.remove(playerId);
+        if (slot < 0)
+            return false;
+        _buffer.putInt(offset(slot), STATE_FREE);
+        _freeSlots.push(slot);
+        _dirty = true;
+        return true;
+    }
+
+    /**
+     * Passes the row of every stored player to a consumer, in slot order.
+     *
+     * @param consumer Receives the identifier and the row of every player.
+     */
+    public synchronized void forEach(BiConsumer<UUID, Record> consumer) {
+        for (int slot = 0; slot < _recordCount; slot++) {
+            int offset = offset(slot);
+            if (_buffer.getInt(offset) != STATE_USED)
+                continue;
+            consumer.accept(new UUID(_buffer.getLong(offset + 8), _buffer.getLong(offset + 16)), readRecord(offset));
+        }
+    }
+
+    /**
+     * Writes the changed records to the disk and waits until the device confirmed them.
+     * Records written before a checkpoint survive a crash of the server or the machine.
+     *
+     * @return True if there were changes to write, false otherwise.
+     */
+    public synchronized boolean checkpoint() {
+        if (!_dirty)
+            return false;
+        _buffer.force();
+        _dirty = false;
+        return true;
+    }
+
+    /**
+     * Writes the changed records to the disk and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (_channel == null)
+            return;
+        checkpoint();
+        _channel.close();
+        _channel = null;
+    }
+
+    /**
+     * Finds a slot for a new record, growing the file when every slot is in use.
+     *
+     * @return The slot.
+     * @throws IOException If the file cannot grow.
+     */
+    private int allocate() throws IOException {
+        if (!_freeSlots.isEmpty())
+            return _freeSlots.pop();
+        if (_recordCount == _capacity) {
+            if ((long) _capacity * 2 * RECORD_SIZE + HEADER_SIZE > Integer.MAX_VALUE)
+                throw new IOException("The player record file reached its maximum size.");
+            _capacity *= 2;
+            _buffer.force();
+            map();
+        }
+        int slot = _recordCount++;
+        _buffer.putInt(12, _recordCount);
+        return slot;
+    }
+
+    /**
+     * Maps the header and every record slot of the file, extending the file to the capacity.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void map() throws IOException {
+        _buffer = _channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) _capacity * RECORD_SIZE);
+    }
+
+    /**
+     * Reads the row of a record from its current copy.
+     *
+     * @param offset The offset of the record.
+     * @return The row.
+     */
+    private Record readRecord(int offset) {
+        int copy = currentCopy(offset);
+        int[] values = new int[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            values[i] = _buffer.getInt(copy + 16 + i * 4);
+        }
+        return new Record(values, _buffer.getLong(copy + 8));
+    }
+
+    /**
+     * Writes the row of a record over its older copy, so the current copy stays intact until the write completed.
+     *
+     * @param offset The offset of the record.
+     * @param record The row.
+     */
+    private void writeRecord(int offset, Record record) {
+        int current = currentCopy(offset);
+        int first = offset + 24;
+        writeCopy(offset, current == first ? first + COPY_SIZE : first, record);
+    }
+
+    /**
+     * Writes a copy of a row, followed by its checksum.
+     *
+     * @param offset The offset of the record.
+     * @param copy   The offset of the copy.
+     * @param record The row.
+     */
+    private void writeCopy(int offset, int copy, Record record) {
+        _buffer.putLong(copy + 8, record.version());
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            _buffer.putInt(copy + 16 + i * 4, record.values()[i]);
+        }
+        _buffer.putInt(copy, checksum(offset, copy));
+        _dirty = true;
+    }
+
+    /**
+     * Finds the copy of a record holding the newest intact row.
+     *
+     * @param offset The offset of the record.
+     * @return The offset of the copy, or -1 if both copies are damaged.
+     */
+    private int currentCopy(int offset) {
+        int first = offset + 24;
+        int second = first + COPY_SIZE;
+        boolean firstValid = _buffer.getInt(first) == checksum(offset, first);
+        boolean secondValid = _buffer.getInt(second) == checksum(offset, second);
+        if (firstValid && secondValid)
+            return _buffer.getLong(second + 8) > _buffer.getLong(first + 8) ? second : first;
+        return firstValid ? first : secondValid ? second : -1;
+    }
+
+    /**
+     * Calculates the checksum of a copy of a row, together with the identifier of its record.
+     *
+     * @param offset The offset of the record.
+     * @param copy   The offset of the copy.
+     * @return The checksum.
+     */
+    private int checksum(int offset, int copy) {
+        _checksum.reset();
+        _checksum.update(_buffer.slice(offset + 8, 16));
+        _checksum.update(_buffer.slice(copy + 4, COPY_SIZE - 4));
+        return (int) _checksum.getValue();
+    }
+
+    /**
+     * Calculates the offset of a record slot.
+     *
+     * @param slot The slot.
+     * @return The offset of the record in the file.
+     */
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Maps player identifiers to record slots with open addressing and linear probing.
+ * The identifiers are stored as two primitive arrays, so a lookup allocates nothing and touches
+ * at most a few consecutive entries. Not thread-safe, the caller has to synchronize access.
+ */
+public class PlayerSlotIndex {
+    private static final int FREE = -1; // Marks an entry which was never used.
+    private static final int REMOVED = -2; // Marks an entry whose player was removed, probing continues past it.
+
+    private long[] _mostBits; // The most significant bits of the identifiers by entry.
+    private long[] _leastBits; // The least significant bits of the identifiers by entry.
+    private int[] _slots; // The record slots by entry, or FREE or REMOVED.
+    private int _size; // The number of players in the index.
+    private int _occupied; // The number of entries which are not free, including the removed ones.
+
+    /**
+     * Constructs a new PlayerSlotIndex.
+     *
+     * @param expectedSize The expected number of players.
+     */
+    public PlayerSlotIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Retrieves the number of players in the index.
+     *
+     * @return The number of players.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Finds the record slot of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The record slot, or -1 if the player is not in the index.
+     */
+    public int get(UUID playerId) {
+        int entry = find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        return entry < 0 ? -1 : _slots[entry];
+    }
+
+    /**
+     * Sets the record slot of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param slot     The record slot, not negative.
+     */
+    public void put(UUID playerId, int slot) {
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int entry = find(most, least);
+        if (entry >= 0) {
+            _slots[entry] = slot;
+            return;
+        }
+
+        if ((_occupied + 1) * 2 > _slots.length)
+            rehash(capacityFor(_size + 1));
+        int mask = _slots.length - 1;
+        int index = hash(most, least) & mask;
+        while (_slots[index] >= 0) {
+            index = (index + 1) & mask;
+        }
+        if (_slots[index] == FREE)
+            _occupied++;
+        _mostBits[index] = most;
+        _leastBits[index] = least;
+        _slots[index] = slot;
+        _size++;
+    }
+
+    /**
+     * Removes a player from the index.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The record slot of the player, or -1 if the player was not in the index.
+     */
+    public int remove(UUID playerId) {
+        int entry = find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        if (entry < 0)
+            return -1;
+        int slot = _slots[entry];
+        _slots[entry] = REMOVED;
+        _size--;
+        return slot;
+    }
+
+    /**
+     * Finds the entry of an identifier.
+     *
+     * @param most  The most significant bits of the identifier.
+     * @param least The least significant bits of the identifier.
+     * @return The entry, or -1 if the identifier is not in the index.
+     */
+    private int find(long most, long least) {
+        int mask = _slots.length - 1;
+        int index = hash(most, least) & mask;
+        while (true) {
+            int slot = _slots[index];
+            if (slot == FREE)
+                return -1;
+            if (slot >= 0 && _mostBits[index] == most && _leastBits[index] == least)
+                return index;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Moves every player into new arrays of the given capacity, dropping the removed entries.
+     *
+     * @param capacity The new capacity, a power of two.
+     */
+    private void rehash(int capacity) {
+        long[] mostBits = _mostBits;
+        long[] leastBits = _leastBits;
+        int[] slots = _slots;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] < 0)
+                continue;
+            int index = hash(mostBits[i], leastBits[i]) & mask;
+            while (_slots[index] != FREE) {
+                index = (index + 1) & mask;
+            }
+            _mostBits[index] = mostBits[i];
+            _leastBits[index] = leastBits[i];
+            _slots[index] = slots[i];
+        }
+        _occupied = _size;
+    }
+
+    /**
+     * Allocates empty arrays.
+     *
+     * @param capacity The capacity, a power of two.
+     */
+    private void allocate(int capacity) {
+        _mostBits = new long[capacity];
+        _leastBits = new long[capacity];
+        _slots = new int[capacity];
+        Arrays.fill(_slots, FREE);
+    }
+
+    /**
+     * Calculates the capacity which keeps the index at most half full.
+     *
+     * @param size The number of players.
+     * @return The capacity, a power of two.
+     */
+    private static int capacityFor(int size) {
+        int capacity = 16;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Mixes the bits of an identifier, so version and variant bits do not cluster the entries.
+     *
+     * @param most  The most significant bits of the identifier.
+     * @param least The least significant bits of the identifier.
+     * @return The hash.
+     */
+    private static int hash(long most, long least) {
+        long hash = most * 0x9E3779B97F4A7C15L ^ least;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
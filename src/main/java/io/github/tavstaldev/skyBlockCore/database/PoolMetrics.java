@@ -0,0 +1,175 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statistics of a HikariCP connection pool.
+ * The connection counts are read from the pool, while the time spent waiting for a connection
+ * is recorded into a histogram with fixed buckets.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    /**
+     * The exclusive upper bounds of the acquire time histogram buckets in milliseconds.
+     * The last bucket of the histogram counts every acquire above the highest bound.
+     */
+    public static final long[] ACQUIRE_BUCKET_BOUNDS = {1, 5, 10, 50, 100, 500, 1000};
+
+    private final AtomicLongArray _acquireBuckets = new AtomicLongArray(ACQUIRE_BUCKET_BOUNDS.length + 1); // Acquire counts by bucket.
+    private final LongAdder _acquireNanos = new LongAdder(); // Total time spent acquiring connections.
+    private final AtomicLong _maxAcquireNanos = new AtomicLong(); // Longest time spent acquiring a connection.
+    private final LongAdder _timeouts = new LongAdder(); // Number of acquires which timed out.
+    private volatile PoolStats _poolStats; // Connection counts of the pool, null until the pool starts.
+
+    /**
+     * Creates the tracker of a pool, called by HikariCP when the pool starts.
+     *
+     * @param poolName  The name of the pool.
+     * @param poolStats The connection counts of the pool.
+     * @return The tracker recording into these metrics.
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        _poolStats = poolStats;
+        return new Tracker();
+    }
+
+    /**
+     * Retrieves the number of connections in use.
+     *
+     * @return The number of active connections.
+     */
+    public int getActiveConnections() {
+        var stats = _poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    /**
+     * Retrieves the number of connections waiting in the pool.
+     *
+     * @return The number of idle connections.
+     */
+    public int getIdleConnections() {
+        var stats = _poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    /**
+     * Retrieves the number of open connections.
+     *
+     * @return The number of active and idle connections.
+     */
+    public int getTotalConnections() {
+        var stats = _poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    /**
+     * Retrieves the number of threads waiting for a connection.
+     *
+     * @return The number of pending threads.
+     */
+    public int getPendingThreads() {
+        var stats = _poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    /**
+     * Retrieves the maximum size of the pool.
+     *
+     * @return The maximum number of connections.
+     */
+    public int getMaxConnections() {
+        var stats = _poolStats;
+        return stats == null ? 0 : stats.getMaxConnections();
+    }
+
+    /**
+     * Retrieves the acquire counts of every histogram bucket, in the order of {@link #ACQUIRE_BUCKET_BOUNDS}.
+     *
+     * @return The acquire counts, with one more entry than the bucket bounds.
+     */
+    public long[] getAcquireBuckets() {
+        long[] buckets = new long[_acquireBuckets.length()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = _acquireBuckets.get(i);
+        }
+        return buckets;
+    }
+
+    /**
+     * Retrieves the number of acquired connections.
+     *
+     * @return The number of acquires.
+     */
+    public long getAcquireCount() {
+        long count = 0;
+        for (int i = 0; i < _acquireBuckets.length(); i++) {
+            count += _acquireBuckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the average time spent acquiring a connection.
+     *
+     * @return The average acquire time in milliseconds, 0 if no connection was acquired yet.
+     */
+    public double getAverageAcquireMillis() {
+        long count = getAcquireCount();
+        return count == 0 ? 0 : _acquireNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Retrieves the longest time spent acquiring a connection.
+     *
+     * @return The maximum acquire time in milliseconds.
+     */
+    public double getMaxAcquireMillis() {
+        return _maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Retrieves the number of acquires which timed out.
+     *
+     * @return The number of timeouts.
+     */
+    public long getTimeouts() {
+        return _timeouts.sum();
+    }
+
+    /**
+     * Records the events of the pool into the metrics.
+     */
+    private class Tracker implements IMetricsTracker {
+        /**
+         * Records the time a thread waited for a connection.
+         *
+         * @param elapsedAcquiredNanos The time spent acquiring the connection in nanoseconds.
+         */
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos);
+            int bucket = 0;
+            while (bucket < ACQUIRE_BUCKET_BOUNDS.length && millis >= ACQUIRE_BUCKET_BOUNDS[bucket])
+                bucket++;
+            _acquireBuckets.incrementAndGet(bucket);
+            _acquireNanos.add(elapsedAcquiredNanos);
+            _maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        /**
+         * Records an acquire which timed out.
+         */
+        @Override
+        public void recordConnectionTimeout() {
+            _timeouts.increment();
+        }
+    }
+}
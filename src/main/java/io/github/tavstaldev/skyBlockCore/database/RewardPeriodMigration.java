@@ -0,0 +1,103 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.skyBlockCore.models.RewardPeriod;
+
+import java.sql.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Replaces the boolean reward claim columns of the players table with reward period columns.
+ * Claimed rewards are converted to a claim in the current period, so no reward can be claimed twice after the migration.
+ * Every step checks the existing columns first, so an interrupted migration continues on the next start.
+ */
+public class RewardPeriodMigration {
+    private static final String[] CLAIMED_COLUMNS = {"DailyRewardClaimed", "WeeklyRewardClaimed", "HourlyRewardClaimed"}; // The old columns.
+    private static final String[] PERIOD_COLUMNS = {"DailyRewardPeriod", "WeeklyRewardPeriod", "HourlyRewardPeriod"}; // The new columns, in the same order.
+    private static final RewardPeriod[] PERIODS = {RewardPeriod.DAILY, RewardPeriod.WEEKLY, RewardPeriod.HOURLY}; // The periods of the new columns.
+
+    private final PluginLogger _logger; // Logger of the owning database.
+    private final String _tablePrefix; // Prefix of the database tables.
+
+    /**
+     * Constructs a new RewardPeriodMigration.
+     *
+     * @param logger      The logger of the owning database.
+     * @param tablePrefix The prefix of the database tables.
+     */
+    public RewardPeriodMigration(PluginLogger logger, String tablePrefix) {
+        _logger = logger;
+        _tablePrefix = tablePrefix;
+    }
+
+    /**
+     * Migrates the players table if it still has the boolean reward claim columns.
+     *
+     * @param connection The connection used for the migration.
+     * @throws SQLException If a database error occurs. The migration resumes on the next start.
+     */
+    public void run(Connection connection) throws SQLException {
+        String table = _tablePrefix + "_players";
+        Set<String> columns = readColumns(connection, table);
+        boolean hasClaimedColumns = false;
+        for (var column : CLAIMED_COLUMNS) {
+            if (columns.contains(column.toLowerCase()))
+                hasClaimedColumns = true;
+        }
+        if (!hasClaimedColumns)
+            return;
+
+        _logger.info(String.format("Migrating the reward claims of the %s table to reward periods...", table));
+        try (Statement statement = connection.createStatement()) {
+            for (var column : PERIOD_COLUMNS) {
+                if (!columns.contains(column.toLowerCase()))
+                    statement.executeUpdate(String.format("ALTER TABLE %s ADD COLUMN %s INTEGER NOT NULL DEFAULT %d;", table, column, RewardPeriod.NEVER));
+            }
+        }
+
+        StringBuilder backfill = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        int parameters = 0;
+        for (int i = 0; i < CLAIMED_COLUMNS.length; i++) {
+            if (!columns.contains(CLAIMED_COLUMNS[i].toLowerCase()))
+                continue;
+            if (parameters++ > 0)
+                backfill.append(", ");
+            backfill.append(String.format("%s = CASE WHEN %s <> 0 THEN ? ELSE %d END", PERIOD_COLUMNS[i], CLAIMED_COLUMNS[i], RewardPeriod.NEVER));
+        }
+        try (PreparedStatement statement = connection.prepareStatement(backfill.append(';').toString())) {
+            int index = 1;
+            for (int i = 0; i < CLAIMED_COLUMNS.length; i++) {
+                if (columns.contains(CLAIMED_COLUMNS[i].toLowerCase()))
+                    statement.setInt(index++, PERIODS[i].current());
+            }
+            statement.executeUpdate();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (var column : CLAIMED_COLUMNS) {
+                if (columns.contains(column.toLowerCase()))
+                    statement.executeUpdate(String.format("ALTER TABLE %s DROP COLUMN %s;", table, column));
+            }
+        }
+        _logger.info(String.format("The %s table now stores reward periods.", table));
+    }
+
+    /**
+     * Reads the lower-case column names of a table.
+     *
+     * @param connection The connection.
+     * @param table      The name of the table.
+     * @return The column names, empty if the table does not exist.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private Set<String> readColumns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet result = connection.getMetaData().getColumns(connection.getCatalog(), null, table, null)) {
+            while (result.next()) {
+                columns.add(result.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        return columns;
+    }
+}
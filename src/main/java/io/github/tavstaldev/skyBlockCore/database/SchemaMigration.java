@@ -0,0 +1,33 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A versioned change of the database schema, applied once by the {@link SchemaMigrator}.
+ * The version is recorded only after the migration succeeded, and DDL commits implicitly on MySQL,
+ * so every migration must check the existing schema first and be safe to run again.
+ */
+public interface SchemaMigration {
+    /**
+     * Retrieves the version of the schema after this migration.
+     *
+     * @return The version, starting at 1 and increasing by 1 with every migration.
+     */
+    int getVersion();
+
+    /**
+     * Retrieves the description of the migration, stored in the schema version table.
+     *
+     * @return The description.
+     */
+    String getDescription();
+
+    /**
+     * Applies the migration.
+     *
+     * @param connection The connection used for the migration.
+     * @throws SQLException If a database error occurs. The migration runs again on the next start.
+     */
+    void apply(Connection connection) throws SQLException;
+}
@@ -0,0 +1,294 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings the database schema up-to-date by applying the pending migrations in version order.
+ * The applied versions are recorded in the schema version table, so every migration runs once per database.
+ * The identifier format of the players and change log tables is a setting rather than a version,
+ * so it is checked on every start after the versioned migrations.
+ */
+public class SchemaMigrator {
+    private static final String[] INDEXED_COLUMNS = {"Level", "Experience"}; // Columns of the players table with a secondary index.
+
+    private final PluginLogger _logger; // Logger of the owning database.
+    private final String _tablePrefix; // Prefix of the database tables.
+    private final boolean _sqlite; // Whether the database is SQLite.
+    private final String _createPlayersSql; // Creates the players table, with %s in place of the table name.
+    private final UuidCodec _uuidCodec; // The configured identifier format.
+    private final UuidMigration _uuidMigration; // Converts the identifiers of the players table to the configured format.
+    private final List<SchemaMigration> _migrations = new ArrayList<>(); // The migrations in version order.
+
+    /**
+     * Constructs a new SchemaMigrator.
+     *
+     * @param logger           The logger of the owning database.
+     * @param tablePrefix      The prefix of the database tables.
+     * @param sqlite           Whether the database is SQLite.
+     * @param createPlayersSql Creates the players table in the dialect of the database, with {@code %s} in place of the table name.
+     * @param uuidCodec        The configured identifier format.
+     * @param chunkSize        The number of rows copied per transaction while migrating a table.
+     */
+    public SchemaMigrator(PluginLogger logger, String tablePrefix, boolean sqlite, String createPlayersSql, UuidCodec uuidCodec, int chunkSize) {
+        _logger = logger;
+        _tablePrefix = tablePrefix;
+        _sqlite = sqlite;
+        _createPlayersSql = createPlayersSql;
+        _uuidCodec = uuidCodec;
+        _uuidMigration = new UuidMigration(logger, tablePrefix, sqlite, uuidCodec, chunkSize);
+
+        add(1, "Create the players table", connection -> execute(connection, String.format(_createPlayersSql, getPlayersTable())));
+        add(2, "Store reward claims as reward periods", connection -> new RewardPeriodMigration(_logger, _tablePrefix).run(connection));
+        add(3, "Index the players by level and experience", connection -> createIndexes(connection, false));
+        add(4, "Create the player change log table", connection -> {
+            // A SQLite database belongs to a single server, so it has no other caches to keep coherent
+            if (!_sqlite)
+                execute(connection, PlayerChangeLog.createTableSql(_tablePrefix, _uuidCodec));
+        });
+        add(5, "Add the row version of the players", this::addVersionColumn);
+    }
+
+    /**
+     * Applies every pending migration, then converts the players and change log tables to the configured identifier format.
+     *
+     * @param connection The connection used for the migrations.
+     * @return The schema version of the database.
+     * @throws SQLException If a database error occurs. The failed migration runs again on the next start.
+     */
+    public int run(Connection connection) throws SQLException {
+        String versionTable = _tablePrefix + "_schema_version";
+        execute(connection, String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                "Version INTEGER NOT NULL PRIMARY KEY, " +
+                "Description VARCHAR(255) NOT NULL, " +
+                "AppliedAt BIGINT NOT NULL);", versionTable));
+
+        int version = readVersion(connection, versionTable);
+        int latest = _migrations.get(_migrations.size() - 1).getVersion();
+        if (version > latest)
+            _logger.warn(String.format("The database schema version %d is newer than the supported version %d.", version, latest));
+
+        for (var migration : _migrations) {
+            if (migration.getVersion() <= version)
+                continue;
+            _logger.info(String.format("Applying schema migration %d: %s...", migration.getVersion(), migration.getDescription()));
+            migration.apply(connection);
+            try (PreparedStatement statement = connection.prepareStatement(String.format("INSERT INTO %s (Version, Description, AppliedAt) VALUES (?, ?, ?);", versionTable))) {
+                statement.setInt(1, migration.getVersion());
+                statement.setString(2, migration.getDescription());
+                statement.setLong(3, System.currentTimeMillis());
+                statement.executeUpdate();
+            }
+            version = migration.getVersion();
+        }
+
+        // A converted table is created without the secondary indexes
+        if (_uuidMigration.run(connection, _createPlayersSql))
+            createIndexes(connection, true);
+        if (!_sqlite && version >= 4)
+            convertChangeLog(connection);
+        return version;
+    }
+
+    /**
+     * Converts the player identifiers of the change log table to the configured format.
+     * The table is replaced by a new one holding the converted rows with their identifiers, so the cursors of
+     * the other servers stay valid. A conversion interrupted after the rename is finished on the next start.
+     *
+     * @param connection The connection.
+     * @throws SQLException If a statement fails.
+     */
+    private void convertChangeLog(Connection connection) throws SQLException {
+        String table = PlayerChangeLog.getTableName(_tablePrefix);
+        String oldTable = table + "_old";
+        UuidCodec format = UuidMigration.detectFormat(connection, table);
+        if (format == _uuidCodec)
+            return;
+
+        _logger.info(String.format("Converting the %s table to %s identifiers...", table, _uuidCodec));
+        if (format != null)
+            execute(connection, String.format("RENAME TABLE %s TO %s;", table, oldTable));
+        execute(connection, PlayerChangeLog.createTableSql(_tablePrefix, _uuidCodec));
+        UuidCodec oldFormat = UuidMigration.detectFormat(connection, oldTable);
+        if (oldFormat == null)
+            return;
+        execute(connection, String.format("INSERT IGNORE INTO %s (Id, NodeId, PlayerId, Fields, ChangedAt) SELECT Id, NodeId, %s, Fields, ChangedAt FROM %s;",
+                table, UuidMigration.convertSql(oldFormat, _uuidCodec, "PlayerId"), oldTable));
+        execute(connection, String.format("DROP TABLE %s;", oldTable));
+    }
+
+    /**
+     * Adds a migration to the end of the list.
+     *
+     * @param version     The version of the schema after the migration.
+     * @param description The description of the migration.
+     * @param action      Applies the migration.
+     */
+    private void add(int version, String description, Action action) {
+        _migrations.add(new SchemaMigration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public void apply(Connection connection) throws SQLException {
+                action.apply(connection);
+            }
+        });
+    }
+
+    /**
+     * Creates the secondary indexes of the players table.
+     * MySQL builds them in place without locking the table, so the server keeps writing player data meanwhile.
+     * SQLite has no online index builds, but its indexes are created quickly at the sizes it is used for.
+     *
+     * @param connection The connection.
+     * @param rebuilt    Whether the players table was just replaced, leaving the old indexes on the backup table.
+     * @throws SQLException If an index cannot be created.
+     */
+    private void createIndexes(Connection connection, boolean rebuilt) throws SQLException {
+        String table = getPlayersTable();
+        for (var column : INDEXED_COLUMNS) {
+            String index = String.format("idx_%s_%s", table, column.toLowerCase());
+            if (_sqlite) {
+                // Index names are unique per database in SQLite, and renaming a table keeps its indexes
+                if (rebuilt)
+                    execute(connection, String.format("DROP INDEX IF EXISTS %s;", index));
+                execute(connection, String.format("CREATE INDEX IF NOT EXISTS %s ON %s (%s);", index, table, column));
+                continue;
+            }
+
+            if (hasIndex(connection, table, index))
+                continue;
+            try {
+                execute(connection, String.format("ALTER TABLE %s ADD INDEX %s (%s), ALGORITHM=INPLACE, LOCK=NONE;", table, index, column));
+            } catch (SQLException ex) {
+                _logger.warn(String.format("The %s index cannot be built online, building it with a table lock...\n%s", index, ex.getMessage()));
+                execute(connection, String.format("ALTER TABLE %s ADD INDEX %s (%s);", table, index, column));
+            }
+        }
+    }
+
+    /**
+     * Adds the version column of the players table, used by the optimistic writes of player data.
+     * Tables created after this migration was written already have it.
+     * MySQL adds the column instantly without copying the table when the server supports it.
+     *
+     * @param connection The connection.
+     * @throws SQLException If the column cannot be added.
+     */
+    private void addVersionColumn(Connection connection) throws SQLException {
+        String table = getPlayersTable();
+        if (hasColumn(connection, table, "Version"))
+            return;
+        if (_sqlite) {
+            execute(connection, String.format("ALTER TABLE %s ADD COLUMN Version INTEGER NOT NULL DEFAULT 0;", table));
+            return;
+        }
+
+        try {
+            execute(connection, String.format("ALTER TABLE %s ADD COLUMN Version BIGINT NOT NULL DEFAULT 0, ALGORITHM=INSTANT;", table));
+        } catch (SQLException ex) {
+            _logger.warn(String.format("The Version column cannot be added instantly, rebuilding the table...\n%s", ex.getMessage()));
+            execute(connection, String.format("ALTER TABLE %s ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;", table));
+        }
+    }
+
+    /**
+     * Checks whether a table has a column.
+     *
+     * @param connection The connection.
+     * @param table      The name of the table.
+     * @param column     The name of the column.
+     * @return True if the column exists, false otherwise.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet result = connection.getMetaData().getColumns(connection.getCatalog(), null, table, null)) {
+            while (result.next()) {
+                if (column.equalsIgnoreCase(result.getString("COLUMN_NAME")))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a table has an index.
+     *
+     * @param connection The connection.
+     * @param table      The name of the table.
+     * @param index      The name of the index.
+     * @return True if the index exists, false otherwise.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        try (ResultSet result = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+            while (result.next()) {
+                if (index.equalsIgnoreCase(result.getString("INDEX_NAME")))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the highest applied schema version.
+     *
+     * @param connection   The connection.
+     * @param versionTable The name of the schema version table.
+     * @return The schema version, or 0 if no migration was applied yet.
+     * @throws SQLException If the query fails.
+     */
+    private int readVersion(Connection connection, String versionTable) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(String.format("SELECT MAX(Version) FROM %s;", versionTable))) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Executes a DDL statement.
+     *
+     * @param connection The connection.
+     * @param sql        The statement.
+     * @throws SQLException If the statement fails.
+     */
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Retrieves the name of the players table.
+     *
+     * @return The name of the players table.
+     */
+    private String getPlayersTable() {
+        return _tablePrefix + "_players";
+    }
+
+    /**
+     * Applies a migration defined by this migrator.
+     */
+    @FunctionalInterface
+    private interface Action {
+        /**
+         * Applies the migration.
+         *
+         * @param connection The connection used for the migration.
+         * @throws SQLException If a database error occurs.
+         */
+        void apply(Connection connection) throws SQLException;
+    }
+}
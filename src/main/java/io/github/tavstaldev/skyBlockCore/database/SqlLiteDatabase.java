@@ -1,50 +1,65 @@
 package io.github.tavstaldev.skyBlockCore.database;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
 import io.github.tavstaldev.skyBlockCore.models.PlayerData;
-import org.jetbrains.annotations.NotNull;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataConflictResolver;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import io.github.tavstaldev.skyBlockCore.models.RewardPeriod;
 
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implements the IDatabase interface using an SQLite database.
  * Provides methods for managing player data, rewards, and schema validation.
- * Utilizes Caffeine for caching player data.
+ * Utilizes a WAL-mode connection pool with a single writer thread, and Caffeine for caching player data.
  */
 public class SqlLiteDatabase implements IDatabase {
     private final PluginLogger _logger = SkyBlockCore.logger().withModule(SqlLiteDatabase.class); // Logger for database operations.
     private SkyBlockConfig _config; // Configuration for database settings.
-    private final Cache<@NotNull UUID, PlayerData> _playerCache = Caffeine.newBuilder()
-            .maximumSize(1000) // Maximum cache size.
-            .expireAfterWrite(5, TimeUnit.MINUTES) // Cache expiration time.
-            .build();
+    private UuidCodec _uuidCodec; // Storage format of player identifiers.
+    private SqliteConnectionPool _pool; // Long-lived reader and writer connections.
+    private PlayerDataCache _playerCache; // Cache of loaded player data.
+    private final WriteBehindBuffer _writeBehind = new WriteBehindBuffer(this::writePlayerData); // Buffer of unsaved player data changes.
+    private final CompletableFuture<Void> _schemaReady = new CompletableFuture<>(); // Completed when the schema is up-to-date.
+    private volatile PlayerDataConflictResolver _conflictResolver = PlayerDataConflictResolver.DEFAULT; // Merges the fields changed by concurrent writers.
 
     //#region SQL Statements
     private String addPlayerDataSql; // SQL statement for adding player data.
-    private String updatePlayerDataSql; // SQL statement for updating player data.
+    private String upsertPlayerDataSql; // SQL statement for adding player data when it does not exist yet.
+    private PlayerDataUpdateSql updatePlayerDataSql; // Delta UPDATE statements for player data.
     private String removePlayerDataSql; // SQL statement for removing player data.
     private String getPlayerDataSql; // SQL statement for retrieving player data.
-    private String resetDailyRewardsSql; // SQL statement for resetting daily rewards.
-    private String resetWeeklyRewardsSql; // SQL statement for resetting weekly rewards.
-    private String resetHourlyRewardsSql; // SQL statement for resetting hourly rewards.
+    private String countPlayerDataSql; // SQL statement for counting the stored players.
+    private String listPlayerScoresSql; // SQL statement for listing the identifiers and scores of the stored players.
+    private final Map<PlayerDataField, String> incrementPlayerDataSql = new EnumMap<>(PlayerDataField.class); // SQL statements for incrementing counter fields.
     //#endregion
 
     /**
-     * Loads the database by initializing the configuration and updating SQL statements.
+     * Loads the database by opening the connection pool, creating the player cache and updating SQL statements.
      */
     @Override
     public void load() {
         _config = SkyBlockCore.config();
+        _uuidCodec = UuidCodec.fromConfig(_config.storageUuidFormat);
+        _pool = createPool();
+        _playerCache = new PlayerDataCache(_config, _writeBehind, this::selectPlayerData);
         update();
     }
 
@@ -54,39 +69,54 @@ public class SqlLiteDatabase implements IDatabase {
     @Override
     public void update() {
         addPlayerDataSql = String.format("INSERT INTO %s_players (PlayerId, Experience, Level, Factories, " +
-                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardClaimed, WeeklyRewardClaimed, HourlyRewardClaimed) " +
+                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardPeriod, WeeklyRewardPeriod, HourlyRewardPeriod) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);",
                 _config.storageTablePrefix);
 
-        updatePlayerDataSql = String.format("UPDATE %s_players SET Experience = ?, Level = ?, Factories = ?, " +
-                "CompletedFactories = ?, MaxFactories = ?, OnGoingFactories = ?, FactoryResearch = ?, " +
-                "DailyRewardClaimed = ?, WeeklyRewardClaimed = ?, HourlyRewardClaimed = ? " +
-                "WHERE PlayerId = ?;", _config.storageTablePrefix);
+        upsertPlayerDataSql = String.format("INSERT INTO %s_players (PlayerId, Experience, Level, Factories, " +
+                        "CompletedFactories, MaxFactories, OnGoingFactories, FactoryResearch, DailyRewardPeriod, WeeklyRewardPeriod, HourlyRewardPeriod) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT(PlayerId) DO NOTHING;",
+                _config.storageTablePrefix);
+        updatePlayerDataSql = new PlayerDataUpdateSql(_config.storageTablePrefix, _uuidCodec);
         removePlayerDataSql = String.format("DELETE FROM %s_players WHERE PlayerId = ?;", _config.storageTablePrefix);
         getPlayerDataSql = String.format("SELECT * FROM %s_players WHERE PlayerId = ?;", _config.storageTablePrefix);
-
-        resetDailyRewardsSql = String.format("UPDATE %s_players SET DailyRewardClaimed = 0;", _config.storageTablePrefix);
-        resetWeeklyRewardsSql = String.format("UPDATE %s_players SET WeeklyRewardClaimed = 0;", _config.storageTablePrefix);
-        resetHourlyRewardsSql = String.format("UPDATE %s_players SET HourlyRewardClaimed = 0;", _config.storageTablePrefix);
+        countPlayerDataSql = String.format("SELECT COUNT(*) FROM %s_players;", _config.storageTablePrefix);
+        listPlayerScoresSql = String.format("SELECT PlayerId, Level, Experience FROM %s_players;", _config.storageTablePrefix);
+        for (var field : PlayerDataField.values()) {
+            if (!field.isIncrementable())
+                continue;
+            incrementPlayerDataSql.put(field, String.format("UPDATE %s_players SET %s = MIN(MAX(%s + ?, 0), %d), Version = Version + 1 WHERE PlayerId = ? RETURNING %s, Version;",
+                    _config.storageTablePrefix, field.getColumn(), field.getColumn(), field.getMaxValue(), field.getColumn()));
+        }
     }
 
     /**
-     * Unloads the database. Currently, this method does nothing.
+     * Unloads the database by writing the pending changes and closing the connection pool.
      */
     @Override
-    public void unload() {/* ignored */}
+    public void unload() {
+        flush();
+        try {
+            _writeBehind.closeJournal();
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while closing the journal...\n%s", ex.getMessage()));
+        }
+        if (_pool != null) {
+            _pool.close();
+            _pool = null;
+        }
+    }
 
     /**
-     * Creates a connection to the SQLite database.
+     * Creates and opens the connection pool of the SQLite database.
      *
-     * @return A Connection object to the SQLite database, or null if an error occurs.
+     * @return The opened SqliteConnectionPool instance, or null if an error occurs.
      */
-    private Connection createConnection() {
+    private SqliteConnectionPool createPool() {
         try {
-            if (_config == null)
-                _config = SkyBlockCore.config();
-            Class.forName("org.sqlite.JDBC");
-            return DriverManager.getConnection(String.format("jdbc:sqlite:plugins/SkyBlockCore/%s.db", _config.storageFilename));
+            var pool = new SqliteConnectionPool(String.format("jdbc:sqlite:plugins/SkyBlockCore/%s.db", _config.storageFilename), _config);
+            pool.open();
+            return pool;
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while creating db connection...\n%s", ex.getMessage()));
             return null;
@@ -94,34 +124,144 @@ public class SqlLiteDatabase implements IDatabase {
     }
 
     /**
-     * Ensures the database schema is up-to-date by creating necessary tables if they do not exist.
+     * Ensures the database schema is up-to-date by applying the pending schema migrations.
+     * Player data operations wait until this completed, and the stored players are scanned afterwards.
      */
     @Override
     public void checkSchema() {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot check schema.");
-                return;
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot check schema.");
+            _schemaReady.complete(null);
+            return;
+        }
+        try {
+            var migrator = new SchemaMigrator(_logger, _config.storageTablePrefix, true, createPlayersSql(_uuidCodec), _uuidCodec, _config.storageMigrationChunkSize);
+            _pool.write(connection -> migrator.run(connection.getConnection()));
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+            return;
+        } finally {
+            _schemaReady.complete(null);
+        }
+        recoverJournal();
+        DatabaseExecutor.runAsync(this::scanStoredPlayers);
+    }
+
+    /**
+     * Replays the changes a crash left in the journal and writes them to the database, then journals the new changes.
+     */
+    private void recoverJournal() {
+        if (!_config.storageJournalEnabled)
+            return;
+        try {
+            var journal = new MutationJournal(_logger, Path.of("plugins", "SkyBlockCore", "journal"), _config.storageFilename);
+            int recovered = _writeBehind.recover(journal, this::loadForRecovery);
+            if (recovered > 0) {
+                _logger.warn(String.format("Recovered the unsaved changes of %d players from the journal.", recovered));
+                flush();
             }
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while recovering the journal...\n%s", ex.getMessage()));
+        }
+    }
 
-            // Players table
-            String sql = String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
-                            "PlayerId VARCHAR(36) PRIMARY KEY, " +
-                            "Experience INTEGER NOT NULL, " +
-                            "Level INTEGER NOT NULL, " +
-                            "Factories INTEGER NOT NULL, " +
-                            "CompletedFactories INTEGER NOT NULL, " +
-                            "MaxFactories INTEGER NOT NULL, " +
-                            "OnGoingFactories INTEGER NOT NULL, " +
-                            "FactoryResearch INTEGER NOT NULL, " +
-                            "DailyRewardClaimed INTEGER NOT NULL, " +
-                            "WeeklyRewardClaimed INTEGER NOT NULL, " +
-                            "HourlyRewardClaimed INTEGER NOT NULL);",
-                    _config.storageTablePrefix);
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
+    /**
+     * Loads the data of a player on the current thread, used by the journal recovery.
+     * The recovery runs on the I/O executor, so waiting for a load of the cache queued on the same executor
+     * could deadlock with a single I/O thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData loadForRecovery(UUID playerId) {
+        var data = _playerCache.getIfPresent(playerId);
+        if (data != null)
+            return data;
+        data = selectPlayerData(playerId);
+        if (data != null)
+            _playerCache.put(data); // Players joining meanwhile see the recovered changes.
+        return data;
+    }
+
+    /**
+     * Builds the statement creating the players table of a SQLite database.
+     *
+     * @param uuidCodec The storage format of player identifiers.
+     * @return The CREATE TABLE statement, with {@code %s} in place of the table name.
+     */
+    static String createPlayersSql(UuidCodec uuidCodec) {
+        return "CREATE TABLE IF NOT EXISTS %s (" +
+                "PlayerId " + uuidCodec.getColumnType(true) + " PRIMARY KEY, " +
+                "Experience INTEGER NOT NULL, " +
+                "Level INTEGER NOT NULL, " +
+                "Factories INTEGER NOT NULL, " +
+                "CompletedFactories INTEGER NOT NULL, " +
+                "MaxFactories INTEGER NOT NULL, " +
+                "OnGoingFactories INTEGER NOT NULL, " +
+                "FactoryResearch INTEGER NOT NULL, " +
+                "DailyRewardPeriod INTEGER NOT NULL, " +
+                "WeeklyRewardPeriod INTEGER NOT NULL, " +
+                "HourlyRewardPeriod INTEGER NOT NULL, " +
+                "Version INTEGER NOT NULL DEFAULT 0);";
+    }
+
+    /**
+     * Applies the pending schema migrations on the I/O executor, so the server can finish enabling meanwhile.
+     *
+     * @return A future completing when the schema is up-to-date, even if a migration failed.
+     */
+    @Override
+    public CompletableFuture<Void> checkSchemaAsync() {
+        DatabaseExecutor.runAsync(this::checkSchema);
+        return _schemaReady;
+    }
+
+    /**
+     * Waits until the schema is up-to-date, before the first player data operation touches the tables.
+     */
+    private void awaitSchema() {
+        _schemaReady.join();
+    }
+
+    /**
+     * Streams the identifier and scores of every stored player once, to build the filter of the stored players
+     * and to seed the leaderboard.
+     * The filter is registered before the scan, so players created during the scan are added to it as well.
+     */
+    private void scanStoredPlayers() {
+        boolean filterEnabled = _config.storageKnownPlayerFilterEnabled;
+        if (!filterEnabled && !_config.leaderboardEnabled)
+            return;
+
+        try {
+            long count = _pool.read(connection -> {
+                try (ResultSet result = connection.prepare(countPlayerDataSql).executeQuery()) {
+                    return result.next() ? result.getLong(1) : 0L;
+                }
+            });
+
+            var filter = filterEnabled ? new PlayerIdFilter(Math.max(count * 2, 10000), _config.storageKnownPlayerFilterFalsePositiveRate) : null;
+            _playerCache.setKnownPlayers(filter);
+            _pool.read(connection -> {
+                try (Statement statement = connection.getConnection().createStatement()) {
+                    statement.setFetchSize(1000);
+                    try (ResultSet result = statement.executeQuery(listPlayerScoresSql)) {
+                        while (result.next()) {
+                            var playerId = _uuidCodec.read(result, "PlayerId");
+                            if (filter != null)
+                                filter.add(playerId);
+                            LeaderboardManager.seed(playerId, result.getInt("Level"), result.getInt("Experience"));
+                        }
+                    }
+                }
+                return null;
+            });
+            if (filter != null)
+                filter.markReady();
+            _logger.info(String.format("Scanned %d stored players.", count));
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+            _playerCache.setKnownPlayers(null);
+            _logger.error(String.format("Unknown error happened while scanning the stored players...\n%s", ex.getMessage()));
         }
     }
 
@@ -132,203 +272,509 @@ public class SqlLiteDatabase implements IDatabase {
      */
     @Override
     public void addPlayerData(UUID playerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot add player data.");
-                return;
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement(addPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.setInt(2, 0); // Experience
-                statement.setInt(3, 0); // Level
-                statement.setInt(4, 0); // Factories
-                statement.setInt(5, 0); // CompletedFactories
-                statement.setInt(6, 3); // MaxFactories
-                statement.setInt(7, 0); // OnGoingFactories
-                statement.setInt(8, 0); // FactoryResearch
-                statement.setInt(9, 0); // DailyRewardClaimed
-                statement.setInt(10, 0); // WeeklyRewardClaimed
-                statement.setInt(11, 0); // HourlyRewardClaimed
-                statement.executeUpdate();
-            }
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot add player data.");
+            return;
+        }
+        awaitSchema();
+        try {
+            _pool.write(connection -> {
+                PreparedStatement statement = connection.prepare(addPlayerDataSql);
+                bindNewPlayerData(statement, playerId);
+                return statement.executeUpdate();
+            });
 
+            _playerCache.markCreated(playerId);
             PlayerData data = new PlayerData(playerId);
-            _playerCache.put(playerId, data);
+            _playerCache.put(data);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Updates an existing player's data in the database and cache.
+     * Updates an existing player's data in the cache and queues it for the next flush.
      *
      * @param newData The updated player data.
      */
     @Override
     public void updatePlayerData(PlayerData newData) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot update player data.");
-                return;
-            }
+        _playerCache.put(newData);
+        _writeBehind.enqueue(newData);
+        if (!_config.storageWriteBehindEnabled)
+            _writeBehind.flush(newData.getUuid());
+    }
 
-            try (PreparedStatement statement = connection.prepareStatement(updatePlayerDataSql)) {
-                statement.setInt(1, newData.getExperience()); // Experience
-                statement.setInt(2, newData.getLevel()); // Level
-                statement.setInt(3, newData.getFactories()); // Factories
-                statement.setInt(4, newData.getCompletedFactories()); // CompletedFactories
-                statement.setInt(5, newData.getMaxFactories()); // MaxFactories
-                statement.setInt(6, newData.getOngoingFactories()); // OnGoingFactories
-                statement.setInt(7, newData.getFactoryResearch()); // FactoryResearch
-                statement.setInt(8, newData.isDailyRewardClaimed() ? 1 : 0); // DailyRewardClaimed
-                statement.setInt(9, newData.isWeeklyRewardClaimed() ? 1 : 0); // WeeklyRewardClaimed
-                statement.setInt(10, newData.isHourlyRewardClaimed() ? 1 : 0); // HourlyRewardClaimed
-                statement.setString(11, newData.getUuid().toString());
-                statement.executeUpdate();
-            }
+    /**
+     * Writes a batch of player data changes to the database in a single transaction.
+     * Only the changed columns are updated, rows with the same changed columns share one statement.
+     * Rows changed by another writer since they were read are merged with the current row instead of overwritten.
+     * When the transaction fails, the rows are written one by one, so a single failing row does not keep the others from being stored.
+     *
+     * @param batch The pending writes.
+     * @return The pending writes which were not written.
+     */
+    private List<WriteBehindBuffer.PendingWrite> writePlayerData(List<WriteBehindBuffer.PendingWrite> batch) {
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot write player data.");
+            return batch;
+        }
+        List<WriteBehindBuffer.PendingWrite> failed = new ArrayList<>();
+        if (writePlayerDataTransaction(batch, failed) || batch.size() == 1)
+            return failed.isEmpty() ? List.of() : failed;
 
-            _playerCache.put(newData.getUuid(), newData);
+        failed.clear();
+        for (var pendingWrite : batch) {
+            writePlayerDataTransaction(List.of(pendingWrite), failed);
+        }
+        return failed;
+    }
+
+    /**
+     * Writes player data changes to the database in a single transaction.
+     * A row whose conflict cannot be resolved is left out of the transaction, the other rows are still committed.
+     *
+     * @param batch  The pending writes.
+     * @param failed Collects the pending writes which were not written.
+     * @return True if the transaction was committed, false if it was rolled back and none of the writes were stored.
+     */
+    private boolean writePlayerDataTransaction(List<WriteBehindBuffer.PendingWrite> batch, List<WriteBehindBuffer.PendingWrite> failed) {
+        var resolver = _conflictResolver;
+        Map<WriteBehindBuffer.PendingWrite, PlayerDataUpdateSql.StoredRow> stored = new HashMap<>();
+        List<WriteBehindBuffer.PendingWrite> conflicts = new ArrayList<>();
+        List<WriteBehindBuffer.PendingWrite> unresolved = new ArrayList<>();
+        awaitSchema();
+        try {
+            _pool.transaction(connection -> {
+                for (var group : PlayerDataUpdateSql.groupByMask(batch).entrySet()) {
+                    int mask = group.getKey();
+                    PreparedStatement statement = connection.prepare(updatePlayerDataSql.get(mask));
+                    for (var pendingWrite : group.getValue()) {
+                        updatePlayerDataSql.bind(statement, pendingWrite);
+                        statement.addBatch();
+                    }
+                    int[] counts = statement.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        var pendingWrite = group.getValue().get(i);
+                        if (counts[i] == 0)
+                            conflicts.add(pendingWrite);
+                        else
+                            stored.put(pendingWrite, PlayerDataUpdateSql.written(pendingWrite));
+                    }
+                }
+                for (var pendingWrite : conflicts) {
+                    try {
+                        var row = updatePlayerDataSql.resolveConflict(connection.getConnection(), pendingWrite, this::selectPlayerData, resolver);
+                        if (row != null)
+                            stored.put(pendingWrite, row);
+                    } catch (PlayerDataUpdateSql.UnresolvedConflictException ex) {
+                        // The statements of the row changed nothing, so the other rows can still be committed
+                        _logger.error(String.format("Unknown error happened while writing the data of player %s...\n%s", pendingWrite.data().getUuid(), ex.getMessage()));
+                        unresolved.add(pendingWrite);
+                    }
+                }
+                return null;
+            });
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+            _logger.error(String.format("Unknown error happened while writing player data...\n%s", ex.getMessage()));
+            failed.addAll(batch);
+            return false;
+        }
+
+        failed.addAll(unresolved);
+        for (var entry : stored.entrySet()) {
+            PlayerDataUpdateSql.applyStored(entry.getKey(), entry.getValue(), resolver);
+        }
+        for (var pendingWrite : conflicts) {
+            if (!unresolved.contains(pendingWrite))
+                LeaderboardManager.update(pendingWrite.data());
         }
+        return true;
     }
 
     /**
-     * Removes a player's data from the database and cache.
+     * Sets the resolver merging the fields changed both locally and by another writer.
+     *
+     * @param resolver The conflict resolver.
+     */
+    @Override
+    public void setConflictResolver(PlayerDataConflictResolver resolver) {
+        _conflictResolver = resolver;
+    }
+
+    /**
+     * Atomically adds a delta to a counter field of a player in the database.
+     * The new value is returned by the UPDATE itself and patched into the cached data.
+     * The value is clamped between 0 and the largest value of the column, like on every other backend.
      *
      * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return The new value of the field, or empty if the player has no data.
+     * @throws DatabaseException If the increment failed.
      */
     @Override
-    public void removePlayerData(UUID playerId) {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot remove player data.");
-                return;
-            }
+    public OptionalInt incrementField(UUID playerId, PlayerDataField field, int delta) {
+        String incrementSql = incrementPlayerDataSql.get(field);
+        if (incrementSql == null)
+            throw new IllegalArgumentException(String.format("The field %s cannot be incremented.", field));
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot increment player data.");
+            throw new DatabaseException("Failed to increment player data.", new IllegalStateException("The connection pool is not open."));
+        }
 
-            try (PreparedStatement statement = connection.prepareStatement(removePlayerDataSql)) {
-                statement.setString(1, playerId.toString());
-                statement.executeUpdate();
-            }
+        _writeBehind.flush(playerId); // A buffered absolute value would overwrite the increment.
+        long[] updated; // The new value and row version, or null if the player has no data.
+        awaitSchema();
+        try {
+            updated = _pool.write(connection -> {
+                PreparedStatement statement = connection.prepare(incrementSql);
+                statement.setInt(1, delta);
+                _uuidCodec.bind(statement, 2, playerId);
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next())
+                        return null;
+                    return new long[]{result.getInt(1), result.getLong(2)};
+                }
+            });
+        } catch (Exception ex) {
+            _logger.error(String.format("Unknown error happened while incrementing player data...\n%s", ex.getMessage()));
+            throw new DatabaseException("Failed to increment player data.", ex);
+        }
 
-            if (_playerCache.getIfPresent(playerId) != null) {
-                _playerCache.invalidate(playerId);
-            }
+        if (updated == null)
+            return OptionalInt.empty();
+        _playerCache.patch(playerId, field, (int) updated[0], updated[1]);
+        return OptionalInt.of((int) updated[0]);
+    }
+
+    /**
+     * Writes every pending player data change to the database.
+     */
+    @Override
+    public void flush() {
+        _writeBehind.flush(_config.storageWriteBehindBatchSize);
+    }
+
+    /**
+     * Writes the pending changes of a player to the database.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void flush(UUID playerId) {
+        _writeBehind.flush(playerId);
+    }
+
+    /**
+     * Writes the pending player data changes if the flush interval elapsed,
+     * the oldest change reached the maximum staleness, or the buffer is full.
+     */
+    @Override
+    public void flushIfDue() {
+        if (_writeBehind.isFlushDue(_config.storageWriteBehindFlushInterval * 1000L, _config.storageWriteBehindMaxStaleness * 1000L, _config.storageWriteBehindBatchSize))
+            flush();
+    }
+
+    /**
+     * Does nothing, a SQLite database belongs to a single server, so no other server changes its players.
+     */
+    @Override
+    public void pollChanges() {
+    }
+
+    /**
+     * Writes the journaled player data changes to the disk.
+     */
+    @Override
+    public void syncJournal() {
+        _writeBehind.syncJournal();
+    }
+
+    /**
+     * Removes a player's data from the database and cache.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void removePlayerData(UUID playerId) {
+        _writeBehind.discard(playerId);
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot remove player data.");
+            return;
+        }
+        awaitSchema();
+        try {
+            int removed = _pool.write(connection -> {
+                PreparedStatement statement = connection.prepare(removePlayerDataSql);
+                _uuidCodec.bind(statement, 1, playerId);
+                return statement.executeUpdate();
+            });
+
+            if (removed > 0)
+                _playerCache.markRemoved(playerId);
+            _playerCache.invalidate(playerId);
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Retrieves a player's data from the database or cache.
+     * Retrieves a player's data from the cache, loading it from the database on a miss.
+     * Concurrent misses of the same player share a single query.
      *
      * @param playerId The unique identifier of the player.
      * @return An Optional containing the player's data, or empty if not found.
      */
     @Override
     public Optional<PlayerData> getPlayerData(UUID playerId) {
-        var data = _playerCache.getIfPresent(playerId);
-        if (data != null) {
-            return Optional.of(data);
-        }
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot get player data.");
-                return Optional.empty();
-            }
+        return _playerCache.get(playerId).join();
+    }
 
-            try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
-                statement.setString(1, playerId.toString());
+    /**
+     * Loads a player's data from the database, used by the player cache.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if not found or an error occurred.
+     */
+    private PlayerData selectPlayerData(UUID playerId) {
+        PlayerData data = null;
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot get player data.");
+            return null;
+        }
+        awaitSchema();
+        try {
+            data = _pool.read(connection -> {
+                PreparedStatement statement = connection.prepare(getPlayerDataSql);
+                _uuidCodec.bind(statement, 1, playerId);
                 try (ResultSet result = statement.executeQuery()) {
-                    if (result.next()) {
-                        data = new PlayerData(
-                                UUID.fromString(result.getString("PlayerId")),
-                                result.getInt("Experience"),
-                                result.getInt("Level"),
-                                result.getInt("Factories"),
-                                result.getInt("CompletedFactories"),
-                                result.getInt("MaxFactories"),
-                                result.getInt("OnGoingFactories"),
-                                result.getInt("FactoryResearch"),
-                                result.getInt("DailyRewardClaimed") == 1,
-                                result.getInt("WeeklyRewardClaimed") == 1,
-                                result.getInt("HourlyRewardClaimed") == 1
-                        );
-                    }
+                    if (!result.next())
+                        return null;
+                    return readPlayerData(result);
                 }
-            }
+            });
         } catch (Exception ex) {
             _logger.error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
-            return Optional.empty();
+            return null;
         }
+        return data;
+    }
 
-        if (data != null) {
-            _playerCache.put(playerId, data);
+    /**
+     * Loads a player's data with a connection, used to re-read a row inside the write transaction.
+     *
+     * @param connection The connection.
+     * @param playerId   The unique identifier of the player.
+     * @return The player's data, or null if not found.
+     * @throws SQLException If the query fails.
+     */
+    private PlayerData selectPlayerData(Connection connection, UUID playerId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(getPlayerDataSql)) {
+            _uuidCodec.bind(statement, 1, playerId);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? readPlayerData(result) : null;
+            }
         }
-        return Optional.ofNullable(data);
     }
 
     /**
-     * Resets the daily rewards for all players in the database and invalidates the cache.
+     * Retrieves a player's data, adding the default data first when it does not exist.
+     * Concurrent calls for the same player share a single query.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
      */
     @Override
-    public void resetDailyRewards() {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot reset daily rewards.");
-                return;
-            }
+    public Optional<PlayerData> loadOrCreate(UUID playerId) {
+        return loadOrCreateAsync(playerId).join();
+    }
 
-            try (PreparedStatement statement = connection.prepareStatement(resetDailyRewardsSql)) {
-                statement.executeUpdate();
-            }
+    /**
+     * Loads a player's data, adding the default data first when it does not exist,
+     * and pins it in the player cache until the player quits.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return An Optional containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public Optional<PlayerData> pinPlayer(UUID playerId) {
+        return _playerCache.pin(playerId, this::upsertPlayerData);
+    }
+
+    /**
+     * Unpins a player's data in the player cache and writes its buffered changes asynchronously.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    @Override
+    public void unpinPlayer(UUID playerId) {
+        _playerCache.unpin(playerId);
+        // Called on the main thread, the write and the wait for a running batch flush happen on the I/O executor
+        DatabaseExecutor.runAsync(() -> _writeBehind.flush(playerId));
+    }
+
+    /**
+     * Retrieves the statistics of the connection pool.
+     * The SQLite connections are not pooled by HikariCP, so there are no statistics.
+     *
+     * @return An empty Optional.
+     */
+    @Override
+    public Optional<PoolMetrics> getPoolMetrics() {
+        return Optional.empty();
+    }
 
-            _playerCache.invalidateAll();
+    /**
+     * Adds the default data of a player when it does not exist, then loads it, used by the player cache.
+     * The insert and the read share a single transaction, so concurrent joins of the same player cannot collide.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, or null if an error occurred.
+     */
+    private PlayerData upsertPlayerData(UUID playerId) {
+        PlayerData data = null;
+        if (_pool == null) {
+            _logger.error("Connection pool is null, cannot load player data.");
+            return null;
+        }
+        awaitSchema();
+        try {
+            data = _pool.transaction(connection -> {
+                PreparedStatement statement = connection.prepare(upsertPlayerDataSql);
+                bindNewPlayerData(statement, playerId);
+                if (statement.executeUpdate() > 0)
+                    _playerCache.markCreated(playerId); // A rolled back insert only leaves a false positive.
+
+                statement = connection.prepare(getPlayerDataSql);
+                _uuidCodec.bind(statement, 1, playerId);
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next())
+                        return null;
+                    return readPlayerData(result);
+                }
+            });
         } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting daily rewards...\n%s", ex.getMessage()));
+            _logger.error(String.format("Unknown error happened while loading player data...\n%s", ex.getMessage()));
+            return null;
         }
+        return data;
     }
 
     /**
-     * Resets the weekly rewards for all players in the database and invalidates the cache.
+     * Binds the default values of a new player to an INSERT statement.
+     *
+     * @param statement The INSERT statement.
+     * @param playerId  The unique identifier of the player.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private void bindNewPlayerData(PreparedStatement statement, UUID playerId) throws SQLException {
+        _uuidCodec.bind(statement, 1, playerId);
+        statement.setInt(2, 0); // Experience
+        statement.setInt(3, 0); // Level
+        statement.setInt(4, 0); // Factories
+        statement.setInt(5, 0); // CompletedFactories
+        statement.setInt(6, 3); // MaxFactories
+        statement.setInt(7, 0); // OnGoingFactories
+        statement.setInt(8, 0); // FactoryResearch
+        statement.setInt(9, RewardPeriod.NEVER); // DailyRewardPeriod
+        statement.setInt(10, RewardPeriod.NEVER); // WeeklyRewardPeriod
+        statement.setInt(11, RewardPeriod.NEVER); // HourlyRewardPeriod
+    }
+
+    /**
+     * Reads the player data of the current row.
+     *
+     * @param result The result set positioned on a player row.
+     * @return The player data, with the stored values and version of the row.
+     * @throws SQLException If a column cannot be read.
+     */
+    private PlayerData readPlayerData(ResultSet result) throws SQLException {
+        var data = new PlayerData(
+                _uuidCodec.read(result, "PlayerId"),
+                result.getInt("Experience"),
+                result.getInt("Level"),
+                result.getInt("Factories"),
+                result.getInt("CompletedFactories"),
+                result.getInt("MaxFactories"),
+                result.getInt("OnGoingFactories"),
+                result.getInt("FactoryResearch"),
+                result.getInt("DailyRewardPeriod"),
+                result.getInt("WeeklyRewardPeriod"),
+                result.getInt("HourlyRewardPeriod")
+        );
+        data.markSaved(PlayerDataField.ALL_MASK, data.getValues(), result.getLong("Version"));
+        return data;
+    }
+
+    //#region Async
+    /**
+     * Adds a new player's data to the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was added.
      */
     @Override
-    public void resetWeeklyRewards() {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot reset weekly rewards.");
-                return;
-            }
+    public CompletableFuture<Void> addPlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> addPlayerData(playerId));
+    }
 
-            try (PreparedStatement statement = connection.prepareStatement(resetWeeklyRewardsSql)) {
-                statement.executeUpdate();
-            }
+    /**
+     * Retrieves a player's data from the cache, or loads or creates it on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if an error occurred.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> loadOrCreateAsync(UUID playerId) {
+        return _playerCache.get(playerId, this::upsertPlayerData);
+    }
 
-            _playerCache.invalidateAll();
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting weekly rewards...\n%s", ex.getMessage()));
-        }
+    /**
+     * Updates an existing player's data in the database on the I/O executor.
+     *
+     * @param newData The updated player data.
+     * @return A future completed when the data was updated.
+     */
+    @Override
+    public CompletableFuture<Void> updatePlayerDataAsync(PlayerData newData) {
+        return DatabaseExecutor.runAsync(() -> updatePlayerData(newData));
     }
 
     /**
-     * Resets the hourly rewards for all players in the database and invalidates the cache.
+     * Removes a player's data from the database on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future completed when the data was removed.
      */
     @Override
-    public void resetHourlyRewards() {
-        try (Connection connection = createConnection()) {
-            if (connection == null) {
-                _logger.error("Connection is null, cannot reset hourly rewards.");
-                return;
-            }
+    public CompletableFuture<Void> removePlayerDataAsync(UUID playerId) {
+        return DatabaseExecutor.runAsync(() -> removePlayerData(playerId));
+    }
 
-            try (PreparedStatement statement = connection.prepareStatement(resetHourlyRewardsSql)) {
-                statement.executeUpdate();
-            }
+    /**
+     * Atomically adds a delta to a counter field of a player on the I/O executor.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The counter field to increment.
+     * @param delta    The amount to add, negative values decrement the field.
+     * @return A future containing the new value of the field, or empty if the player has no data.
+     */
+    @Override
+    public CompletableFuture<OptionalInt> incrementFieldAsync(UUID playerId, PlayerDataField field, int delta) {
+        return DatabaseExecutor.supplyAsync(() -> incrementField(playerId, field, delta));
+    }
 
-            _playerCache.invalidateAll();
-        } catch (Exception ex) {
-            _logger.error(String.format("Unknown error happened while resetting hourly rewards...\n%s", ex.getMessage()));
-        }
+    /**
+     * Retrieves a player's data from the cache, or from the database on the I/O executor.
+     * Concurrent misses of the same player share a single query.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return A future containing the player's data, or empty if not found.
+     */
+    @Override
+    public CompletableFuture<Optional<PlayerData>> getPlayerDataAsync(UUID playerId) {
+        return _playerCache.get(playerId);
     }
-}
\ No newline at end of file
+    //#endregion
+}
@@ -0,0 +1,284 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Keeps long-lived connections to an SQLite database.
+ * Reads are served by a small pool of read-only connections, while every write is serialized
+ * through a single writer connection owned by a dedicated thread. The database runs in WAL mode,
+ * so readers are never blocked by the writer.
+ */
+public class SqliteConnectionPool {
+    /**
+     * Represents an operation executed with a pooled connection.
+     *
+     * @param <R> The type of the result.
+     */
+    @FunctionalInterface
+    public interface SqlFunction<R> {
+        /**
+         * Executes the operation.
+         *
+         * @param connection The pooled connection.
+         * @return The result of the operation.
+         * @throws SQLException If a database error occurs.
+         */
+        R apply(PooledConnection connection) throws SQLException;
+    }
+
+    /**
+     * A connection which caches its prepared statements.
+     * The statements are owned by the connection, so callers must not close them.
+     */
+    public static class PooledConnection {
+        private final Connection _connection; // The underlying JDBC connection.
+        private final Map<String, PreparedStatement> _statements = new HashMap<>(); // Prepared statements by SQL text.
+
+        /**
+         * Constructs a new PooledConnection.
+         *
+         * @param connection The underlying JDBC connection.
+         */
+        private PooledConnection(Connection connection) {
+            _connection = connection;
+        }
+
+        /**
+         * Gets the underlying JDBC connection.
+         *
+         * @return The JDBC connection.
+         */
+        public Connection getConnection() {
+            return _connection;
+        }
+
+        /**
+         * Gets a cached prepared statement for the given SQL, preparing it on first use.
+         *
+         * @param sql The SQL statement.
+         * @return The prepared statement with its parameters cleared.
+         * @throws SQLException If the statement cannot be prepared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = _statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = _connection.prepareStatement(sql);
+                _statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+                statement.clearBatch();
+            }
+            return statement;
+        }
+
+        /**
+         * Closes the cached statements and the connection.
+         */
+        private void close() {
+            for (var statement : _statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // Closing anyway
+                }
+            }
+            _statements.clear();
+            try {
+                _connection.close();
+            } catch (SQLException ignored) {
+                // Closing anyway
+            }
+        }
+    }
+
+    private final String _url; // JDBC url of the database.
+    private final SkyBlockConfig _config; // Configuration for the pragmas and the pool size.
+    private final List<PooledConnection> _allReaders = new ArrayList<>(); // Every reader connection.
+    private BlockingQueue<PooledConnection> _readers; // Idle reader connections.
+    private PooledConnection _writer; // The only connection allowed to write.
+    private ExecutorService _writerExecutor; // Thread owning the writer connection.
+    private volatile Thread _writerThread; // The writer thread, used to detect re-entrant writes.
+
+    /**
+     * Constructs a new SqliteConnectionPool.
+     *
+     * @param url    The JDBC url of the database.
+     * @param config The configuration for the pragmas and the pool size.
+     */
+    public SqliteConnectionPool(String url, SkyBlockConfig config) {
+        _url = url;
+        _config = config;
+    }
+
+    /**
+     * Opens the writer and the reader connections.
+     *
+     * @throws SQLException If a connection cannot be opened.
+     */
+    public void open() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException ex) {
+            throw new SQLException("SQLite driver not found", ex);
+        }
+
+        // The writer is opened first, because switching to WAL mode needs write access.
+        Connection writer = DriverManager.getConnection(_url);
+        applyPragmas(writer);
+        try (Statement statement = writer.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL;");
+        }
+        _writer = new PooledConnection(writer);
+        _writerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SkyBlockCore-SQLite-Writer");
+            thread.setDaemon(true);
+            _writerThread = thread;
+            return thread;
+        });
+
+        int readerCount = Math.max(1, _config.storageSqliteReaders);
+        _readers = new ArrayBlockingQueue<>(readerCount);
+        for (int i = 0; i < readerCount; i++) {
+            Connection reader = DriverManager.getConnection(_url);
+            applyPragmas(reader);
+            try (Statement statement = reader.createStatement()) {
+                statement.execute("PRAGMA query_only=ON;");
+            }
+            var pooled = new PooledConnection(reader);
+            _allReaders.add(pooled);
+            _readers.add(pooled);
+        }
+    }
+
+    /**
+     * Applies the configured pragmas to a connection.
+     *
+     * @param connection The connection to configure.
+     * @throws SQLException If a pragma cannot be applied.
+     */
+    private void applyPragmas(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.format("PRAGMA synchronous=%s;", _config.storageSqliteSynchronous));
+            statement.execute(String.format("PRAGMA mmap_size=%d;", _config.storageSqliteMmapSize));
+            statement.execute(String.format("PRAGMA cache_size=%d;", _config.storageSqliteCacheSize));
+            statement.execute(String.format("PRAGMA busy_timeout=%d;", _config.storageSqliteBusyTimeout));
+            statement.execute("PRAGMA temp_store=MEMORY;");
+        }
+    }
+
+    /**
+     * Executes a read operation with one of the reader connections.
+     *
+     * @param function The operation to execute.
+     * @param <R>      The type of the result.
+     * @return The result of the operation.
+     * @throws SQLException If a database error occurs or no reader is available in time.
+     */
+    public <R> R read(SqlFunction<R> function) throws SQLException {
+        if (_readers == null)
+            throw new SQLException("The connection pool is not open.");
+
+        PooledConnection connection;
+        try {
+            connection = _readers.poll(_config.storageSqliteBusyTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection.", ex);
+        }
+        if (connection == null)
+            throw new SQLException("Timed out while waiting for a reader connection.");
+
+        try {
+            return function.apply(connection);
+        } finally {
+            _readers.offer(connection);
+        }
+    }
+
+    /**
+     * Executes a write operation on the writer thread and waits for its result.
+     * Writes are executed one at a time, in submission order.
+     *
+     * @param function The operation to execute.
+     * @param <R>      The type of the result.
+     * @return The result of the operation.
+     * @throws SQLException If a database error occurs.
+     */
+    public <R> R write(SqlFunction<R> function) throws SQLException {
+        if (_writerExecutor == null)
+            throw new SQLException("The connection pool is not open.");
+        if (Thread.currentThread() == _writerThread)
+            return function.apply(_writer);
+
+        Future<R> future = _writerExecutor.submit(() -> function.apply(_writer));
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SQLException sqlException)
+                throw sqlException;
+            throw new SQLException(ex.getCause());
+        }
+    }
+
+    /**
+     * Executes a write operation inside a transaction on the writer thread.
+     * The transaction is rolled back when the operation fails.
+     *
+     * @param function The operation to execute.
+     * @param <R>      The type of the result.
+     * @return The result of the operation.
+     * @throws SQLException If a database error occurs.
+     */
+    public <R> R transaction(SqlFunction<R> function) throws SQLException {
+        return write(connection -> {
+            Connection jdbc = connection.getConnection();
+            jdbc.setAutoCommit(false);
+            try {
+                R result = function.apply(connection);
+                jdbc.commit();
+                return result;
+            } catch (SQLException | RuntimeException ex) {
+                jdbc.rollback();
+                throw ex;
+            } finally {
+                jdbc.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * Closes every connection and stops the writer thread.
+     * Writes that are already queued are completed first.
+     */
+    public void close() {
+        if (_writerExecutor != null) {
+            _writerExecutor.shutdown();
+            try {
+                //noinspection ResultOfMethodCallIgnored
+                _writerExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            _writerExecutor = null;
+        }
+        if (_writer != null) {
+            _writer.close();
+            _writer = null;
+        }
+        for (var reader : _allReaders) {
+            reader.close();
+        }
+        _allReaders.clear();
+        _readers = null;
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Represents the storage format of player identifiers.
+ * The binary format stores the 128 bits of a UUID as 16 big-endian bytes,
+ * which keeps the primary key and every index referencing it less than half the size of the string format.
+ */
+public enum UuidCodec {
+    /**
+     * Stores identifiers as 36 character strings.
+     */
+    STRING {
+        @Override
+        public void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+            statement.setString(index, uuid.toString());
+        }
+
+        @Override
+        public UUID read(ResultSet result, String column) throws SQLException {
+            String value = result.getString(column);
+            return value == null ? null : UUID.fromString(value);
+        }
+
+        @Override
+        public String getColumnType(boolean sqlite) {
+            return "VARCHAR(36)";
+        }
+    },
+    /**
+     * Stores identifiers as 16 bytes.
+     */
+    BINARY {
+        @Override
+        public void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+            statement.setBytes(index, toBytes(uuid));
+        }
+
+        @Override
+        public UUID read(ResultSet result, String column) throws SQLException {
+            byte[] value = result.getBytes(column);
+            return value == null ? null : fromBytes(value);
+        }
+
+        @Override
+        public String getColumnType(boolean sqlite) {
+            return sqlite ? "BLOB" : "BINARY(16)";
+        }
+    };
+
+    /**
+     * Binds an identifier to a statement parameter.
+     *
+     * @param statement The statement.
+     * @param index     The index of the parameter.
+     * @param uuid      The identifier to bind.
+     * @throws SQLException If the parameter cannot be set.
+     */
+    public abstract void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException;
+
+    /**
+     * Reads an identifier from the current row.
+     *
+     * @param result The result set positioned on a row.
+     * @param column The name of the column.
+     * @return The identifier, or null if the column is null.
+     * @throws SQLException If the column cannot be read.
+     */
+    public abstract UUID read(ResultSet result, String column) throws SQLException;
+
+    /**
+     * Gets the SQL type of an identifier column.
+     *
+     * @param sqlite Whether the type is used in an SQLite database.
+     * @return The column type.
+     */
+    public abstract String getColumnType(boolean sqlite);
+
+    /**
+     * Parses the storage format from the configuration.
+     *
+     * @param value The configured value, either "string" or "binary".
+     * @return The matching codec, STRING for unknown values.
+     */
+    public static UuidCodec fromConfig(String value) {
+        return "binary".equalsIgnoreCase(value) ? BINARY : STRING;
+    }
+
+    /**
+     * Encodes an identifier as 16 big-endian bytes.
+     *
+     * @param uuid The identifier.
+     * @return The encoded bytes.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) most;
+            bytes[i + 8] = (byte) least;
+            most >>>= 8;
+            least >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes an identifier from 16 big-endian bytes.
+     *
+     * @param bytes The encoded bytes.
+     * @return The identifier.
+     * @throws IllegalArgumentException If the array is not 16 bytes long.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes.length != 16)
+            throw new IllegalArgumentException(String.format("Expected 16 bytes, got %d.", bytes.length));
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 8; i++) {
+            most = (most << 8) | (bytes[i] & 0xFF);
+            least = (least << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new UUID(most, least);
+    }
+}
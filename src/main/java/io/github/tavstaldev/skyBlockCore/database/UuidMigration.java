@@ -0,0 +1,424 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Converts the identifiers of the players table between the string and the binary format.
+ * Rows are copied into a new table in primary key order, one short transaction per chunk,
+ * so the source table is never locked for long. The copy is resumable: after a restart it
+ * continues after the last copied identifier.
+ * When every row is copied, the new table replaces the old one, which is kept as a backup.
+ * <p>
+ * On MySQL the migration runs online while other servers keep writing to the table. Before the copy starts,
+ * triggers on the old table apply every insert, update and delete to the new table as well, and each chunk
+ * is read with shared locks, so a row changed during the copy is never overwritten by an older copy of it.
+ * The cursor is stored in its own table, since rows written by the triggers may lie ahead of the copy.
+ * The triggers stay in place across restarts, and are dropped right after the atomic swap.
+ * A named lock keeps servers starting together from migrating the table twice.
+ */
+public class UuidMigration {
+    private final PluginLogger _logger; // Logger of the owning database.
+    private final String _tablePrefix; // Prefix of the database tables.
+    private final boolean _sqlite; // Whether the database is SQLite.
+    private final UuidCodec _target; // The configured identifier format.
+    private final int _chunkSize; // Number of rows copied per transaction.
+    private static final String[] TRIGGER_EVENTS = {"INSERT", "UPDATE", "DELETE"}; // The writes captured during the copy.
+    private static final int LOCK_TIMEOUT_SECONDS = 3600; // Time a starting server waits for the migration of another one.
+
+    /**
+     * Constructs a new UuidMigration.
+     *
+     * @param logger      The logger of the owning database.
+     * @param tablePrefix The prefix of the database tables.
+     * @param sqlite      Whether the database is SQLite.
+     * @param target      The configured identifier format.
+     * @param chunkSize   The number of rows copied per transaction.
+     */
+    public UuidMigration(PluginLogger logger, String tablePrefix, boolean sqlite, UuidCodec target, int chunkSize) {
+        _logger = logger;
+        _tablePrefix = tablePrefix;
+        _sqlite = sqlite;
+        _target = target;
+        _chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Migrates the players table if its identifier format differs from the configured one.
+     *
+     * @param connection           The connection used for the migration.
+     * @param createTargetTableSql Creates the table in the configured format, with {@code %s} in place of the table name.
+     * @return True if the table was replaced, false if it already used the configured format.
+     * @throws SQLException If a database error occurs. The migration resumes on the next start.
+     */
+    public boolean run(Connection connection, String createTargetTableSql) throws SQLException {
+        String playersTable = _tablePrefix + "_players";
+        String migrationTable = _tablePrefix + "_players_migration";
+        String cursorTable = migrationTable + "_cursor";
+        UuidCodec source = detectFormat(connection, playersTable);
+        if (source == null || source == _target)
+            return false;
+        if (_sqlite)
+            return migrate(connection, source, createTargetTableSql, playersTable, migrationTable, cursorTable);
+
+        // Servers starting together wait for the first one, then find the table migrated
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(String.format("SELECT GET_LOCK('%s', %d);", migrationTable, LOCK_TIMEOUT_SECONDS))) {
+            if (!result.next() || result.getInt(1) != 1)
+                throw new SQLException(String.format("Another server is still migrating the %s table.", playersTable));
+        }
+        try {
+            source = detectFormat(connection, playersTable);
+            if (source == null || source == _target)
+                return false;
+            return migrate(connection, source, createTargetTableSql, playersTable, migrationTable, cursorTable);
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery(String.format("SELECT RELEASE_LOCK('%s');", migrationTable)).close();
+            }
+        }
+    }
+
+    /**
+     * Copies the players table into the new format and swaps the copy in.
+     *
+     * @param connection           The connection used for the migration.
+     * @param source               The identifier format of the old table.
+     * @param createTargetTableSql Creates the table in the configured format, with {@code %s} in place of the table name.
+     * @param playersTable         The name of the old table.
+     * @param migrationTable       The name of the new table.
+     * @param cursorTable          The name of the table storing the last copied identifier.
+     * @return True, the table was replaced.
+     * @throws SQLException If a database error occurs. The migration resumes on the next start.
+     */
+    private boolean migrate(Connection connection, UuidCodec source, String createTargetTableSql, String playersTable, String migrationTable, String cursorTable) throws SQLException {
+        _logger.info(String.format("Migrating the %s table from %s to %s identifiers...", playersTable, source, _target));
+        if (!_sqlite)
+            startCapture(connection, source, createTargetTableSql, playersTable, migrationTable, cursorTable);
+        else
+            execute(connection, String.format(createTargetTableSql, migrationTable));
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            UUID cursor = readCursor(connection, migrationTable, cursorTable);
+            long copied = 0;
+            int count;
+            do {
+                var chunk = copyChunk(connection, source, playersTable, migrationTable, cursor);
+                count = chunk.count();
+                if (count > 0) {
+                    cursor = chunk.playerId();
+                    copied += count;
+                    if (!_sqlite)
+                        writeCursor(connection, cursorTable, cursor);
+                }
+                connection.commit();
+            } while (count == _chunkSize);
+            _logger.info(String.format("Copied %d rows, replacing the %s table...", copied, playersTable));
+
+            String backupTable = playersTable + "_backup_" + source.name().toLowerCase();
+            swapTables(connection, playersTable, migrationTable, backupTable);
+            if (!_sqlite) {
+                // The triggers moved with the old table, the writes now go to the new one
+                dropTriggers(connection, migrationTable);
+                execute(connection, String.format("DROP TABLE IF EXISTS %s;", cursorTable));
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        _logger.info(String.format("The %s table now uses %s identifiers.", playersTable, _target));
+        return true;
+    }
+
+    /**
+     * Prepares the new table and the triggers which apply the writes of the old table to it during the copy.
+     * A copy left by an earlier start is resumed if its triggers and cursor are in place, otherwise it starts over,
+     * as rows written while no trigger was in place may be missing from it.
+     *
+     * @param connection           The connection.
+     * @param source               The identifier format of the old table.
+     * @param createTargetTableSql Creates the table in the configured format, with {@code %s} in place of the table name.
+     * @param playersTable         The name of the old table.
+     * @param migrationTable       The name of the new table.
+     * @param cursorTable          The name of the table storing the last copied identifier.
+     * @throws SQLException If a statement fails, for example when the user may not create triggers.
+     */
+    private void startCapture(Connection connection, UuidCodec source, String createTargetTableSql, String playersTable, String migrationTable, String cursorTable) throws SQLException {
+        if (countTriggers(connection, migrationTable) == TRIGGER_EVENTS.length && detectFormat(connection, cursorTable) != null
+                && detectFormat(connection, migrationTable) == _target)
+            return;
+
+        dropTriggers(connection, migrationTable);
+        // The state table of the offline migration of earlier versions
+        execute(connection, String.format("DROP TABLE IF EXISTS %s, %s, %s_state;", migrationTable, cursorTable, migrationTable));
+        execute(connection, String.format(createTargetTableSql, migrationTable));
+        execute(connection, String.format("CREATE TABLE %s (PlayerId %s NOT NULL);", cursorTable, source.getColumnType(false)));
+
+        List<String> columns = new ArrayList<>();
+        try (ResultSet result = connection.getMetaData().getColumns(connection.getCatalog(), null, playersTable, null)) {
+            while (result.next()) {
+                columns.add(result.getString("COLUMN_NAME"));
+            }
+        }
+        StringBuilder values = new StringBuilder();
+        for (var column : columns) {
+            if (!values.isEmpty())
+                values.append(", ");
+            values.append("PlayerId".equalsIgnoreCase(column) ? convertSql(source, _target, "NEW.PlayerId") : "NEW." + column);
+        }
+        String row = String.format("REPLACE INTO %s (%s) VALUES (%s)", migrationTable, String.join(", ", columns), values);
+        try {
+            for (var event : TRIGGER_EVENTS) {
+                String action = event.equals("DELETE")
+                        ? String.format("DELETE FROM %s WHERE PlayerId = %s", migrationTable, convertSql(source, _target, "OLD.PlayerId"))
+                        : row;
+                execute(connection, String.format("CREATE TRIGGER %s AFTER %s ON %s FOR EACH ROW %s;",
+                        getTriggerName(migrationTable, event), event, playersTable, action));
+            }
+        } catch (SQLException ex) {
+            dropTriggers(connection, migrationTable);
+            throw new SQLException(String.format("The triggers capturing the writes during the migration cannot be created, grant the TRIGGER privilege to the database user.\n%s", ex.getMessage()), ex);
+        }
+    }
+
+    /**
+     * Counts the capture triggers of a migration which exist.
+     *
+     * @param connection     The connection.
+     * @param migrationTable The name of the new table.
+     * @return The number of existing triggers.
+     * @throws SQLException If the query fails.
+     */
+    private int countTriggers(Connection connection, String migrationTable) throws SQLException {
+        int count = 0;
+        for (var event : TRIGGER_EVENTS) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME = ?;")) {
+                statement.setString(1, getTriggerName(migrationTable, event));
+                try (ResultSet result = statement.executeQuery()) {
+                    if (result.next())
+                        count += result.getInt(1);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops the capture triggers of a migration if they exist.
+     *
+     * @param connection     The connection.
+     * @param migrationTable The name of the new table.
+     * @throws SQLException If a statement fails.
+     */
+    private void dropTriggers(Connection connection, String migrationTable) throws SQLException {
+        for (var event : TRIGGER_EVENTS) {
+            execute(connection, String.format("DROP TRIGGER IF EXISTS %s;", getTriggerName(migrationTable, event)));
+        }
+    }
+
+    /**
+     * Retrieves the name of a capture trigger.
+     *
+     * @param migrationTable The name of the new table.
+     * @param event          The captured write.
+     * @return The name of the trigger.
+     */
+    private static String getTriggerName(String migrationTable, String event) {
+        return migrationTable + "_" + event.toLowerCase();
+    }
+
+    /**
+     * Builds the SQL expression converting an identifier between the formats in MySQL.
+     *
+     * @param from       The format of the expression.
+     * @param to         The format of the result.
+     * @param expression The identifier expression.
+     * @return The converted expression.
+     */
+    static String convertSql(UuidCodec from, UuidCodec to, String expression) {
+        if (from == to)
+            return expression;
+        if (from == UuidCodec.STRING)
+            return String.format("UNHEX(REPLACE(%s, '-', ''))", expression);
+        return String.format("LOWER(CONCAT_WS('-', HEX(SUBSTRING(%1$s, 1, 4)), HEX(SUBSTRING(%1$s, 5, 2)), HEX(SUBSTRING(%1$s, 7, 2)), HEX(SUBSTRING(%1$s, 9, 2)), HEX(SUBSTRING(%1$s, 11, 6))))", expression);
+    }
+
+    /**
+     * Executes a statement.
+     *
+     * @param connection The connection.
+     * @param sql        The statement.
+     * @throws SQLException If the statement fails.
+     */
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Detects the identifier format of a table from the type of its PlayerId column.
+     *
+     * @param connection The connection.
+     * @param table      The name of the table.
+     * @return The format of the table, or null if the table does not exist.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    static UuidCodec detectFormat(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+            while (columns.next()) {
+                if (!"PlayerId".equalsIgnoreCase(columns.getString("COLUMN_NAME")))
+                    continue;
+                String type = columns.getString("TYPE_NAME");
+                return type != null && type.toUpperCase().contains("CHAR") ? UuidCodec.STRING : UuidCodec.BINARY;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the last copied identifier.
+     * On SQLite this is the highest identifier of the new table, on MySQL the one stored in the cursor table,
+     * as the triggers may have written rows ahead of the copy.
+     *
+     * @param connection     The connection.
+     * @param migrationTable The name of the new table.
+     * @param cursorTable    The name of the table storing the last copied identifier.
+     * @return The last copied identifier, or null if nothing was copied yet.
+     * @throws SQLException If the query fails.
+     */
+    private UUID readCursor(Connection connection, String migrationTable, String cursorTable) throws SQLException {
+        if (_sqlite) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(String.format("SELECT MAX(PlayerId) AS PlayerId FROM %s;", migrationTable))) {
+                return result.next() ? _target.read(result, "PlayerId") : null;
+            }
+        }
+        UuidCodec source = detectFormat(connection, cursorTable);
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(String.format("SELECT PlayerId FROM %s;", cursorTable))) {
+            return result.next() ? source.read(result, "PlayerId") : null;
+        }
+    }
+
+    /**
+     * Stores the last copied identifier, in the transaction of the chunk.
+     *
+     * @param connection  The connection.
+     * @param cursorTable The name of the table storing the last copied identifier.
+     * @param cursor      The last copied identifier.
+     * @throws SQLException If a statement fails.
+     */
+    private void writeCursor(Connection connection, String cursorTable, UUID cursor) throws SQLException {
+        UuidCodec source = detectFormat(connection, cursorTable);
+        execute(connection, String.format("DELETE FROM %s;", cursorTable));
+        try (PreparedStatement statement = connection.prepareStatement(String.format("INSERT INTO %s (PlayerId) VALUES (?);", cursorTable))) {
+            source.bind(statement, 1, cursor);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * The result of copying a chunk.
+     *
+     * @param count    The number of rows read from the old table.
+     * @param playerId The last identifier read, or null if no row was read.
+     */
+    private record Chunk(int count, UUID playerId) {}
+
+    /**
+     * Copies the next chunk of rows after the cursor into the new table.
+     * Rows which are already present are skipped, so a chunk may be retried safely,
+     * and a row written by a trigger meanwhile is newer than the copy.
+     * On MySQL the rows are read with shared locks, so a concurrent write of them waits for the chunk to commit,
+     * and its trigger then overwrites the copied row.
+     *
+     * @param connection     The connection.
+     * @param source         The identifier format of the old table.
+     * @param playersTable   The name of the old table.
+     * @param migrationTable The name of the new table.
+     * @param cursor         The last copied identifier, or null to start from the beginning.
+     * @return The number of rows read from the old table, and the last of them.
+     * @throws SQLException If a statement fails.
+     */
+    private Chunk copyChunk(Connection connection, UuidCodec source, String playersTable, String migrationTable, UUID cursor) throws SQLException {
+        String lock = _sqlite ? "" : " LOCK IN SHARE MODE";
+        String selectSql = cursor == null
+                ? String.format("SELECT * FROM %s ORDER BY PlayerId LIMIT %d%s;", playersTable, _chunkSize, lock)
+                : String.format("SELECT * FROM %s WHERE PlayerId > ? ORDER BY PlayerId LIMIT %d%s;", playersTable, _chunkSize, lock);
+        try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+            if (cursor != null)
+                source.bind(select, 1, cursor);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData columns = rows.getMetaData();
+                int columnCount = columns.getColumnCount();
+                StringBuilder names = new StringBuilder();
+                StringBuilder values = new StringBuilder();
+                int idColumn = 0;
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) {
+                        names.append(", ");
+                        values.append(", ");
+                    }
+                    names.append(columns.getColumnName(i));
+                    values.append('?');
+                    if ("PlayerId".equalsIgnoreCase(columns.getColumnName(i)))
+                        idColumn = i;
+                }
+                String insertSql = String.format("%s INTO %s (%s) VALUES (%s);",
+                        _sqlite ? "INSERT OR IGNORE" : "INSERT IGNORE", migrationTable, names, values);
+
+                int count = 0;
+                UUID last = null;
+                try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                    while (rows.next()) {
+                        last = source.read(rows, "PlayerId");
+                        for (int i = 1; i <= columnCount; i++) {
+                            if (i == idColumn)
+                                _target.bind(insert, i, last);
+                            else
+                                insert.setObject(i, rows.getObject(i));
+                        }
+                        insert.addBatch();
+                        count++;
+                    }
+                    if (count > 0)
+                        insert.executeBatch();
+                }
+                return new Chunk(count, last);
+            }
+        }
+    }
+
+    /**
+     * Replaces the old table with the new one, keeping the old table as a backup.
+     *
+     * @param connection     The connection.
+     * @param playersTable   The name of the old table.
+     * @param migrationTable The name of the new table.
+     * @param backupTable    The name of the backup table.
+     * @throws SQLException If a statement fails.
+     */
+    private void swapTables(Connection connection, String playersTable, String migrationTable, String backupTable) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(String.format("DROP TABLE IF EXISTS %s;", backupTable));
+            if (_sqlite) {
+                statement.executeUpdate(String.format("ALTER TABLE %s RENAME TO %s;", playersTable, backupTable));
+                statement.executeUpdate(String.format("ALTER TABLE %s RENAME TO %s;", migrationTable, playersTable));
+            } else {
+                // A single RENAME TABLE swaps both tables atomically.
+                statement.executeUpdate(String.format("RENAME TABLE %s TO %s, %s TO %s;", playersTable, backupTable, migrationTable, playersTable));
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Buffers player data changes and writes them to the database in batches.
+ * Repeated changes of the same player are coalesced into a single pending write.
+ * With a journal attached, every queued change is also appended to the journal, which is truncated after every flush.
+ * The changes a flush could not write are queued and appended to the journal again, so they survive the truncation.
+ * A flush of a single player retires the journal entries of the player instead, so the replay never writes them over later changes.
+ */
+public class WriteBehindBuffer {
+    /**
+     * Writes a batch of pending changes to the database.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        /**
+         * Writes the given batch. A write failing does not keep the other writes of the batch from being stored.
+         *
+         * @param batch The pending writes.
+         * @return The pending writes which were not written and should be retried later, empty if the whole batch was written.
+         */
+        List<PendingWrite> write(List<PendingWrite> batch);
+    }
+
+    /**
+     * Represents a pending write of a player's data.
+     * The values are taken when the write is dequeued, so changes made while it is written stay dirty.
+     *
+     * @param data       The player data to write.
+     * @param fields     The mask of the fields that changed.
+     * @param values     The values to write, by field ordinal.
+     * @param baseValues The stored values the changes were made to, by field ordinal.
+     * @param version    The version of the stored row the changes were made to.
+     */
+    public record PendingWrite(PlayerData data, int fields, int[] values, int[] baseValues, long version) {
+        /**
+         * Takes the current values of a player's data for a write.
+         *
+         * @param data   The player data to write.
+         * @param fields The mask of the fields that changed.
+         * @return The pending write.
+         */
+        public static PendingWrite of(PlayerData data, int fields) {
+            synchronized (data) {
+                return new PendingWrite(data, fields, data.getValues(), data.getSavedValues(), data.getVersion());
+            }
+        }
+    }
+
+    private final Map<UUID, PlayerData> _pending = new ConcurrentHashMap<>(); // Players with unsaved changes.
+    private final ReentrantLock _flushLock = new ReentrantLock(); // Serializes flushes so batches are written in order.
+    private final BatchWriter _writer; // Writer used to persist the batches.
+    private volatile long _oldestChangeAt; // Time of the oldest unsaved change in milliseconds, 0 if none.
+    private volatile long _lastFlushAt = System.currentTimeMillis(); // Time of the last flush in milliseconds.
+    private volatile MutationJournal _journal; // Journal of the queued changes, null if journaling is disabled.
+
+    /**
+     * Constructs a new WriteBehindBuffer.
+     *
+     * @param writer The writer used to persist the batches.
+     */
+    public WriteBehindBuffer(BatchWriter writer) {
+        _writer = writer;
+    }
+
+    /**
+     * Queues the changes of a player's data.
+     * Data without a dirty field is treated as fully changed.
+     *
+     * @param data The changed player data.
+     */
+    public void enqueue(PlayerData data) {
+        if (!data.isDirty())
+            data.markDirty(PlayerDataField.ALL_MASK);
+        _pending.put(data.getUuid(), data);
+        if (_oldestChangeAt == 0)
+            _oldestChangeAt = System.currentTimeMillis();
+
+        var journal = _journal;
+        if (journal != null) {
+            synchronized (data) {
+                journal.append(data.getUuid(), data.getDirtyFields(), data.getValues());
+            }
+        }
+    }
+
+    /**
+     * Opens a journal, queues the changes recovered from it and attaches it to the buffer.
+     * The recovered changes are applied to the current data of their players, players without data are skipped.
+     *
+     * @param journal The journal.
+     * @param loader  Loads the current data of a player, returning null if the player has no data.
+     * @return The number of players with recovered changes.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public int recover(MutationJournal journal, Function<UUID, PlayerData> loader) throws IOException {
+        var mutations = journal.open();
+        _journal = journal;
+        int recovered = 0;
+        for (var mutation : mutations) {
+            var data = loader.apply(mutation.playerId());
+            if (data == null)
+                continue;
+            synchronized (data) {
+                for (var field : PlayerDataField.values()) {
+                    if (field.isIn(mutation.fields()))
+                        data.patch(field, mutation.values()[field.ordinal()]);
+                }
+                data.markDirty(mutation.fields());
+            }
+            enqueue(data);
+            recovered++;
+        }
+        return recovered;
+    }
+
+    /**
+     * Writes the journaled changes to the disk, a single sync covering every change queued since the previous one.
+     */
+    public void syncJournal() {
+        var journal = _journal;
+        if (journal != null)
+            journal.commit();
+    }
+
+    /**
+     * Detaches and closes the journal, after the pending changes were flushed.
+     *
+     * @throws IOException If the journal cannot be closed.
+     */
+    public void closeJournal() throws IOException {
+        var journal = _journal;
+        _journal = null;
+        if (journal != null)
+            journal.close();
+    }
+
+    /**
+     * Retrieves the pending data of a player, if there is any.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The pending data, or null if there are no unsaved changes.
+     */
+    public @Nullable PlayerData get(UUID playerId) {
+        return _pending.get(playerId);
+    }
+
+    /**
+     * Drops the pending changes of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void discard(UUID playerId) {
+        var data = _pending.remove(playerId);
+        if (data != null)
+            data.clearDirty();
+    }
+
+    /**
+     * Gets the number of players with unsaved changes.
+     *
+     * @return The number of pending writes.
+     */
+    public int size() {
+        return _pending.size();
+    }
+
+    /**
+     * Checks whether the buffer should be flushed.
+     *
+     * @param flushIntervalMillis The regular flush interval in milliseconds.
+     * @param maxStalenessMillis  The maximum time a change may stay unsaved in milliseconds.
+     * @param batchSize           The number of pending writes that triggers an early flush.
+     * @return True if a flush is due, false otherwise.
+     */
+    public boolean isFlushDue(long flushIntervalMillis, long maxStalenessMillis, int batchSize) {
+        if (_pending.isEmpty())
+            return false;
+        final long now = System.currentTimeMillis();
+        final long oldest = _oldestChangeAt;
+        return now - _lastFlushAt >= flushIntervalMillis
+                || (oldest != 0 && now - oldest >= maxStalenessMillis)
+                || _pending.size() >= batchSize;
+    }
+
+    /**
+     * Writes every pending change to the database.
+     *
+     * @param batchSize The maximum number of rows written in one batch.
+     */
+    public void flush(int batchSize) {
+        _flushLock.lock();
+        try {
+            // Changes queued from now on go to a new journal segment, the older ones are covered by this flush
+            var journal = _journal;
+            long checkpoint = journal == null ? 0 : journal.rotate();
+            _lastFlushAt = System.currentTimeMillis();
+            _oldestChangeAt = 0; // Changes queued while flushing start a new staleness window.
+            List<PendingWrite> batch = new ArrayList<>();
+            for (var playerId : _pending.keySet()) {
+                var data = _pending.remove(playerId);
+                if (data == null)
+                    continue;
+                int fields = data.clearDirty();
+                if (fields == 0)
+                    continue;
+                batch.add(PendingWrite.of(data, fields));
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty())
+                write(batch);
+            // The writes which failed were appended after the checkpoint again, so the older segments can always go
+            if (journal != null)
+                journal.truncate(checkpoint);
+        } finally {
+            _flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending changes of a single player to the database.
+     * The journal segments also hold the changes of other players, so the written entries are retired instead of deleted.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public void flush(UUID playerId) {
+        _flushLock.lock();
+        try {
+            var data = _pending.remove(playerId);
+            if (data == null)
+                return;
+            int fields = data.clearDirty();
+            if (fields == 0)
+                return;
+            if (!write(new ArrayList<>(List.of(PendingWrite.of(data, fields)))))
+                return;
+
+            var journal = _journal;
+            if (journal == null)
+                return;
+            synchronized (data) {
+                journal.retire(playerId, data.getDirtyFields(), data.getValues());
+            }
+            // Stored before returning, so a following increment cannot be overwritten by the replay of the retired entries
+            journal.commit();
+        } finally {
+            _flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch, and queues the writes which failed again.
+     * The failed writes are also appended to the journal again, so truncating the flushed segments keeps them.
+     *
+     * @param batch The batch to write.
+     * @return True if the whole batch was written, false if some writes were queued again.
+     */
+    private boolean write(List<PendingWrite> batch) {
+        var failed = _writer.write(batch);
+        if (failed.isEmpty())
+            return true;
+
+        var journal = _journal;
+        for (var pendingWrite : failed) {
+            var data = pendingWrite.data();
+            synchronized (data) {
+                data.markDirty(pendingWrite.fields());
+                if (journal != null)
+                    journal.append(data.getUuid(), data.getDirtyFields(), data.getValues());
+            }
+            _pending.putIfAbsent(data.getUuid(), data);
+        }
+        if (_oldestChangeAt == 0)
+            _oldestChangeAt = System.currentTimeMillis();
+        return false;
+    }
+}
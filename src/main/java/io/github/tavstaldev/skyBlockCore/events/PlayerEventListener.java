@@ -1,24 +1,21 @@
 package io.github.tavstaldev.skyBlockCore.events;
 
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.flags.StateFlag;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
-import com.sk89q.worldguard.protection.regions.RegionQuery;
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
-import io.github.tavstaldev.skyBlockCore.SkyFlags;
+import io.github.tavstaldev.skyBlockCore.managers.AfkPondRegionManager;
 import io.github.tavstaldev.skyBlockCore.managers.PlayerCacheManager;
+import io.github.tavstaldev.skyBlockCore.models.PlayerSession;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.time.LocalDateTime;
 
 /**
  * Handles player-related events such as movement, joining, and quitting.
@@ -49,55 +46,87 @@ public class PlayerEventListener implements Listener {
         if (!(player.getGameMode() == GameMode.ADVENTURE || player.getGameMode() == GameMode.SURVIVAL))
             return;
 
+        // Head rotations and steps within the checked block reuse the cached membership, only a new block or a region change looks up the AFK pond regions
+        var to = event.getTo();
         var playerId = player.getUniqueId();
-        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-        RegionQuery query = container.createQuery();
+        var session = PlayerCacheManager.getOrCreateSession(playerId);
+        var worldId = to.getWorld().getUID();
+        long block = AfkPondRegionManager.blockKey(to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        int generation = AfkPondRegionManager.getGeneration();
+        boolean inRegion;
+        if (session.isPondCheckCurrent(worldId, block, generation)) {
+            inRegion = session.getPondCheckResult();
+        } else {
+            inRegion = AfkPondRegionManager.isInAfkPond(to);
+            session.setPondCheck(worldId, block, generation, inRegion);
+        }
 
-        ApplicableRegionSet toRegions = query.getApplicableRegions(BukkitAdapter.adapt(event.getTo()));
-        var afkTime = PlayerCacheManager.getAfkTime(playerId);
-        if (toRegions.getRegions().stream().anyMatch(region -> region.getFlag(SkyFlags.AfkPondFlag) == StateFlag.State.ALLOW)) {
-            if (afkTime != null)
-                return;
-            PlayerCacheManager.addToAfkPond(playerId, LocalDateTime.now());
+        boolean inPond = session.getAfkPondEnteredAt() != PlayerSession.NONE;
+        if (inRegion == inPond)
+            return;
+        if (inRegion) {
+            PlayerCacheManager.addToAfkPond(playerId, System.currentTimeMillis());
             SkyBlockCore.Instance.sendLocalizedMsg(player, "AfkPond.Enter");
             return;
         }
-        if (afkTime != null) {
-            PlayerCacheManager.removeFromAfkPond(playerId);
-            SkyBlockCore.Instance.sendLocalizedMsg(player, "AfkPond.Exit");
-        }
+        PlayerCacheManager.removeFromAfkPond(playerId);
+        SkyBlockCore.Instance.sendLocalizedMsg(player, "AfkPond.Exit");
+    }
+
+    /**
+     * Handles the AsyncPlayerPreLoginEvent to load the player data before the player joins.
+     * The player data is loaded, or created when missing, with a single upsert,
+     * and stays pinned in memory until the player quits.
+     * Runs last, so logins denied by other plugins are not loaded.
+     *
+     * @param event The AsyncPlayerPreLoginEvent triggered before a player logs in.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        var playerId = event.getUniqueId();
+        if (SkyBlockCore.database().pinPlayer(playerId).isEmpty())
+            SkyBlockCore.logger().error(String.format("Failed to load the player data of %s...", playerId));
+    }
+
+    /**
+     * Handles the PlayerLoginEvent to release the player data of logins denied after the pre-login.
+     *
+     * @param event The PlayerLoginEvent triggered when a player logs in.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+            SkyBlockCore.database().unpinPlayer(event.getPlayer().getUniqueId());
     }
 
     /**
-     * Handles the PlayerJoinEvent to initialize player data and cache their join time.
+     * Handles the PlayerJoinEvent to cache the join time of the player.
      *
      * @param event The PlayerJoinEvent triggered when a player joins the server.
      */
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         var playerId = event.getPlayer().getUniqueId();
-        if (SkyBlockCore.database().getPlayerData(playerId).isEmpty())
-            SkyBlockCore.database().addPlayerData(playerId);
-
         var config = SkyBlockCore.config();
         if (config.gameTimeRewardEnabled) {
-            PlayerCacheManager.addJoinTime(playerId, LocalDateTime.now().plusMinutes(config.gameTimeRewardRequiredOnlineTime));
+            PlayerCacheManager.addJoinTime(playerId, System.currentTimeMillis() + config.gameTimeRewardRequiredOnlineTime * 60_000L);
         }
     }
 
     /**
      * Handles the PlayerQuitEvent to clean up player data from caches.
-     * Removes players from the AFK pond and clears their join time.
+     * Unpins the player's data and writes its buffered changes, removes them from the AFK pond and clears their join time.
      *
      * @param event The PlayerQuitEvent triggered when a player leaves the server.
      */
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
         var playerId = event.getPlayer().getUniqueId();
-        var afkTime = PlayerCacheManager.getAfkTime(playerId);
-        if (afkTime != null)
-            PlayerCacheManager.removeFromAfkPond(playerId);
+        SkyBlockCore.database().unpinPlayer(playerId);
 
-        PlayerCacheManager.removeJoinTime(playerId);
+        PlayerCacheManager.removeSession(playerId);
     }
 }
\ No newline at end of file
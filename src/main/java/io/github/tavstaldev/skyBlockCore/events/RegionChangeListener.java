@@ -0,0 +1,107 @@
+package io.github.tavstaldev.skyBlockCore.events;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.managers.AfkPondRegionManager;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Refreshes the index of the AFK pond regions when the WorldGuard regions may have changed.
+ * WorldGuard has no event for region changes, so its commands and the loading of worlds are watched instead.
+ * Only the commands changing the regions, run by senders with WorldGuard permissions, are taken into account,
+ * and the changes are debounced into a single delayed refresh.
+ */
+public class RegionChangeListener implements Listener {
+    private static final long REFRESH_DELAY_TICKS = 40L; // Region reloads complete in the background, so the index is refreshed after this delay.
+    private BukkitTask _pendingRefresh; // The scheduled refresh, null if none is waiting. Only used on the main thread.
+
+    /**
+     * Initializes the event listener by registering it with the plugin manager, and builds the first index.
+     */
+    public static void init() {
+        Bukkit.getPluginManager().registerEvents(new RegionChangeListener(), SkyBlockCore.Instance);
+        AfkPondRegionManager.refresh();
+    }
+
+    /**
+     * Handles the PlayerCommandPreprocessEvent to detect WorldGuard commands of players.
+     *
+     * @param event The PlayerCommandPreprocessEvent triggered when a player runs a command.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        if (AfkPondRegionManager.isRegionChangeCommand(event.getMessage()) && canChangeRegions(event.getPlayer()))
+            scheduleRefresh();
+    }
+
+    /**
+     * Handles the ServerCommandEvent to detect WorldGuard commands of the console.
+     *
+     * @param event The ServerCommandEvent triggered when the console runs a command.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent event) {
+        if (AfkPondRegionManager.isRegionChangeCommand(event.getCommand()) && canChangeRegions(event.getSender()))
+            scheduleRefresh();
+    }
+
+    /**
+     * Handles the WorldLoadEvent, the regions of the world are loaded with it.
+     *
+     * @param event The WorldLoadEvent triggered when a world is loaded.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        scheduleRefresh();
+    }
+
+    /**
+     * Handles the WorldUnloadEvent, the regions of the world are unloaded with it.
+     *
+     * @param event The WorldUnloadEvent triggered when a world is unloaded.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        scheduleRefresh();
+    }
+
+    /**
+     * Checks whether a sender may change WorldGuard regions. The permission is checked before the command runs,
+     * so a player without any WorldGuard permission cannot trigger a refresh.
+     *
+     * @param sender The sender of the command.
+     * @return True if the sender is the console, an operator or has a WorldGuard permission, false otherwise.
+     */
+    private boolean canChangeRegions(CommandSender sender) {
+        if (!(sender instanceof Player) || sender.isOp())
+            return true;
+        for (var permission : sender.getEffectivePermissions()) {
+            var node = permission.getPermission();
+            if (permission.getValue() && (node.equals("*") || node.startsWith("worldguard.")))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Schedules a refresh of the index once a background reload has likely completed.
+     * Changes made while a refresh is waiting are covered by it.
+     */
+    private void scheduleRefresh() {
+        if (_pendingRefresh != null)
+            return;
+        _pendingRefresh = Bukkit.getScheduler().runTaskLater(SkyBlockCore.Instance, () -> {
+            _pendingRefresh = null;
+            AfkPondRegionManager.refresh();
+        }, REFRESH_DELAY_TICKS);
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.tavstaldev.skyBlockCore.managers;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.SkyFlags;
+import io.github.tavstaldev.skyBlockCore.util.ChunkRegionIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers whether a location is inside an AFK pond region, and tracks when the cached answers become stale.
+ * Only a few regions allow the AFK pond flag, so they are indexed by the chunks they overlap in every world,
+ * and locations outside of them are answered by a single missed lookup instead of a WorldGuard region query.
+ * A refresh builds a new index off the main thread and swaps it in, then increases the region generation.
+ * The players cache the answer for the block they stand in together with the region generation,
+ * so increasing it invalidates every cached answer at once.
+ */
+public class AfkPondRegionManager {
+    // The region commands of WorldGuard, without the leading slash.
+    private static final Set<String> REGION_COMMANDS = Set.of("rg", "region", "regions");
+    // The general commands of WorldGuard, without the leading slash.
+    private static final Set<String> WORLDGUARD_COMMANDS = Set.of("wg", "worldguard");
+    // The region subcommands which change the area, the flags or the set of the regions.
+    private static final Set<String> REGION_CHANGE_SUBCOMMANDS = Set.of(
+            "define", "def", "d", "create", "redefine", "update", "move", "claim",
+            "remove", "rem", "delete", "del", "flag", "f",
+            "load", "reload", "migratedb", "migrateuuid", "migrateheights");
+    // The number of chunks a region may span to be indexed by chunk, larger regions are tested on every lookup.
+    private static final int MAX_INDEXED_CHUNKS = 1024;
+    // Increased whenever a new index was swapped in.
+    private static final AtomicInteger _generation = new AtomicInteger();
+    // Numbers the refreshes, so the index of an older refresh finishing late is not swapped in.
+    private static final AtomicLong _refreshes = new AtomicLong();
+    // The last refresh whose index was swapped in, guarded by the class.
+    private static long _appliedRefresh;
+    // The index of the AFK pond regions, empty until the first refresh completes.
+    private static volatile Map<UUID, ChunkRegionIndex> _index = Map.of();
+
+    /**
+     * Retrieves the current region generation.
+     *
+     * @return The region generation.
+     */
+    public static int getGeneration() {
+        return _generation.get();
+    }
+
+    /**
+     * Rebuilds the index of the AFK pond regions, after the regions may have changed. Called on the main thread.
+     * The region managers of the worlds are collected on the main thread, the regions are indexed asynchronously.
+     * Lookups use the previous index until the new one is swapped in.
+     */
+    public static void refresh() {
+        long refresh = _refreshes.incrementAndGet();
+        Map<UUID, RegionManager> managers = new HashMap<>();
+        try {
+            var container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+            for (var world : Bukkit.getWorlds()) {
+                var regions = container.get(BukkitAdapter.adapt(world));
+                if (regions != null)
+                    managers.put(world.getUID(), regions);
+            }
+        }
+        catch (Exception ex) {
+            SkyBlockCore.logger().error(String.format("Unknown error happened while indexing the AFK pond regions...\n%s", ex.getMessage()));
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(SkyBlockCore.Instance, () -> {
+            var index = buildIndexes(managers);
+            synchronized (AfkPondRegionManager.class) {
+                if (refresh < _appliedRefresh)
+                    return;
+                _appliedRefresh = refresh;
+                _index = index;
+            }
+            // Increased after the swap, so the answers cached from now on come from the new index
+            _generation.incrementAndGet();
+        });
+    }
+
+    /**
+     * Checks whether a location is inside a region allowing the AFK pond flag.
+     *
+     * @param location The location.
+     * @return True if the location is in an AFK pond, false otherwise.
+     */
+    public static boolean isInAfkPond(Location location) {
+        var world = location.getWorld();
+        if (world == null)
+            return false;
+        var index = _index.get(world.getUID());
+        return index != null && index.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Indexes the regions allowing the AFK pond flag. The region managers of WorldGuard can be read from any thread.
+     *
+     * @param managers The region managers of the loaded worlds, by the unique identifier of the world.
+     * @return The indexes of the worlds having AFK pond regions, by the unique identifier of the world.
+     */
+    private static Map<UUID, ChunkRegionIndex> buildIndexes(Map<UUID, RegionManager> managers) {
+        Map<UUID, ChunkRegionIndex> indexes = new HashMap<>();
+        try {
+            for (var entry : managers.entrySet()) {
+                var builder = ChunkRegionIndex.builder(MAX_INDEXED_CHUNKS);
+                for (var region : entry.getValue().getRegions().values()) {
+                    if (region.getFlag(SkyFlags.AfkPondFlag) == StateFlag.State.ALLOW)
+                        addRegion(builder, region);
+                }
+                if (!builder.isEmpty())
+                    indexes.put(entry.getKey(), builder.build());
+            }
+        }
+        catch (Exception ex) {
+            SkyBlockCore.logger().error(String.format("Unknown error happened while indexing the AFK pond regions...\n%s", ex.getMessage()));
+        }
+        return indexes;
+    }
+
+    /**
+     * Adds the area of a region to an index.
+     * Cuboid and polygonal regions are tested by the index itself, other shapes are tested by WorldGuard.
+     *
+     * @param builder The builder of the index.
+     * @param region  The region.
+     */
+    private static void addRegion(ChunkRegionIndex.Builder builder, ProtectedRegion region) {
+        // The global region has no area, WorldGuard never returns it among the applicable regions
+        if (region.getType() == RegionType.GLOBAL)
+            return;
+
+        var min = region.getMinimumPoint();
+        var max = region.getMaximumPoint();
+        if (region instanceof ProtectedCuboidRegion) {
+            builder.addBox(min.x(), min.y(), min.z(), max.x(), max.y(), max.z());
+            return;
+        }
+        if (region instanceof ProtectedPolygonalRegion) {
+            var points = region.getPoints();
+            int[] xs = new int[points.size()];
+            int[] zs = new int[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                xs[i] = points.get(i).x();
+                zs[i] = points.get(i).z();
+            }
+            builder.addPolygon(xs, zs, min.y(), max.y());
+            return;
+        }
+        builder.add((x, y, z) -> region.contains(x, y, z), min.x(), min.z(), max.x(), max.z());
+    }
+
+    /**
+     * Checks whether a command line runs a WorldGuard command which changes or reloads the regions.
+     * Commands which only read the regions, like the region info, are ignored.
+     *
+     * @param commandLine The command line, with or without the leading slash.
+     * @return True if the command can change the regions, false otherwise.
+     */
+    public static boolean isRegionChangeCommand(String commandLine) {
+        String[] args = (commandLine.startsWith("/") ? commandLine.substring(1) : commandLine).trim().split("\\s+", 3);
+        String label = args[0].toLowerCase(Locale.ROOT);
+        if (label.startsWith("worldguard:"))
+            label = label.substring("worldguard:".length());
+        if (args.length < 2)
+            return false;
+        String subcommand = args[1].toLowerCase(Locale.ROOT);
+        if (REGION_COMMANDS.contains(label))
+            return REGION_CHANGE_SUBCOMMANDS.contains(subcommand);
+        return WORLDGUARD_COMMANDS.contains(label) && subcommand.equals("reload");
+    }
+
+    /**
+     * Packs the coordinates of a block into a single value.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return The packed coordinates, 26 bits for x and z and 12 bits for y.
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | ((long) y & 0xFFF);
+    }
+}
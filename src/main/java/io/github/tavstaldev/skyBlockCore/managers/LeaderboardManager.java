@@ -0,0 +1,293 @@
+package io.github.tavstaldev.skyBlockCore.managers;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.database.LeaderboardHook;
+import io.github.tavstaldev.skyBlockCore.models.LeaderboardType;
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import io.github.tavstaldev.skyBlockCore.util.OrderStatisticTree;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the level and experience rankings of every stored player in memory.
+ * The rankings are seeded by a single scan of the players table at startup and updated on every change
+ * of a player's level or experience, so the top players and the rank of any player, online or offline,
+ * are served without any query.
+ */
+public class LeaderboardManager {
+    // Stores the current score of every ranked player.
+    private static final Map<UUID, Score> _scores = new ConcurrentHashMap<>();
+    // Stores the rankings by type.
+    private static final Map<LeaderboardType, Ranking> _rankings = new EnumMap<>(LeaderboardType.class);
+
+    static {
+        for (var type : LeaderboardType.values()) {
+            _rankings.put(type, new Ranking(type));
+        }
+    }
+
+    /**
+     * Passes the score changes of a database to the rankings.
+     */
+    public static final LeaderboardHook HOOK = new LeaderboardHook() {
+        @Override
+        public void seed(UUID playerId, int level, int experience) {
+            LeaderboardManager.seed(playerId, level, experience);
+        }
+
+        @Override
+        public void update(PlayerData data) {
+            LeaderboardManager.update(data);
+        }
+
+        @Override
+        public void update(UUID playerId, PlayerDataField field, int value) {
+            LeaderboardManager.update(playerId, field, value);
+        }
+
+        @Override
+        public void remove(UUID playerId) {
+            LeaderboardManager.remove(playerId);
+        }
+    };
+
+    /**
+     * Adds the stored score of a player, read by the startup scan.
+     * Scores changed since the scan started are newer, so they are kept.
+     *
+     * @param playerId   The unique identifier of the player.
+     * @param level      The stored level of the player.
+     * @param experience The stored experience of the player.
+     */
+    public static void seed(UUID playerId, int level, int experience) {
+        if (!SkyBlockCore.config().leaderboardEnabled)
+            return;
+        _scores.computeIfAbsent(playerId, key -> {
+            var score = new Score(key, level, experience);
+            for (var ranking : _rankings.values()) {
+                ranking.replace(null, score);
+            }
+            return score;
+        });
+    }
+
+    /**
+     * Updates the score of a player from its data.
+     *
+     * @param data The player data.
+     */
+    public static void update(PlayerData data) {
+        set(data.getUuid(), data.getLevel(), data.getExperience());
+    }
+
+    /**
+     * Updates a single field of a ranked player's score.
+     * Players who are not ranked yet are left to the startup scan, because their other score is unknown.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param field    The changed field. Fields which are not ranked are ignored.
+     * @param value    The new value of the field.
+     */
+    public static void update(UUID playerId, PlayerDataField field, int value) {
+        if (!SkyBlockCore.config().leaderboardEnabled)
+            return;
+        if (field != PlayerDataField.LEVEL && field != PlayerDataField.EXPERIENCE)
+            return;
+        _scores.computeIfPresent(playerId, (key, current) -> {
+            var score = field == PlayerDataField.LEVEL
+                    ? new Score(key, value, current.experience())
+                    : new Score(key, current.level(), value);
+            for (var ranking : _rankings.values()) {
+                ranking.replace(current, score);
+            }
+            return score;
+        });
+    }
+
+    /**
+     * Removes a player whose data was deleted from the rankings.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void remove(UUID playerId) {
+        _scores.computeIfPresent(playerId, (key, current) -> {
+            for (var ranking : _rankings.values()) {
+                ranking.replace(current, null);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the player at a position of a ranking.
+     *
+     * @param type     The ranking.
+     * @param position The position, starting at 1. Only the configured number of top positions is available.
+     * @return The player at the position, or null if there is none.
+     */
+    public static @Nullable TopEntry getTop(LeaderboardType type, int position) {
+        var top = _rankings.get(type).getTop();
+        if (position < 1 || position > top.size())
+            return null;
+        return top.get(position - 1);
+    }
+
+    /**
+     * Retrieves the rank of a player in a ranking.
+     *
+     * @param type     The ranking.
+     * @param playerId The unique identifier of the player.
+     * @return The rank of the player starting at 1, or 0 if the player is not ranked.
+     */
+    public static int getRank(LeaderboardType type, UUID playerId) {
+        var score = _scores.get(playerId);
+        if (score == null)
+            return 0;
+        return _rankings.get(type).getRank(score);
+    }
+
+    /**
+     * Retrieves the number of ranked players.
+     *
+     * @return The number of players in every ranking.
+     */
+    public static int getRankedCount() {
+        return _scores.size();
+    }
+
+    /**
+     * Sets the score of a player.
+     *
+     * @param playerId   The unique identifier of the player.
+     * @param level      The level of the player.
+     * @param experience The experience of the player.
+     */
+    private static void set(UUID playerId, int level, int experience) {
+        if (!SkyBlockCore.config().leaderboardEnabled)
+            return;
+        _scores.compute(playerId, (key, current) -> {
+            if (current != null && current.level() == level && current.experience() == experience)
+                return current;
+            var score = new Score(key, level, experience);
+            for (var ranking : _rankings.values()) {
+                ranking.replace(current, score);
+            }
+            return score;
+        });
+    }
+
+    /**
+     * The score of a ranked player.
+     *
+     * @param playerId   The unique identifier of the player.
+     * @param level      The level of the player.
+     * @param experience The experience of the player.
+     */
+    private record Score(UUID playerId, int level, int experience) {}
+
+    /**
+     * A player at a top position of a ranking.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param name     The name of the player, or null if the server has never seen the player.
+     * @param value    The ranked value of the player.
+     */
+    public record TopEntry(UUID playerId, @Nullable String name, int value) {}
+
+    /**
+     * The sorted scores of a single ranking, with a cached copy of its top positions.
+     * The scores are kept in an order-statistic tree, so both updates and rank queries take O(log n).
+     */
+    private static class Ranking {
+        private final LeaderboardType _type; // The type of the ranking.
+        private final Comparator<Score> _comparator; // The order of the scores, the best first.
+        private final OrderStatisticTree<Score> _sorted; // Every score, guarded by this ranking.
+        private volatile List<TopEntry> _top = List.of(); // The cached top positions.
+        private volatile Score _lastTop; // The lowest score of the cached top positions.
+        private volatile int _topLimit; // The number of positions the cached top positions were built for.
+        private volatile boolean _dirty = true; // Whether the cached top positions are outdated.
+
+        /**
+         * Constructs a new Ranking.
+         *
+         * @param type The type of the ranking.
+         */
+        private Ranking(LeaderboardType type) {
+            _type = type;
+            _comparator = (a, b) -> {
+                int result = type.compare(a.level(), a.experience(), b.level(), b.experience());
+                return result != 0 ? result : a.playerId().compareTo(b.playerId());
+            };
+            _sorted = new OrderStatisticTree<>(_comparator);
+        }
+
+        /**
+         * Replaces the score of a player, outdating the top positions when either score is among them.
+         *
+         * @param oldScore The previous score, or null if the player was not ranked.
+         * @param newScore The new score, or null to remove the player.
+         */
+        private void replace(@Nullable Score oldScore, @Nullable Score newScore) {
+            synchronized (this) {
+                if (oldScore != null)
+                    _sorted.remove(oldScore);
+                if (newScore != null)
+                    _sorted.add(newScore);
+            }
+            if (!_dirty && (isInTop(oldScore) || isInTop(newScore)))
+                _dirty = true;
+        }
+
+        /**
+         * Checks whether a score is at or above the lowest cached top position.
+         *
+         * @param score The score.
+         * @return True if the score affects the top positions, false otherwise.
+         */
+        private boolean isInTop(@Nullable Score score) {
+            if (score == null)
+                return false;
+            var lastTop = _lastTop;
+            return lastTop == null || _top.size() < _topLimit || _comparator.compare(score, lastTop) <= 0;
+        }
+
+        /**
+         * Retrieves the top positions, rebuilding them if they are outdated.
+         *
+         * @return The top positions, the best first.
+         */
+        private List<TopEntry> getTop() {
+            int size = SkyBlockCore.config().leaderboardSize;
+            if (!_dirty && _topLimit == size)
+                return _top;
+
+            List<Score> scores;
+            synchronized (this) {
+                _dirty = false;
+                scores = _sorted.first(size);
+            }
+            List<TopEntry> top = new ArrayList<>(scores.size());
+            for (var score : scores) {
+                top.add(new TopEntry(score.playerId(), Bukkit.getOfflinePlayer(score.playerId()).getName(), _type.getValue(score.level(), score.experience())));
+            }
+            _lastTop = scores.isEmpty() ? null : scores.get(scores.size() - 1);
+            _topLimit = size;
+            _top = Collections.unmodifiableList(top);
+            return _top;
+        }
+
+        /**
+         * Retrieves the rank of a score.
+         *
+         * @param score The score.
+         * @return The rank starting at 1.
+         */
+        private synchronized int getRank(Score score) {
+            return _sorted.countBefore(score) + 1;
+        }
+    }
+}
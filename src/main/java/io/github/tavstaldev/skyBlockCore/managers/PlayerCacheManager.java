@@ -1,21 +1,97 @@
 package io.github.tavstaldev.skyBlockCore.managers;
 
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.models.PlayerSession;
+import io.github.tavstaldev.skyBlockCore.models.config.AfkPondReward;
+import io.github.tavstaldev.skyBlockCore.util.TimerWheel;
 import org.jetbrains.annotations.Nullable;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjLongConsumer;
 
 /**
  * Manages player-related data such as AFK pond status and join times.
- * Provides methods to add, remove, and retrieve player data.
+ * Every online player has a single session, stored in a concurrent map, whose fields are updated atomically,
+ * so the async tasks and the main thread can read and change them at the same time.
+ * Iterating the sessions never blocks and never fails on concurrent changes, it visits a snapshot rebuilt when a player joins or quits.
+ * Times are epoch milliseconds, converted to dates only when they are displayed.
  */
 public class PlayerCacheManager {
-    // Stores the players currently in the AFK pond and their respective times.
-    private static final Map<UUID, LocalDateTime> _playersInAfkPond = new HashMap<>();
-    private static final Map<UUID, Map<String, LocalDateTime>> _playersAfkRewards = new HashMap<>();
-    // Stores the join times of players.
-    private static final Map<UUID, LocalDateTime> _playerNextGameRewardTime = new HashMap<>();
+    // Stores the sessions of the players.
+    private static final Map<UUID, PlayerSession> _sessions = new ConcurrentHashMap<>();
+    // An immutable snapshot of the sessions, iterated by the periodic tasks without allocating an iterator of the map.
+    private static volatile List<PlayerSession> _sessionSnapshot = List.of();
+    // Counts the players in the AFK pond, so the AFK pond task can skip its run without iterating the sessions.
+    private static final AtomicInteger _afkPondSize = new AtomicInteger();
+    // Schedules the AFK pond rewards by due time, also guards the scheduled rewards of the players.
+    private static final TimerWheel<AfkRewardTimer> _afkRewardTimers = new TimerWheel<>(1000L, 512, System.currentTimeMillis());
+    // Stores the scheduled rewards of the players in the AFK pond, so they can be cancelled when they leave.
+    private static final Map<UUID, AfkRewardSchedule> _playersAfkRewards = new HashMap<>();
+
+    //#region Sessions
+
+    /**
+     * Retrieves the session of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The session of the player, or null if the player has none.
+     */
+    public static @Nullable PlayerSession getSession(UUID playerId) {
+        return _sessions.get(playerId);
+    }
+
+    /**
+     * Retrieves the session of a player, creating it if the player has none.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The session of the player.
+     */
+    public static PlayerSession getOrCreateSession(UUID playerId) {
+        var session = _sessions.get(playerId);
+        if (session != null)
+            return session;
+        session = _sessions.computeIfAbsent(playerId, PlayerSession::new);
+        updateSessionSnapshot();
+        return session;
+    }
+
+    /**
+     * Retrieves a snapshot of the sessions of every player.
+     * The snapshot is immutable and taken when the sessions were last added or removed,
+     * so a player who joined or quit meanwhile may or may not be in it.
+     *
+     * @return The sessions.
+     */
+    public static List<PlayerSession> getSessions() {
+        return _sessionSnapshot;
+    }
+
+    /**
+     * Removes the session of a player, cancelling the scheduled AFK pond rewards.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void removeSession(UUID playerId) {
+        var session = _sessions.remove(playerId);
+        if (session == null)
+            return;
+        updateSessionSnapshot();
+        if (session.leaveAfkPond())
+            leftAfkPond(playerId);
+    }
+
+    /**
+     * Takes a new snapshot of the sessions after a session was added or removed.
+     * The snapshots are taken one at a time, so the last one published contains the latest change.
+     */
+    private static void updateSessionSnapshot() {
+        synchronized (_sessions) {
+            _sessionSnapshot = List.copyOf(_sessions.values());
+        }
+    }
+    //#endregion
 
     //#region Afk Pond
 
@@ -23,15 +99,31 @@ public class PlayerCacheManager {
      * Adds a player to the AFK pond with the specified time.
      *
      * @param playerId The unique identifier of the player.
-     * @param time     The time the player entered the AFK pond.
+     * @param time     The time the player entered the AFK pond in epoch milliseconds.
      */
-    public static void addToAfkPond(UUID playerId, LocalDateTime time) {
+    public static void addToAfkPond(UUID playerId, long time) {
+        addToAfkPond(playerId, time, SkyBlockCore.config().afkPondRewards);
+    }
 
-        _playersInAfkPond.put(playerId, time);
-        var config = SkyBlockCore.config();
-        for (var reward : config.afkPondRewards) {
-            addAfkRewardTime(playerId, reward.command, time.plusMinutes(reward.interval));
+    /**
+     * Adds a player to the AFK pond with the specified time and schedules the given rewards.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param time     The time the player entered the AFK pond in epoch milliseconds.
+     * @param rewards  The rewards of the AFK pond.
+     */
+    static void addToAfkPond(UUID playerId, long time, Collection<AfkPondReward> rewards) {
+        var session = getOrCreateSession(playerId);
+        if (!session.enterAfkPond(time))
+            return;
+        _afkPondSize.incrementAndGet();
+        // The session might have been removed meanwhile, a player who quit must not stay counted in the pond
+        if (_sessions.get(playerId) != session) {
+            if (session.leaveAfkPond())
+                _afkPondSize.decrementAndGet();
+            return;
         }
+        scheduleAfkRewards(playerId, rewards);
     }
 
     /**
@@ -40,60 +132,180 @@ public class PlayerCacheManager {
      * @param playerId The unique identifier of the player.
      */
     public static void removeFromAfkPond(UUID playerId) {
-        _playersInAfkPond.remove(playerId);
-        clearAfkRewardTimes(playerId);
+        var session = _sessions.get(playerId);
+        if (session != null && session.leaveAfkPond())
+            leftAfkPond(playerId);
     }
 
     /**
      * Retrieves the time a player entered the AFK pond.
      *
      * @param playerId The unique identifier of the player.
-     * @return The time the player entered the AFK pond, or null if the player is not in the pond.
+     * @return The time the player entered the AFK pond in epoch milliseconds, or {@link PlayerSession#NONE} if the player is not in the pond.
+     */
+    public static long getAfkTime(UUID playerId) {
+        var session = _sessions.get(playerId);
+        return session == null ? PlayerSession.NONE : session.getAfkPondEnteredAt();
+    }
+
+    /**
+     * Checks whether any player is in the AFK pond.
+     *
+     * @return True if at least one player is in the pond, false otherwise.
+     */
+    public static boolean hasPlayersInAfkPond() {
+        return _afkPondSize.get() > 0;
+    }
+
+    /**
+     * Retrieves the number of players in the AFK pond.
+     *
+     * @return The number of players in the pond.
      */
-    public static @Nullable LocalDateTime getAfkTime(UUID playerId) {
-        return _playersInAfkPond.get(playerId);
+    static int getAfkPondSize() {
+        return _afkPondSize.get();
     }
 
     /**
-     * Retrieves an unmodifiable map of players currently in the AFK pond and their respective times.
+     * Retrieves the number of scheduled AFK pond rewards.
      *
-     * @return An unmodifiable map of players in the AFK pond.
+     * @return The number of rewards waiting in the timer wheel.
      */
-    public static Map<UUID, LocalDateTime> getPlayersInAfkPond() {
-        return Collections.unmodifiableMap(_playersInAfkPond);
+    static int getScheduledAfkRewardCount() {
+        synchronized (_afkRewardTimers) {
+            return _afkRewardTimers.size();
+        }
     }
 
-    public static void addAfkRewardTime(UUID playerId, String rewardKey, LocalDateTime time) {
-       if  (_playersAfkRewards.containsKey(playerId)) {
-              _playersAfkRewards.get(playerId).put(rewardKey, time);
-         } else {
-              Map<String, LocalDateTime> rewards = new HashMap<>();
-              rewards.put(rewardKey, time);
-              _playersAfkRewards.put(playerId, rewards);
-       }
+    /**
+     * Removes and reschedules the AFK pond rewards which became due.
+     * Only the due rewards are visited, each is scheduled again for the end of its next interval.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The due rewards, an empty list if none were due.
+     */
+    public static List<AfkRewardTimer> pollDueAfkRewards(long now) {
+        List<AfkRewardTimer> due = null;
+        synchronized (_afkRewardTimers) {
+            for (var timeout : _afkRewardTimers.advance(now)) {
+                var timer = timeout.getValue();
+                // A player who left the pond meanwhile gets no more rewards
+                if (getAfkTime(timer.playerId()) == PlayerSession.NONE) {
+                    cancelAfkRewards(timer.playerId());
+                    continue;
+                }
+                if (due == null)
+                    due = new ArrayList<>();
+                due.add(timer);
+                _afkRewardTimers.reschedule(timeout, now + timer.reward().interval * 60_000L);
+            }
+        }
+        return due == null ? List.of() : due;
     }
 
-    public static void removeAfkRewardTime(UUID playerId, String rewardKey) {
-        Map<String, LocalDateTime> rewards = _playersAfkRewards.get(playerId);
-        if (rewards != null) {
-            rewards.remove(rewardKey);
-            if (rewards.isEmpty()) {
-                _playersAfkRewards.remove(playerId);
+    /**
+     * Removes and reschedules the AFK pond rewards which became due, grouped by player.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The commands of the due rewards by player, an empty map if none were due.
+     */
+    public static Map<UUID, Set<String>> pollDueAfkRewardCommands(long now) {
+        var dueRewards = pollDueAfkRewards(now);
+        if (dueRewards.isEmpty())
+            return Map.of();
+        Map<UUID, Set<String>> commands = new HashMap<>();
+        for (var timer : dueRewards) {
+            commands.computeIfAbsent(timer.playerId(), key -> new HashSet<>()).add(timer.reward().command);
+        }
+        return commands;
+    }
+
+    /**
+     * Visits the players in the AFK pond with the time they entered it.
+     * An indexed loop over the snapshot of the sessions, so a tick allocates no iterator.
+     *
+     * @param visitor Receives the unique identifier of the player and the time they entered the pond in epoch milliseconds.
+     */
+    public static void forEachInAfkPond(ObjLongConsumer<UUID> visitor) {
+        var sessions = _sessionSnapshot;
+        for (int i = 0; i < sessions.size(); i++) {
+            var session = sessions.get(i);
+            long afkTime = session.getAfkPondEnteredAt();
+            if (afkTime != PlayerSession.NONE)
+                visitor.accept(session.getUuid(), afkTime);
+        }
+    }
+
+    /**
+     * Schedules the rewards of a player who entered the AFK pond.
+     * The state of the session is read again under the lock, so a player who left the pond meanwhile gets no rewards
+     * and a player who entered it again gets the rewards of the latest stay.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param rewards  The rewards of the AFK pond.
+     */
+    private static void scheduleAfkRewards(UUID playerId, Collection<AfkPondReward> rewards) {
+        synchronized (_afkRewardTimers) {
+            long enteredAt = getAfkTime(playerId);
+            if (enteredAt == PlayerSession.NONE) {
+                cancelAfkRewards(playerId);
+                return;
+            }
+            var schedule = _playersAfkRewards.get(playerId);
+            if (schedule != null && schedule.enteredAt() == enteredAt)
+                return;
+            cancelAfkRewards(playerId);
+            List<TimerWheel.Timeout<AfkRewardTimer>> timeouts = new ArrayList<>(rewards.size());
+            for (var reward : rewards) {
+                timeouts.add(_afkRewardTimers.schedule(new AfkRewardTimer(playerId, reward), enteredAt + reward.interval * 60_000L));
             }
+            _playersAfkRewards.put(playerId, new AfkRewardSchedule(enteredAt, timeouts));
         }
     }
 
-    public static void clearAfkRewardTimes(UUID playerId) {
-        _playersAfkRewards.remove(playerId);
+    /**
+     * Updates the pond after a player left it, cancelling the scheduled rewards.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    private static void leftAfkPond(UUID playerId) {
+        _afkPondSize.decrementAndGet();
+        synchronized (_afkRewardTimers) {
+            // A player who entered the pond again meanwhile keeps the rewards scheduled for the new stay
+            if (getAfkTime(playerId) == PlayerSession.NONE)
+                cancelAfkRewards(playerId);
+        }
     }
 
-    public static @Nullable LocalDateTime getAfkRewardTime(UUID playerId, String rewardKey) {
-        Map<String, LocalDateTime> rewards = _playersAfkRewards.get(playerId);
-        if (rewards != null) {
-            return rewards.get(rewardKey);
+    /**
+     * Cancels the scheduled rewards of a player. The caller has to hold the lock of the timer wheel.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    private static void cancelAfkRewards(UUID playerId) {
+        var schedule = _playersAfkRewards.remove(playerId);
+        if (schedule == null)
+            return;
+        for (var timeout : schedule.timeouts()) {
+            _afkRewardTimers.cancel(timeout);
         }
-        return null;
     }
+
+    /**
+     * The scheduled AFK pond rewards of a player.
+     *
+     * @param enteredAt The time the player entered the AFK pond in epoch milliseconds.
+     * @param timeouts  The scheduled rewards.
+     */
+    private record AfkRewardSchedule(long enteredAt, List<TimerWheel.Timeout<AfkRewardTimer>> timeouts) {}
+
+    /**
+     * A scheduled AFK pond reward of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param reward   The reward.
+     */
+    public record AfkRewardTimer(UUID playerId, AfkPondReward reward) {}
     //#endregion
 
     //#region Join Time
@@ -102,10 +314,10 @@ public class PlayerCacheManager {
      * Adds a player's join time.
      *
      * @param playerId The unique identifier of the player.
-     * @param time     The time the player joined.
+     * @param time     The time of the next game time reward of the player in epoch milliseconds.
      */
-    public static void addJoinTime(UUID playerId, LocalDateTime time) {
-        _playerNextGameRewardTime.put(playerId, time);
+    public static void addJoinTime(UUID playerId, long time) {
+        getOrCreateSession(playerId).setNextGameRewardTime(time);
     }
 
     /**
@@ -114,28 +326,45 @@ public class PlayerCacheManager {
      * @param playerId The unique identifier of the player.
      */
     public static void removeJoinTime(UUID playerId) {
-        if (!_playerNextGameRewardTime.containsKey(playerId))
-            return;
-        _playerNextGameRewardTime.remove(playerId);
+        var session = _sessions.get(playerId);
+        if (session != null)
+            session.setNextGameRewardTime(PlayerSession.NONE);
     }
 
     /**
      * Retrieves the join time of a player.
      *
      * @param playerId The unique identifier of the player.
-     * @return The join time of the player, or null if no join time is recorded.
+     * @return The time of the next game time reward of the player in epoch milliseconds, or {@link PlayerSession#NONE} if no join time is recorded.
      */
-    public static @Nullable LocalDateTime getJoinTime(UUID playerId) {
-        return _playerNextGameRewardTime.get(playerId);
+    public static long getJoinTime(UUID playerId) {
+        var session = _sessions.get(playerId);
+        return session == null ? PlayerSession.NONE : session.getNextGameRewardTime();
     }
 
     /**
-     * Retrieves an unmodifiable map of players and their respective join times.
+     * Claims the game time rewards which became due, and schedules the next reward of each player.
+     * Every claim is atomic, so a reward is claimed once even while the player quits or rejoins meanwhile.
      *
-     * @return An unmodifiable map of players' join times.
+     * @param now      The current time in epoch milliseconds.
+     * @param interval The time between two rewards in milliseconds.
+     * @return The players whose reward was claimed, or null if none was due, so a tick without rewards allocates nothing.
      */
-    public static Map<UUID, LocalDateTime> getPlayersJoinTime() {
-        return Collections.unmodifiableMap(_playerNextGameRewardTime);
+    public static @Nullable Set<UUID> claimDueGameRewards(long now, long interval) {
+        Set<UUID> rewarded = null;
+        var sessions = _sessionSnapshot;
+        for (int i = 0; i < sessions.size(); i++) {
+            var session = sessions.get(i);
+            long rewardTime = session.getNextGameRewardTime();
+            if (rewardTime == PlayerSession.NONE || now < rewardTime)
+                continue;
+            if (!session.claimGameReward(rewardTime, now + interval))
+                continue;
+            if (rewarded == null)
+                rewarded = new HashSet<>();
+            rewarded.add(session.getUuid());
+        }
+        return rewarded;
     }
     //#endregion
-}
\ No newline at end of file
+}
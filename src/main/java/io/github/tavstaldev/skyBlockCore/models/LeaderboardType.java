@@ -0,0 +1,71 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+/**
+ * Represents the rankings kept by the leaderboard.
+ * Ties are broken by the other score, so players with the same level are ordered by their experience.
+ */
+public enum LeaderboardType {
+    LEVEL("level"),
+    EXPERIENCE("experience");
+
+    private final String key; // The name used in placeholders.
+
+    /**
+     * Constructs a new LeaderboardType.
+     *
+     * @param key The name used in placeholders.
+     */
+    LeaderboardType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the name of the ranking used in placeholders.
+     *
+     * @return The placeholder name.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the ranked value of a player.
+     *
+     * @param level      The level of the player.
+     * @param experience The experience of the player.
+     * @return The value shown for the player in this ranking.
+     */
+    public int getValue(int level, int experience) {
+        return this == LEVEL ? level : experience;
+    }
+
+    /**
+     * Compares the scores of two players, the better score first.
+     *
+     * @param level           The level of the first player.
+     * @param experience      The experience of the first player.
+     * @param otherLevel      The level of the second player.
+     * @param otherExperience The experience of the second player.
+     * @return A negative number if the first player ranks higher, a positive number if lower, 0 if equal.
+     */
+    public int compare(int level, int experience, int otherLevel, int otherExperience) {
+        int primary = this == LEVEL ? Integer.compare(otherLevel, level) : Integer.compare(otherExperience, experience);
+        if (primary != 0)
+            return primary;
+        return this == LEVEL ? Integer.compare(otherExperience, experience) : Integer.compare(otherLevel, level);
+    }
+
+    /**
+     * Finds a ranking by its placeholder name.
+     *
+     * @param key The placeholder name, case-insensitive.
+     * @return The ranking, or null if no ranking has that name.
+     */
+    public static LeaderboardType fromKey(String key) {
+        for (var type : values()) {
+            if (type.key.equalsIgnoreCase(key))
+                return type;
+        }
+        return null;
+    }
+}
@@ -1,10 +1,12 @@
 package io.github.tavstaldev.skyBlockCore.models;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents the data associated with a player in the SkyBlockCore plugin.
- * This includes experience, level, factory-related statistics, and reward statuses.
+ * This includes experience, level, factory-related statistics, and reward claim periods.
+ * The setters, the patches and the rebase hold the monitor of the instance, so a change is never lost to a concurrent rebase.
  */
 public class PlayerData {
     private final UUID uuid; // The unique identifier of the player.
@@ -18,9 +20,13 @@ public class PlayerData {
     private int ongoingFactories; // The number of factories currently in progress.
     private int factoryResearch; // The player's factory research progress.
 
-    private boolean dailyRewardClaimed; // Whether the player has claimed the daily reward.
-    private boolean weeklyRewardClaimed; // Whether the player has claimed the weekly reward.
-    private boolean hourlyRewardClaimed; // Whether the player has claimed the hourly reward.
+    private int dailyRewardPeriod; // The daily period in which the player last claimed the daily reward.
+    private int weeklyRewardPeriod; // The weekly period in which the player last claimed the weekly reward.
+    private int hourlyRewardPeriod; // The hourly period in which the player last claimed the hourly reward.
+
+    private final AtomicInteger dirtyFields = new AtomicInteger(); // Mask of the fields changed since the last save.
+    private final int[] savedValues = new int[PlayerDataField.values().length]; // The values of the stored row by field ordinal.
+    private long version; // The version of the stored row the saved values belong to.
 
     /**
      * Constructs a new PlayerData instance with default values.
@@ -36,9 +42,10 @@ public class PlayerData {
         this.maxFactories = 3;
         this.ongoingFactories = 0;
         this.factoryResearch = 0;
-        this.dailyRewardClaimed = false;
-        this.weeklyRewardClaimed = false;
-        this.hourlyRewardClaimed = false;
+        this.dailyRewardPeriod = RewardPeriod.NEVER;
+        this.weeklyRewardPeriod = RewardPeriod.NEVER;
+        this.hourlyRewardPeriod = RewardPeriod.NEVER;
+        markSaved(PlayerDataField.ALL_MASK, getValues(), 0);
     }
 
     /**
@@ -52,11 +59,11 @@ public class PlayerData {
      * @param maxFactories        The maximum number of factories the player can own.
      * @param ongoingFactories    The number of factories currently in progress.
      * @param factoryResearch     The player's factory research progress.
-     * @param dailyRewardClaimed  Whether the player has claimed the daily reward.
-     * @param weeklyRewardClaimed Whether the player has claimed the weekly reward.
-     * @param hourlyRewardClaimed Whether the player has claimed the hourly reward.
+     * @param dailyRewardPeriod   The daily period in which the player last claimed the daily reward.
+     * @param weeklyRewardPeriod  The weekly period in which the player last claimed the weekly reward.
+     * @param hourlyRewardPeriod  The hourly period in which the player last claimed the hourly reward.
      */
-    public PlayerData(UUID uuid, int experience, int level, int factories, int completedFactories, int maxFactories, int ongoingFactories, int factoryResearch, boolean dailyRewardClaimed, boolean weeklyRewardClaimed, boolean hourlyRewardClaimed) {
+    public PlayerData(UUID uuid, int experience, int level, int factories, int completedFactories, int maxFactories, int ongoingFactories, int factoryResearch, int dailyRewardPeriod, int weeklyRewardPeriod, int hourlyRewardPeriod) {
         this.uuid = uuid;
         this.experience = experience;
         this.level = level;
@@ -65,9 +72,10 @@ public class PlayerData {
         this.maxFactories = maxFactories;
         this.ongoingFactories = ongoingFactories;
         this.factoryResearch = factoryResearch;
-        this.dailyRewardClaimed = dailyRewardClaimed;
-        this.weeklyRewardClaimed = weeklyRewardClaimed;
-        this.hourlyRewardClaimed = hourlyRewardClaimed;
+        this.dailyRewardPeriod = dailyRewardPeriod;
+        this.weeklyRewardPeriod = weeklyRewardPeriod;
+        this.hourlyRewardPeriod = hourlyRewardPeriod;
+        markSaved(PlayerDataField.ALL_MASK, getValues(), 0);
     }
 
     /**
@@ -93,8 +101,9 @@ public class PlayerData {
      *
      * @param experience The new experience value.
      */
-    public void setExperience(int experience) {
+    public synchronized void setExperience(int experience) {
         this.experience = experience;
+        markDirty(PlayerDataField.EXPERIENCE);
     }
 
     /**
@@ -111,8 +120,9 @@ public class PlayerData {
      *
      * @param level The new level value.
      */
-    public void setLevel(int level) {
+    public synchronized void setLevel(int level) {
         this.level = level;
+        markDirty(PlayerDataField.LEVEL);
     }
 
     /**
@@ -129,8 +139,9 @@ public class PlayerData {
      *
      * @param factories The new number of factories.
      */
-    public void setFactories(int factories) {
+    public synchronized void setFactories(int factories) {
         this.factories = factories;
+        markDirty(PlayerDataField.FACTORIES);
     }
 
     /**
@@ -147,8 +158,9 @@ public class PlayerData {
      *
      * @param completedFactories The new number of completed factories.
      */
-    public void setCompletedFactories(int completedFactories) {
+    public synchronized void setCompletedFactories(int completedFactories) {
         this.completedFactories = completedFactories;
+        markDirty(PlayerDataField.COMPLETED_FACTORIES);
     }
 
     /**
@@ -165,8 +177,9 @@ public class PlayerData {
      *
      * @param maxFactories The new maximum number of factories.
      */
-    public void setMaxFactories(int maxFactories) {
+    public synchronized void setMaxFactories(int maxFactories) {
         this.maxFactories = maxFactories;
+        markDirty(PlayerDataField.MAX_FACTORIES);
     }
 
     /**
@@ -183,8 +196,9 @@ public class PlayerData {
      *
      * @param ongoingFactories The new number of ongoing factories.
      */
-    public void setOngoingFactories(int ongoingFactories) {
+    public synchronized void setOngoingFactories(int ongoingFactories) {
         this.ongoingFactories = ongoingFactories;
+        markDirty(PlayerDataField.ONGOING_FACTORIES);
     }
 
     /**
@@ -201,61 +215,316 @@ public class PlayerData {
      *
      * @param factoryResearch The new factory research progress.
      */
-    public void setFactoryResearch(int factoryResearch) {
+    public synchronized void setFactoryResearch(int factoryResearch) {
         this.factoryResearch = factoryResearch;
+        markDirty(PlayerDataField.FACTORY_RESEARCH);
     }
 
     /**
-     * Checks if the player has claimed the daily reward.
+     * Checks if the player has claimed the daily reward in the current period.
      *
      * @return True if the daily reward is claimed, false otherwise.
      */
     public boolean isDailyRewardClaimed() {
-        return dailyRewardClaimed;
+        return dailyRewardPeriod == RewardPeriod.DAILY.current();
     }
 
     /**
-     * Sets the daily reward claim status.
+     * Sets the daily reward claim status of the current period.
      *
      * @param dailyRewardClaimed The new daily reward claim status.
      */
     public void setDailyRewardClaimed(boolean dailyRewardClaimed) {
-        this.dailyRewardClaimed = dailyRewardClaimed;
+        setDailyRewardPeriod(dailyRewardClaimed ? RewardPeriod.DAILY.current() : RewardPeriod.NEVER);
     }
 
     /**
-     * Checks if the player has claimed the weekly reward.
+     * Gets the daily period in which the player last claimed the daily reward.
+     *
+     * @return The period identifier, or {@link RewardPeriod#NEVER} if the reward was never claimed.
+     */
+    public int getDailyRewardPeriod() {
+        return dailyRewardPeriod;
+    }
+
+    /**
+     * Sets the daily period in which the player last claimed the daily reward.
+     *
+     * @param dailyRewardPeriod The period identifier.
+     */
+    public synchronized void setDailyRewardPeriod(int dailyRewardPeriod) {
+        this.dailyRewardPeriod = dailyRewardPeriod;
+        markDirty(PlayerDataField.DAILY_REWARD_PERIOD);
+    }
+
+    /**
+     * Checks if the player has claimed the weekly reward in the current period.
      *
      * @return True if the weekly reward is claimed, false otherwise.
      */
     public boolean isWeeklyRewardClaimed() {
-        return weeklyRewardClaimed;
+        return weeklyRewardPeriod == RewardPeriod.WEEKLY.current();
     }
 
     /**
-     * Sets the weekly reward claim status.
+     * Sets the weekly reward claim status of the current period.
      *
      * @param weeklyRewardClaimed The new weekly reward claim status.
      */
     public void setWeeklyRewardClaimed(boolean weeklyRewardClaimed) {
-        this.weeklyRewardClaimed = weeklyRewardClaimed;
+        setWeeklyRewardPeriod(weeklyRewardClaimed ? RewardPeriod.WEEKLY.current() : RewardPeriod.NEVER);
+    }
+
+    /**
+     * Gets the weekly period in which the player last claimed the weekly reward.
+     *
+     * @return The period identifier, or {@link RewardPeriod#NEVER} if the reward was never claimed.
+     */
+    public int getWeeklyRewardPeriod() {
+        return weeklyRewardPeriod;
     }
 
     /**
-     * Checks if the player has claimed the hourly reward.
+     * Sets the weekly period in which the player last claimed the weekly reward.
+     *
+     * @param weeklyRewardPeriod The period identifier.
+     */
+    public synchronized void setWeeklyRewardPeriod(int weeklyRewardPeriod) {
+        this.weeklyRewardPeriod = weeklyRewardPeriod;
+        markDirty(PlayerDataField.WEEKLY_REWARD_PERIOD);
+    }
+
+    /**
+     * Checks if the player has claimed the hourly reward in the current period.
      *
      * @return True if the hourly reward is claimed, false otherwise.
      */
     public boolean isHourlyRewardClaimed() {
-        return hourlyRewardClaimed;
+        return hourlyRewardPeriod == RewardPeriod.HOURLY.current();
     }
 
     /**
-     * Sets the hourly reward claim status.
+     * Sets the hourly reward claim status of the current period.
      *
      * @param hourlyRewardClaimed The new hourly reward claim status.
      */
     public void setHourlyRewardClaimed(boolean hourlyRewardClaimed) {
-        this.hourlyRewardClaimed = hourlyRewardClaimed;
+        setHourlyRewardPeriod(hourlyRewardClaimed ? RewardPeriod.HOURLY.current() : RewardPeriod.NEVER);
+    }
+
+    /**
+     * Gets the hourly period in which the player last claimed the hourly reward.
+     *
+     * @return The period identifier, or {@link RewardPeriod#NEVER} if the reward was never claimed.
+     */
+    public int getHourlyRewardPeriod() {
+        return hourlyRewardPeriod;
+    }
+
+    /**
+     * Sets the hourly period in which the player last claimed the hourly reward.
+     *
+     * @param hourlyRewardPeriod The period identifier.
+     */
+    public synchronized void setHourlyRewardPeriod(int hourlyRewardPeriod) {
+        this.hourlyRewardPeriod = hourlyRewardPeriod;
+        markDirty(PlayerDataField.HOURLY_REWARD_PERIOD);
+    }
+
+    /**
+     * Gets the value of a field.
+     *
+     * @param field The field to get.
+     * @return The value of the field.
+     */
+    public int get(PlayerDataField field) {
+        return switch (field) {
+            case EXPERIENCE -> this.experience;
+            case LEVEL -> this.level;
+            case FACTORIES -> this.factories;
+            case COMPLETED_FACTORIES -> this.completedFactories;
+            case MAX_FACTORIES -> this.maxFactories;
+            case ONGOING_FACTORIES -> this.ongoingFactories;
+            case FACTORY_RESEARCH -> this.factoryResearch;
+            case DAILY_REWARD_PERIOD -> this.dailyRewardPeriod;
+            case WEEKLY_REWARD_PERIOD -> this.weeklyRewardPeriod;
+            case HOURLY_REWARD_PERIOD -> this.hourlyRewardPeriod;
+        };
+    }
+
+    /**
+     * Sets a field to a value read from the database, without marking it dirty.
+     * Used to patch cached data after an update which was already applied in the database.
+     *
+     * @param field The field to set.
+     * @param value The new value.
+     */
+    public synchronized void patch(PlayerDataField field, int value) {
+        switch (field) {
+            case EXPERIENCE -> this.experience = value;
+            case LEVEL -> this.level = value;
+            case FACTORIES -> this.factories = value;
+            case COMPLETED_FACTORIES -> this.completedFactories = value;
+            case MAX_FACTORIES -> this.maxFactories = value;
+            case ONGOING_FACTORIES -> this.ongoingFactories = value;
+            case FACTORY_RESEARCH -> this.factoryResearch = value;
+            case DAILY_REWARD_PERIOD -> this.dailyRewardPeriod = value;
+            case WEEKLY_REWARD_PERIOD -> this.weeklyRewardPeriod = value;
+            case HOURLY_REWARD_PERIOD -> this.hourlyRewardPeriod = value;
+        }
+    }
+
+    //#region Dirty Tracking
+    /**
+     * Marks a field as changed since the last save.
+     *
+     * @param field The changed field.
+     */
+    public void markDirty(PlayerDataField field) {
+        markDirty(field.mask());
+    }
+
+    /**
+     * Marks the fields of the given mask as changed since the last save.
+     *
+     * @param mask The mask of the changed fields.
+     */
+    public void markDirty(int mask) {
+        dirtyFields.getAndAccumulate(mask, (current, added) -> current | added);
+    }
+
+    /**
+     * Gets the mask of the fields changed since the last save.
+     *
+     * @return The dirty mask.
+     */
+    public int getDirtyFields() {
+        return dirtyFields.get();
+    }
+
+    /**
+     * Checks if the player data has unsaved changes.
+     *
+     * @return True if any field is dirty, false otherwise.
+     */
+    public boolean isDirty() {
+        return dirtyFields.get() != 0;
+    }
+
+    /**
+     * Clears the dirty mask before the data is written.
+     * Fields changed after this call are marked dirty again and saved by the next write.
+     *
+     * @return The mask of the fields that were dirty.
+     */
+    public int clearDirty() {
+        return dirtyFields.getAndSet(0);
+    }
+    //#endregion
+
+    //#region Versioning
+    /**
+     * Creates the player data of a stored row.
+     *
+     * @param uuid    The unique identifier of the player.
+     * @param values  The stored values, by field ordinal.
+     * @param version The version of the stored row.
+     * @return The player data, with the stored values and version of the row.
+     */
+    public static PlayerData fromValues(UUID uuid, int[] values, long version) {
+        var data = new PlayerData(uuid);
+        for (var field : PlayerDataField.values()) {
+            data.patch(field, values[field.ordinal()]);
+        }
+        data.markSaved(PlayerDataField.ALL_MASK, values, version);
+        return data;
+    }
+
+    /**
+     * Gets the current values of every field.
+     *
+     * @return The values by field ordinal.
+     */
+    public synchronized int[] getValues() {
+        int[] values = new int[PlayerDataField.values().length];
+        for (var field : PlayerDataField.values()) {
+            values[field.ordinal()] = get(field);
+        }
+        return values;
+    }
+
+    /**
+     * Gets the values of every field as they are stored in the database.
+     * The difference to the current values is the unsaved change of a field.
+     *
+     * @return The stored values by field ordinal.
+     */
+    public synchronized int[] getSavedValues() {
+        return savedValues.clone();
+    }
+
+    /**
+     * Gets the version of the stored row the saved values belong to.
+     *
+     * @return The row version.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Records values as stored in the database at a row version.
+     *
+     * @param mask    The mask of the stored fields.
+     * @param values  The stored values by field ordinal.
+     * @param version The version of the stored row.
+     */
+    public synchronized void markSaved(int mask, int[] values, long version) {
+        for (var field : PlayerDataField.values()) {
+            if (field.isIn(mask))
+                savedValues[field.ordinal()] = values[field.ordinal()];
+        }
+        this.version = version;
+    }
+
+    /**
+     * Sets a field to a value read from the database after an update which also incremented the row version.
+     * The version is only taken when this data was at the previous version, otherwise the next write
+     * detects the missed changes as a conflict.
+     *
+     * @param field   The changed field.
+     * @param value   The new value.
+     * @param version The version of the stored row after the update.
+     */
+    public synchronized void patchSaved(PlayerDataField field, int value, long version) {
+        patch(field, value);
+        savedValues[field.ordinal()] = value;
+        if (this.version == version - 1)
+            this.version = version;
+    }
+
+    /**
+     * Moves this data onto a newer stored row, keeping the local changes made since the given base values.
+     * Fields without a local change take the stored value, the others are merged by the resolver.
+     * When this data moved to another version meanwhile, its values already include the changes of the base,
+     * so only the stored values are recorded.
+     *
+     * @param expectedVersion The version this data had when the base values were taken.
+     * @param baseValues      The values the local changes are relative to, by field ordinal.
+     * @param storedValues    The values of the newer stored row, by field ordinal.
+     * @param storedVersion   The version of the newer stored row.
+     * @param resolver        Merges the fields changed both locally and in the database.
+     */
+    public synchronized void rebase(long expectedVersion, int[] baseValues, int[] storedValues, long storedVersion, PlayerDataConflictResolver resolver) {
+        if (storedVersion <= this.version)
+            return;
+        if (this.version == expectedVersion) {
+            for (var field : PlayerDataField.values()) {
+                int index = field.ordinal();
+                patch(field, resolver.merge(field, baseValues[index], get(field), storedValues[index]));
+            }
+        }
+        markSaved(PlayerDataField.ALL_MASK, storedValues, storedVersion);
     }
-}
\ No newline at end of file
+    //#endregion
+}
@@ -0,0 +1,45 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+/**
+ * Resolves a field of {@link PlayerData} which was changed both locally and in the database since it was read.
+ * Used when a versioned write finds a newer row, so the local change is re-applied on top of it
+ * instead of overwriting the other writer.
+ */
+@FunctionalInterface
+public interface PlayerDataConflictResolver {
+    /**
+     * The default resolver.
+     * Counter fields re-apply the local delta to the stored value, so concurrent increments add up.
+     * Other fields keep the local value, as the most recent decision of this server.
+     */
+    PlayerDataConflictResolver DEFAULT = (field, base, local, stored) ->
+            field.isIncrementable() ? field.add(stored, local - base) : local;
+
+    /**
+     * Resolves a field changed both locally and in the database.
+     *
+     * @param field  The field.
+     * @param base   The value both changes started from.
+     * @param local  The local value.
+     * @param stored The value stored in the database.
+     * @return The resolved value.
+     */
+    int resolve(PlayerDataField field, int base, int local, int stored);
+
+    /**
+     * Merges a field, taking the stored value when the field has no local change.
+     * Counter fields are clamped to the range of their column, so a merge never produces a value the database rejects.
+     *
+     * @param field  The field.
+     * @param base   The value the local change started from.
+     * @param local  The local value.
+     * @param stored The value stored in the database.
+     * @return The merged value.
+     */
+    default int merge(PlayerDataField field, int base, int local, int stored) {
+        if (local == base)
+            return stored;
+        int resolved = resolve(field, base, local, stored);
+        return field.isIncrementable() ? field.clamp(resolved) : resolved;
+    }
+}
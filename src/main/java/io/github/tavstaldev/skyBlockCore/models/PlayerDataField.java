@@ -0,0 +1,107 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+/**
+ * Represents the persisted fields of {@link PlayerData}.
+ * Each field owns one bit of the dirty mask, which is used to track unsaved changes.
+ */
+public enum PlayerDataField {
+    EXPERIENCE("Experience", true, Integer.MAX_VALUE),
+    LEVEL("Level", true, 255),
+    FACTORIES("Factories", true, Integer.MAX_VALUE),
+    COMPLETED_FACTORIES("CompletedFactories", true, Integer.MAX_VALUE),
+    MAX_FACTORIES("MaxFactories", true, Integer.MAX_VALUE),
+    ONGOING_FACTORIES("OnGoingFactories", true, Integer.MAX_VALUE),
+    FACTORY_RESEARCH("FactoryResearch", true, Integer.MAX_VALUE),
+    DAILY_REWARD_PERIOD("DailyRewardPeriod", false, Integer.MAX_VALUE),
+    WEEKLY_REWARD_PERIOD("WeeklyRewardPeriod", false, Integer.MAX_VALUE),
+    HOURLY_REWARD_PERIOD("HourlyRewardPeriod", false, Integer.MAX_VALUE);
+
+    /**
+     * A mask containing every field.
+     */
+    public static final int ALL_MASK = (1 << values().length) - 1;
+
+    private final String column; // The name of the database column.
+    private final boolean incrementable; // Whether the field is a counter that can be incremented in the database.
+    private final int maxValue; // The largest value the database column can store.
+
+    /**
+     * Constructs a new PlayerDataField.
+     *
+     * @param column        The name of the database column.
+     * @param incrementable Whether the field is a counter that can be incremented in the database.
+     * @param maxValue      The largest value the database column can store.
+     */
+    PlayerDataField(String column, boolean incrementable, int maxValue) {
+        this.column = column;
+        this.incrementable = incrementable;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Gets the name of the database column storing this field.
+     *
+     * @return The column name.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Checks whether the field is a counter that can be incremented in the database.
+     *
+     * @return True if the field can be incremented, false otherwise.
+     */
+    public boolean isIncrementable() {
+        return incrementable;
+    }
+
+    /**
+     * Gets the largest value the database column of this field can store.
+     *
+     * @return The maximum value.
+     */
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Clamps a counter value between 0 and the maximum value of the column, like the increments of the database backends.
+     *
+     * @param value The value.
+     * @return The clamped value.
+     */
+    public int clamp(long value) {
+        return (int) Math.max(0L, Math.min(maxValue, value));
+    }
+
+    /**
+     * Adds a delta to a counter value, clamped like the increments of the database backends.
+     *
+     * @param value The current value.
+     * @param delta The amount to add, negative values decrement the value.
+     * @return The new value, between 0 and the maximum value of the column.
+     */
+    public int add(int value, int delta) {
+        return clamp((long) value + delta);
+    }
+
+    /**
+     * Gets the bit of this field in the dirty mask.
+     *
+     * @return The mask bit.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Checks whether this field is part of the given mask.
+     *
+     * @param mask The mask to check.
+     * @return True if the field is included, false otherwise.
+     */
+    public boolean isIn(int mask) {
+        return (mask & mask()) != 0;
+    }
+}
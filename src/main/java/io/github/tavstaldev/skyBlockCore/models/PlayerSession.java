@@ -0,0 +1,144 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents the state of an online player which is not stored in the database,
+ * such as the time the player entered the AFK pond and the time of the next game time reward.
+ * Every field is updated atomically, so the scheduler threads and the main thread can share a session without locks.
+ * Times are epoch milliseconds in primitive fields, so the periodic tasks compare them without allocating.
+ */
+public class PlayerSession {
+    /**
+     * The time stored when nothing is scheduled.
+     */
+    public static final long NONE = 0L;
+
+    private final UUID uuid; // The unique identifier of the player.
+    private final AtomicLong afkPondEnteredAt = new AtomicLong(NONE); // The time the player entered the AFK pond in epoch milliseconds, NONE if not in the pond.
+    private final AtomicLong nextGameRewardTime = new AtomicLong(NONE); // The time of the next game time reward in epoch milliseconds, NONE if not scheduled.
+    // The AFK pond region cache is only used by the move listener on the main thread
+    private UUID pondCheckWorld; // The world of the block the AFK pond membership was checked in, null if never checked.
+    private long pondCheckBlock; // The packed coordinates of the block the AFK pond membership was checked in.
+    private int pondCheckGeneration; // The region generation the AFK pond membership was checked in.
+    private boolean pondCheckResult; // Whether the checked block is inside an AFK pond region.
+
+    /**
+     * Constructs a new PlayerSession.
+     *
+     * @param uuid The unique identifier of the player.
+     */
+    public PlayerSession(UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    /**
+     * Gets the unique identifier of the player.
+     *
+     * @return The unique identifier of the player.
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    //#region Afk Pond
+    /**
+     * Gets the time the player entered the AFK pond.
+     *
+     * @return The time the player entered the AFK pond in epoch milliseconds, or NONE if the player is not in the pond.
+     */
+    public long getAfkPondEnteredAt() {
+        return afkPondEnteredAt.get();
+    }
+
+    /**
+     * Marks the player as entered the AFK pond, unless the player is already in it.
+     *
+     * @param time The time the player entered the AFK pond in epoch milliseconds.
+     * @return True if the player entered the pond, false if the player was already in it.
+     */
+    public boolean enterAfkPond(long time) {
+        return afkPondEnteredAt.compareAndSet(NONE, time);
+    }
+
+    /**
+     * Marks the player as left the AFK pond.
+     *
+     * @return True if the player left the pond, false if the player was not in it.
+     */
+    public boolean leaveAfkPond() {
+        return afkPondEnteredAt.getAndSet(NONE) != NONE;
+    }
+
+    /**
+     * Checks whether the cached AFK pond membership belongs to a block and is still valid.
+     * Only called on the main thread.
+     *
+     * @param world      The unique identifier of the world of the block.
+     * @param block      The packed coordinates of the block.
+     * @param generation The current region generation.
+     * @return True if the cached membership can be used, false if the block has to be checked.
+     */
+    public boolean isPondCheckCurrent(UUID world, long block, int generation) {
+        return pondCheckBlock == block && pondCheckGeneration == generation && world.equals(pondCheckWorld);
+    }
+
+    /**
+     * Gets the cached AFK pond membership of the last checked block.
+     * Only called on the main thread.
+     *
+     * @return True if the block is inside an AFK pond region, false otherwise.
+     */
+    public boolean getPondCheckResult() {
+        return pondCheckResult;
+    }
+
+    /**
+     * Caches the AFK pond membership of a block. Only called on the main thread.
+     *
+     * @param world      The unique identifier of the world of the block.
+     * @param block      The packed coordinates of the block.
+     * @param generation The region generation the block was checked in.
+     * @param result     Whether the block is inside an AFK pond region.
+     */
+    public void setPondCheck(UUID world, long block, int generation, boolean result) {
+        pondCheckWorld = world;
+        pondCheckBlock = block;
+        pondCheckGeneration = generation;
+        pondCheckResult = result;
+    }
+    //#endregion
+
+    //#region Game Time
+    /**
+     * Gets the time of the next game time reward.
+     *
+     * @return The time of the next reward in epoch milliseconds, or NONE if no reward is scheduled.
+     */
+    public long getNextGameRewardTime() {
+        return nextGameRewardTime.get();
+    }
+
+    /**
+     * Sets the time of the next game time reward.
+     *
+     * @param time The time of the next reward in epoch milliseconds, or NONE to cancel it.
+     */
+    public void setNextGameRewardTime(long time) {
+        nextGameRewardTime.set(time);
+    }
+
+    /**
+     * Moves the next game time reward from a due time to the following one, unless it changed meanwhile.
+     * Exactly one caller succeeds for a due reward, so it is given once.
+     *
+     * @param due  The due time read before, in epoch milliseconds.
+     * @param next The time of the following reward in epoch milliseconds.
+     * @return True if the reward was claimed, false if the time changed meanwhile.
+     */
+    public boolean claimGameReward(long due, long next) {
+        return nextGameRewardTime.compareAndSet(due, next);
+    }
+    //#endregion
+}
@@ -0,0 +1,69 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the reset schedules of the rewards.
+ * Every period has a sequential identifier, so a claim only has to store the identifier of the period it happened in.
+ * A claim is valid while its identifier matches the current one, which makes a reset free: no rows are touched when a period ends.
+ * Periods follow the server's local time, starting at midnight, on Mondays and at every full hour.
+ */
+public enum RewardPeriod {
+    /**
+     * Resets every day at midnight.
+     */
+    DAILY,
+    /**
+     * Resets every Monday at midnight.
+     */
+    WEEKLY,
+    /**
+     * Resets at every full hour.
+     */
+    HOURLY;
+
+    /**
+     * The identifier stored for rewards which were never claimed.
+     */
+    public static final int NEVER = 0;
+
+    /**
+     * Gets the identifier of the current period.
+     *
+     * @return The identifier of the current period.
+     */
+    public int current() {
+        return of(LocalDateTime.now());
+    }
+
+    /**
+     * Gets the identifier of the period containing the given time.
+     *
+     * @param time The local time.
+     * @return The identifier of the period.
+     */
+    public int of(LocalDateTime time) {
+        long epochDay = time.toLocalDate().toEpochDay();
+        return switch (this) {
+            case DAILY -> (int) epochDay;
+            // 1970-01-01 was a Thursday, shifting by 3 days makes the weeks start on Monday.
+            case WEEKLY -> (int) Math.floorDiv(epochDay + 3, 7);
+            case HOURLY -> (int) (epochDay * 24 + time.getHour());
+        };
+    }
+
+    /**
+     * Gets the start of the period following the one containing the given time.
+     *
+     * @param time The local time.
+     * @return The start of the next period.
+     */
+    public LocalDateTime nextStart(LocalDateTime time) {
+        return switch (this) {
+            case DAILY -> time.toLocalDate().plusDays(1).atStartOfDay();
+            case WEEKLY -> LocalDate.ofEpochDay((of(time) + 1) * 7L - 3).atStartOfDay();
+            case HOURLY -> time.withMinute(0).withSecond(0).withNano(0).plusHours(1);
+        };
+    }
+}
@@ -1,11 +1,15 @@
 package io.github.tavstaldev.skyBlockCore.placeholders;
 
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.managers.LeaderboardManager;
+import io.github.tavstaldev.skyBlockCore.models.LeaderboardType;
 import io.github.tavstaldev.skyBlockCore.util.TimeUtil;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Optional;
+
 /**
  * A custom PlaceholderAPI expansion for the SkyBlockCore plugin.
  * Provides placeholders for various player and plugin-related data.
@@ -74,7 +78,16 @@ public class SkyBlockExpansion extends PlaceholderExpansion {
      */
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String params) {
-        var playerData = SkyBlockCore.database().getPlayerData(player.getUniqueId());
+        if (params.toLowerCase().startsWith("pool-"))
+            return onPoolRequest(params.toLowerCase());
+        if (params.toLowerCase().startsWith("top_"))
+            return onTopRequest(params.toLowerCase());
+        if (params.toLowerCase().startsWith("rank_") || params.toLowerCase().startsWith("percentile_"))
+            return onRankRequest(player, params.toLowerCase());
+
+        // Placeholders are requested on the main thread, so never wait for the database here.
+        // Uncached players resolve to the default value until the asynchronous load completes.
+        var playerData = SkyBlockCore.database().getPlayerDataAsync(player.getUniqueId()).getNow(Optional.empty());
         if (playerData.isEmpty())
             return "0";
         var data = playerData.get();
@@ -99,4 +112,82 @@ public class SkyBlockExpansion extends PlaceholderExpansion {
             default -> null;
         };
     }
+
+    /**
+     * Handles the placeholder requests of the top players, in the format {@code top_<ranking>_<position>_<name|value>}.
+     * They are served from the in-memory leaderboard, without any query.
+     *
+     * @param params The lower-case placeholder parameter string.
+     * @return The value of the requested placeholder, "-" or "0" for an empty position, or null if not found.
+     */
+    private String onTopRequest(String params) {
+        String[] parts = params.split("_");
+        if (parts.length != 4)
+            return null;
+        var type = LeaderboardType.fromKey(parts[1]);
+        if (type == null)
+            return null;
+        int position;
+        try {
+            position = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+
+        var entry = LeaderboardManager.getTop(type, position);
+        return switch (parts[3]) {
+            case "name" -> entry == null || entry.name() == null ? "-" : entry.name();
+            case "value" -> entry == null ? "0" : String.valueOf(entry.value());
+            default -> null;
+        };
+    }
+
+    /**
+     * Handles the placeholder requests of the rank of a player, in the format {@code rank_<ranking>},
+     * {@code percentile_<ranking>} or {@code rank_total}.
+     * They are served from the in-memory leaderboard in O(log n), for online and offline players alike.
+     *
+     * @param player The player for whom the placeholder is being requested.
+     * @param params The lower-case placeholder parameter string.
+     * @return The value of the requested placeholder, "0" if the player is not ranked, or null if not found.
+     */
+    private String onRankRequest(OfflinePlayer player, String params) {
+        int total = LeaderboardManager.getRankedCount();
+        if (params.equals("rank_total"))
+            return String.valueOf(total);
+
+        var type = LeaderboardType.fromKey(params.substring(params.indexOf('_') + 1));
+        if (type == null)
+            return null;
+        int rank = player == null ? 0 : LeaderboardManager.getRank(type, player.getUniqueId());
+        if (params.startsWith("rank_"))
+            return String.valueOf(rank);
+        // The share of the players ranked below the player
+        if (rank == 0 || total == 0)
+            return "0";
+        return String.format("%.1f", 100.0 * (total - rank) / total);
+    }
+
+    /**
+     * Handles the placeholder requests of the database connection pool statistics.
+     *
+     * @param params The lower-case placeholder parameter string.
+     * @return The value of the requested placeholder, "0" if the database has no pool, or null if not found.
+     */
+    private String onPoolRequest(String params) {
+        var poolMetrics = SkyBlockCore.database().getPoolMetrics();
+        if (poolMetrics.isEmpty())
+            return "0";
+        var metrics = poolMetrics.get();
+        return switch (params) {
+            case "pool-active" -> String.valueOf(metrics.getActiveConnections());
+            case "pool-idle" -> String.valueOf(metrics.getIdleConnections());
+            case "pool-total" -> String.valueOf(metrics.getTotalConnections());
+            case "pool-pending" -> String.valueOf(metrics.getPendingThreads());
+            case "pool-acquire-average" -> String.format("%.2f", metrics.getAverageAcquireMillis());
+            case "pool-acquire-max" -> String.format("%.2f", metrics.getMaxAcquireMillis());
+            case "pool-timeouts" -> String.valueOf(metrics.getTimeouts());
+            default -> null;
+        };
+    }
 }
\ No newline at end of file
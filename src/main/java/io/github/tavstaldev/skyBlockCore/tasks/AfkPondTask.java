@@ -8,24 +8,22 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.time.LocalDateTime;
-import java.util.*;
+import java.util.Map;
 
 /**
  * A task that manages the AFK pond rewards for players.
- * Periodically checks players in the AFK pond and executes reward commands based on their AFK time.
+ * Periodically executes the reward commands which became due for the players in the AFK pond.
  */
 public class AfkPondTask extends BukkitRunnable {
 
     /**
      * The main logic of the task, executed periodically.
-     * Checks players in the AFK pond, calculates their AFK time, and executes reward commands if applicable.
+     * Takes the rewards which became due, shows the AFK time of the players in the pond and executes the reward commands.
      */
     @Override
     public void run() {
-        // Retrieve the list of players currently in the AFK pond
-        var playersInPond = PlayerCacheManager.getPlayersInAfkPond();
-        if (playersInPond.isEmpty())
+        // Skip the run while the AFK pond is empty
+        if (!PlayerCacheManager.hasPlayersInAfkPond())
             return;
 
         // Retrieve the plugin configuration
@@ -36,50 +34,32 @@ public class AfkPondTask extends BukkitRunnable {
             return;
         }
 
-        final var now = LocalDateTime.now();
-        final var rewards = config.afkPondRewards;
-        Map<UUID, Set<String>> playerCommandsToExecute = new HashMap<>();
-        for (var playerId : playersInPond.keySet()) {
-            for (var reward : rewards) {
-                var nextRewardTime = PlayerCacheManager.getAfkRewardTime(playerId, reward.command);
-                if (nextRewardTime == null || now.isBefore(nextRewardTime))
-                    continue;
-
-                PlayerCacheManager.addAfkRewardTime(playerId, reward.command, now.plusMinutes(reward.interval));
-                if (playerCommandsToExecute.containsKey(playerId)) {
-                    playerCommandsToExecute.get(playerId).add(reward.command);
-                } else {
-                    Set<String> commands = new HashSet<>();
-                    commands.add(reward.command);
-                    playerCommandsToExecute.put(playerId, commands);
-                }
-            }
-        }
+        // Only the due rewards are returned, the other players in the pond cost nothing here
+        var playerCommandsToExecute = PlayerCacheManager.pollDueAfkRewardCommands(System.currentTimeMillis());
 
         // Execute the reward commands on the main thread
         Bukkit.getScheduler().runTask(SkyBlockCore.Instance, () -> {
             var server = Bukkit.getServer();
             var console = server.getConsoleSender();
-            for (var entry : playersInPond.entrySet()) {
-                var playerId = entry.getKey();
+            PlayerCacheManager.forEachInAfkPond((playerId, afkTime) -> {
                 Player player = Bukkit.getPlayer(playerId);
                 // Validate the player's state before executing commands
                 if (player == null || !player.isOnline() || player.isDead() || player.isFlying() || player.isInsideVehicle()) {
                     PlayerCacheManager.removeFromAfkPond(playerId);
-                    continue;
+                    return;
                 }
                 String time = SkyBlockCore.Instance.getTranslator().localize(player, "AfkPond.ActionBar", Map.of(
-                        "time", TimeUtil.formatDate(player, entry.getValue())
+                        "time", TimeUtil.formatTime(player, afkTime)
                 ));
                 player.sendActionBar(ChatUtils.translateColors(time, true));
 
                 var commandsToRun = playerCommandsToExecute.get(playerId);
                 if (commandsToRun == null || commandsToRun.isEmpty())
-                    continue;
+                    return;
                 for (var command : commandsToRun) {
                     server.dispatchCommand(console, command.replace("%player%", player.getName()));
                 }
-            }
+            });
         });
     }
-}
\ No newline at end of file
+}
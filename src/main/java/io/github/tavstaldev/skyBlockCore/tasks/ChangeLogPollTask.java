@@ -0,0 +1,24 @@
+package io.github.tavstaldev.skyBlockCore.tasks;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that applies the player data changes of the other servers sharing the database.
+ * Runs at the configured poll interval while the change log is enabled.
+ */
+public class ChangeLogPollTask extends BukkitRunnable {
+
+    /**
+     * The main logic of the task, executed periodically.
+     * Reads the new entries of the change log and updates the cached player data.
+     */
+    @Override
+    public void run() {
+        var database = SkyBlockCore.database();
+        if (database == null)
+            return;
+
+        database.pollChanges();
+    }
+}
@@ -6,8 +6,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
@@ -31,31 +29,17 @@ public class GameTimeTask extends BukkitRunnable {
             return;
         }
 
-        // Set to store players eligible for rewards
-        Set<UUID> playersToBeRewarded = new HashSet<>();
-        final var now = LocalDateTime.now();
-        for (var playerId : PlayerCacheManager.getPlayersJoinTime().keySet()) {
-            // Retrieve the player's join time
-            var joinTime = PlayerCacheManager.getJoinTime(playerId);
-            if (joinTime == null)
-                continue;
-
-            // Calculate the duration the player has been online
-            if (now.isBefore(joinTime))
-                continue;
-
-            // Add the player to the reward list
-            playersToBeRewarded.add(playerId);
-            PlayerCacheManager.addJoinTime(playerId, now.plusMinutes(config.gameTimeRewardRequiredOnlineTime));
-        }
+        // Claim the rewards of the players who have been online long enough
+        Set<UUID> playersToBeRewarded = PlayerCacheManager.claimDueGameRewards(System.currentTimeMillis(), config.gameTimeRewardRequiredOnlineTime * 60_000L);
 
         // If no players are eligible for rewards, exit
-        if (playersToBeRewarded.isEmpty())
+        if (playersToBeRewarded == null)
             return;
 
         // Execute the reward command on the main thread
+        final Set<UUID> rewardedPlayers = playersToBeRewarded;
         Bukkit.getScheduler().runTask(SkyBlockCore.Instance, () -> {
-            for (var playerId : playersToBeRewarded) {
+            for (var playerId : rewardedPlayers) {
                 // Retrieve the player object
                 Player player = Bukkit.getPlayer(playerId);
                 if (player == null || !player.isOnline())
@@ -0,0 +1,24 @@
+package io.github.tavstaldev.skyBlockCore.tasks;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that writes the journaled player data changes to the disk.
+ * Runs at the configured sync interval while the journal is enabled.
+ */
+public class JournalSyncTask extends BukkitRunnable {
+
+    /**
+     * The main logic of the task, executed periodically.
+     * Writes the changes journaled since the previous run with a single sync.
+     */
+    @Override
+    public void run() {
+        var database = SkyBlockCore.database();
+        if (database == null)
+            return;
+
+        database.syncJournal();
+    }
+}
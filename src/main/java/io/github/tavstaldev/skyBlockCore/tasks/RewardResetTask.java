@@ -1,56 +1,51 @@
 package io.github.tavstaldev.skyBlockCore.tasks;
 
 import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import io.github.tavstaldev.skyBlockCore.models.RewardPeriod;
 import org.bukkit.scheduler.BukkitRunnable;
 
 /**
- * A task that resets rewards (daily, weekly, and hourly) at their respective intervals.
- * This task checks the current time against the configured reset times and performs the necessary resets.
+ * A task that keeps the configured reset times (daily, weekly, and hourly) of the rewards up-to-date.
+ * Claims are stored with the period they happened in, so a reset does not touch the database:
+ * a claim simply stops counting when its period ends.
  */
 public class RewardResetTask extends BukkitRunnable {
 
     /**
      * The main logic of the task, executed periodically.
-     * Resets daily, weekly, and hourly rewards if the current time has passed their respective reset times.
-     * Updates the configuration and database accordingly.
+     * Advances the daily, weekly, and hourly reset times if the current time has passed them,
+     * and saves the configuration when any of them changed.
      */
     @Override
     public void run() {
         final var now = java.time.LocalDateTime.now();
-        final var database = SkyBlockCore.database();
         var config = SkyBlockCore.config();
         boolean shouldSave = false;
 
-        // Reset weekly rewards
-        var nextMonday = now
-                .withHour(0).withMinute(0).withSecond(0).withNano(0)
-                .with(java.time.DayOfWeek.MONDAY);
-        if (!nextMonday.isAfter(now)) {
+        // Advance the weekly reset
+        if (!now.isBefore(config.nextWeeklyReset)) {
             shouldSave = true;
-            config.nextWeeklyReset = nextMonday.plusWeeks(1);
+            config.nextWeeklyReset = RewardPeriod.WEEKLY.nextStart(now);
             config.set("rewardReset.nextWeeklyReset", config.nextWeeklyReset.toString());
-            database.resetWeeklyRewards();
         }
 
-        // Reset daily rewards
-        if (now.isAfter(config.nextDailyReset)) {
+        // Advance the daily reset
+        if (!now.isBefore(config.nextDailyReset)) {
             shouldSave = true;
-            config.nextDailyReset = now.withHour(0).withMinute(0).withSecond(0).withNano(0).plusDays(1);
+            config.nextDailyReset = RewardPeriod.DAILY.nextStart(now);
             config.set("rewardReset.nextDailyReset", config.nextDailyReset.toString());
-            database.resetDailyRewards();
         }
 
-        // Reset hourly rewards
-        if (now.isAfter(config.nextHourlyReset)) {
+        // Advance the hourly reset
+        if (!now.isBefore(config.nextHourlyReset)) {
             shouldSave = true;
-            config.nextHourlyReset = now.withMinute(0).withSecond(0).withNano(0).plusHours(1);
+            config.nextHourlyReset = RewardPeriod.HOURLY.nextStart(now);
             config.set("rewardReset.nextHourlyReset", config.nextHourlyReset.toString());
-            database.resetHourlyRewards();
         }
 
-        // Save the configuration if any reset occurred
+        // Save the configuration if any reset time changed
         if (shouldSave) {
             config.save();
         }
     }
-}
\ No newline at end of file
+}
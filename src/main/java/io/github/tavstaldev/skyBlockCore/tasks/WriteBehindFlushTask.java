@@ -0,0 +1,24 @@
+package io.github.tavstaldev.skyBlockCore.tasks;
+
+import io.github.tavstaldev.skyBlockCore.SkyBlockCore;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * A task that writes the buffered player data changes to the database.
+ * Runs every second and flushes when the configured interval or staleness limit is reached.
+ */
+public class WriteBehindFlushTask extends BukkitRunnable {
+
+    /**
+     * The main logic of the task, executed periodically.
+     * Flushes the write-behind buffer of the database if a flush is due.
+     */
+    @Override
+    public void run() {
+        var database = SkyBlockCore.database();
+        if (database == null)
+            return;
+
+        database.flushIfDue();
+    }
+}
@@ -0,0 +1,273 @@
+package io.github.tavstaldev.skyBlockCore.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the regions of a world by the chunks they overlap, answering whether a block is inside any of them.
+ * Every chunk overlapped by a region has a bucket holding the region, so a lookup probes the bucket of the chunk
+ * of the block and tests only the few regions in it. Chunks without regions are a single missed probe.
+ * Regions spanning more chunks than the limit of the builder are kept in a list tested on every lookup instead.
+ * Immutable once built, so it can be shared between threads.
+ */
+public final class ChunkRegionIndex {
+    private static final Shape[] EMPTY = new Shape[0]; // The shapes of a chunk without regions.
+    private final long[] _keys; // The chunk keys of the slots, probed linearly.
+    private final Shape[][] _buckets; // The shapes of the chunks of the slots, null for empty slots.
+    private final int _mask; // Maps a hash to its slot.
+    private final Shape[] _large; // The shapes spanning too many chunks to be bucketed.
+
+    /**
+     * Constructs a new ChunkRegionIndex.
+     *
+     * @param chunks The shapes of every chunk, by chunk key.
+     * @param large  The shapes spanning too many chunks to be bucketed.
+     */
+    private ChunkRegionIndex(Map<Long, List<Shape>> chunks, List<Shape> large) {
+        int capacity = Integer.highestOneBit(Math.max(1, chunks.size() * 2 - 1)) << 1;
+        _keys = new long[capacity];
+        _buckets = new Shape[capacity][];
+        _mask = capacity - 1;
+        for (var entry : chunks.entrySet()) {
+            long key = entry.getKey();
+            int slot = hash(key) & _mask;
+            while (_buckets[slot] != null)
+                slot = (slot + 1) & _mask;
+            _keys[slot] = key;
+            _buckets[slot] = entry.getValue().toArray(EMPTY);
+        }
+        _large = large.toArray(EMPTY);
+    }
+
+    /**
+     * Creates a builder of a new index.
+     *
+     * @param maxChunksPerShape The number of chunks a shape may span to be bucketed, larger ones are tested on every lookup.
+     * @return The builder.
+     */
+    public static Builder builder(int maxChunksPerShape) {
+        return new Builder(maxChunksPerShape);
+    }
+
+    /**
+     * Checks whether a block is inside any of the indexed regions.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return True if the block is inside a region, false otherwise.
+     */
+    public boolean contains(int x, int y, int z) {
+        for (var shape : _large) {
+            if (shape.contains(x, y, z))
+                return true;
+        }
+        for (var shape : bucket(chunkKey(x >> 4, z >> 4))) {
+            if (shape.contains(x, y, z))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the shapes overlapping a chunk.
+     *
+     * @param key The chunk key.
+     * @return The shapes, an empty array if the chunk has none.
+     */
+    private Shape[] bucket(long key) {
+        int slot = hash(key) & _mask;
+        Shape[] bucket;
+        while ((bucket = _buckets[slot]) != null) {
+            if (_keys[slot] == key)
+                return bucket;
+            slot = (slot + 1) & _mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Packs the coordinates of a chunk into a single value.
+     *
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     * @return The chunk key.
+     */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Spreads the bits of a chunk key, so neighbouring chunks fall into distant slots.
+     *
+     * @param key The chunk key.
+     * @return The hash of the key.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * The area of a region, tested for the blocks of the chunks it overlaps.
+     */
+    @FunctionalInterface
+    public interface Shape {
+        /**
+         * Checks whether a block is inside the area.
+         *
+         * @param x The x coordinate of the block.
+         * @param y The y coordinate of the block.
+         * @param z The z coordinate of the block.
+         * @return True if the block is inside, false otherwise.
+         */
+        boolean contains(int x, int y, int z);
+    }
+
+    /**
+     * Collects the regions of a new index.
+     */
+    public static final class Builder {
+        private final int _maxChunksPerShape; // The number of chunks a shape may span to be bucketed.
+        private final Map<Long, List<Shape>> _chunks = new HashMap<>(); // The shapes of every chunk, by chunk key.
+        private final List<Shape> _large = new ArrayList<>(); // The shapes spanning too many chunks to be bucketed.
+
+        /**
+         * Constructs a new Builder.
+         *
+         * @param maxChunksPerShape The number of chunks a shape may span to be bucketed.
+         */
+        private Builder(int maxChunksPerShape) {
+            _maxChunksPerShape = maxChunksPerShape;
+        }
+
+        /**
+         * Adds an axis-aligned box, bounds inclusive.
+         *
+         * @param minX The minimum x coordinate.
+         * @param minY The minimum y coordinate.
+         * @param minZ The minimum z coordinate.
+         * @param maxX The maximum x coordinate.
+         * @param maxY The maximum y coordinate.
+         * @param maxZ The maximum z coordinate.
+         * @return The builder.
+         */
+        public Builder addBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            return add((x, y, z) -> x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ,
+                    minX, minZ, maxX, maxZ);
+        }
+
+        /**
+         * Adds a polygon extruded between two heights. Blocks on the edges and corners are inside,
+         * matching the polygonal regions of WorldGuard.
+         *
+         * @param xs   The x coordinates of the points of the polygon.
+         * @param zs   The z coordinates of the points of the polygon.
+         * @param minY The minimum y coordinate, inclusive.
+         * @param maxY The maximum y coordinate, inclusive.
+         * @return The builder.
+         */
+        public Builder addPolygon(int[] xs, int[] zs, int minY, int maxY) {
+            if (xs.length == 0)
+                return this;
+            int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+            for (int i = 0; i < xs.length; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minZ = Math.min(minZ, zs[i]);
+                maxZ = Math.max(maxZ, zs[i]);
+            }
+            final int boxMinX = minX, boxMinZ = minZ, boxMaxX = maxX, boxMaxZ = maxZ;
+            return add((x, y, z) -> y >= minY && y <= maxY
+                            && x >= boxMinX && x <= boxMaxX && z >= boxMinZ && z <= boxMaxZ
+                            && polygonContains(xs, zs, x, z),
+                    minX, minZ, maxX, maxZ);
+        }
+
+        /**
+         * Adds a shape of any form, bucketed by its horizontal bounds.
+         *
+         * @param shape The shape.
+         * @param minX  The minimum x coordinate of the shape, inclusive.
+         * @param minZ  The minimum z coordinate of the shape, inclusive.
+         * @param maxX  The maximum x coordinate of the shape, inclusive.
+         * @param maxZ  The maximum z coordinate of the shape, inclusive.
+         * @return The builder.
+         */
+        public Builder add(Shape shape, int minX, int minZ, int maxX, int maxZ) {
+            int minChunkX = minX >> 4, minChunkZ = minZ >> 4, maxChunkX = maxX >> 4, maxChunkZ = maxZ >> 4;
+            long chunkCount = ((long) maxChunkX - minChunkX + 1) * ((long) maxChunkZ - minChunkZ + 1);
+            if (chunkCount > _maxChunksPerShape) {
+                _large.add(shape);
+                return this;
+            }
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    _chunks.computeIfAbsent(chunkKey(chunkX, chunkZ), key -> new ArrayList<>(1)).add(shape);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Checks whether the builder has no shapes.
+         *
+         * @return True if no shape was added, false otherwise.
+         */
+        public boolean isEmpty() {
+            return _chunks.isEmpty() && _large.isEmpty();
+        }
+
+        /**
+         * Builds the index of the added shapes.
+         *
+         * @return The index.
+         */
+        public ChunkRegionIndex build() {
+            return new ChunkRegionIndex(_chunks, _large);
+        }
+
+        /**
+         * Checks whether a column is inside a polygon, counting the crossings of a ray with its edges.
+         * Columns on an edge or a corner are inside.
+         *
+         * @param xs The x coordinates of the points of the polygon.
+         * @param zs The z coordinates of the points of the polygon.
+         * @param x  The x coordinate of the column.
+         * @param z  The z coordinate of the column.
+         * @return True if the column is inside, false otherwise.
+         */
+        private static boolean polygonContains(int[] xs, int[] zs, int x, int z) {
+            boolean inside = false;
+            int xOld = xs[xs.length - 1];
+            int zOld = zs[zs.length - 1];
+            for (int i = 0; i < xs.length; i++) {
+                int xNew = xs[i];
+                int zNew = zs[i];
+                if (xNew == x && zNew == z)
+                    return true;
+                int x1, z1, x2, z2;
+                if (xNew > xOld) {
+                    x1 = xOld; z1 = zOld; x2 = xNew; z2 = zNew;
+                } else {
+                    x1 = xNew; z1 = zNew; x2 = xOld; z2 = zOld;
+                }
+                if (x1 <= x && x <= x2) {
+                    long cross = ((long) z - z1) * ((long) x2 - x1) - ((long) z2 - z1) * ((long) x - x1);
+                    if (cross == 0) {
+                        // On the line of the edge, inside if between its ends
+                        if ((z1 <= z) == (z <= z2))
+                            return true;
+                    } else if (cross < 0 && x1 != x) {
+                        inside = !inside;
+                    }
+                }
+                xOld = xNew;
+                zOld = zNew;
+            }
+            return inside;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.tavstaldev.skyBlockCore.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A sorted set which also answers the position of an element in O(log n).
+ * Implemented as a treap: a binary search tree balanced by random priorities, where every node
+ * also stores the size of its subtree, so the number of smaller elements can be counted on the way down.
+ * Not thread-safe, the caller has to synchronize access.
+ *
+ * @param <T> The type of the elements.
+ */
+public class OrderStatisticTree<T> {
+    private final Comparator<? super T> _comparator; // The order of the elements, must be consistent with equals.
+    private Node<T> _root; // The root of the tree, null when empty.
+
+    /**
+     * Constructs a new, empty OrderStatisticTree.
+     *
+     * @param comparator The order of the elements. Elements comparing as equal are treated as the same element.
+     */
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        _comparator = comparator;
+    }
+
+    /**
+     * Retrieves the number of elements.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return size(_root);
+    }
+
+    /**
+     * Adds an element, unless an equal element is already present.
+     *
+     * @param element The element.
+     * @return True if the element was added, false if it was already present.
+     */
+    public boolean add(T element) {
+        if (contains(element))
+            return false;
+        var parts = split(_root, element);
+        _root = merge(merge(parts[0], new Node<>(element)), parts[1]);
+        return true;
+    }
+
+    /**
+     * Removes an element.
+     *
+     * @param element The element.
+     * @return True if the element was removed, false if it was not present.
+     */
+    public boolean remove(T element) {
+        if (!contains(element))
+            return false;
+        _root = remove(_root, element);
+        return true;
+    }
+
+    /**
+     * Checks whether an element is present.
+     *
+     * @param element The element.
+     * @return True if the element is present, false otherwise.
+     */
+    public boolean contains(T element) {
+        var node = _root;
+        while (node != null) {
+            int result = _comparator.compare(element, node.value);
+            if (result == 0)
+                return true;
+            node = result < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the elements ordered before an element. The element itself does not have to be present.
+     *
+     * @param element The element.
+     * @return The number of smaller elements, which is the 0-based position of the element when present.
+     */
+    public int countBefore(T element) {
+        int count = 0;
+        var node = _root;
+        while (node != null) {
+            if (_comparator.compare(element, node.value) <= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the first elements in order.
+     *
+     * @param limit The maximum number of elements.
+     * @return The first elements, the smallest first.
+     */
+    public List<T> first(int limit) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+        List<Node<T>> stack = new ArrayList<>();
+        var node = _root;
+        while (result.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.add(node);
+                node = node.left;
+            }
+            node = stack.remove(stack.size() - 1);
+            result.add(node.value);
+            node = node.right;
+        }
+        return result;
+    }
+
+    /**
+     * Removes every element.
+     */
+    public void clear() {
+        _root = null;
+    }
+
+    /**
+     * Splits a subtree into the elements smaller than a value, and the rest.
+     *
+     * @param node  The root of the subtree.
+     * @param value The value to split at.
+     * @return The smaller elements at index 0, and the rest at index 1.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T value) {
+        if (node == null)
+            return new Node[]{null, null};
+        if (_comparator.compare(node.value, value) < 0) {
+            var parts = split(node.right, value);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        var parts = split(node.left, value);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Merges two subtrees, where every element of the first is smaller than every element of the second.
+     *
+     * @param left  The subtree of the smaller elements.
+     * @param right The subtree of the larger elements.
+     * @return The root of the merged subtree.
+     */
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    /**
+     * Removes an element from a subtree.
+     *
+     * @param node    The root of the subtree.
+     * @param element The element, which must be present.
+     * @return The new root of the subtree.
+     */
+    private Node<T> remove(Node<T> node, T element) {
+        int result = _comparator.compare(element, node.value);
+        if (result == 0)
+            return merge(node.left, node.right);
+        if (result < 0)
+            node.left = remove(node.left, element);
+        else
+            node.right = remove(node.right, element);
+        node.update();
+        return node;
+    }
+
+    /**
+     * Retrieves the size of a subtree.
+     *
+     * @param node The root of the subtree, or null.
+     * @return The number of elements in the subtree.
+     */
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * A node of the tree.
+     *
+     * @param <T> The type of the elements.
+     */
+    private static class Node<T> {
+        private final T value; // The element.
+        private final int priority = ThreadLocalRandom.current().nextInt(); // The heap priority, balancing the tree.
+        private Node<T> left, right; // The subtrees of the smaller and the larger elements.
+        private int size = 1; // The number of elements in this subtree.
+
+        /**
+         * Constructs a new Node.
+         *
+         * @param value The element.
+         */
+        private Node(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Recalculates the size of this subtree after a child changed.
+         */
+        private void update() {
+            size = 1 + OrderStatisticTree.size(left) + OrderStatisticTree.size(right);
+        }
+    }
+}
@@ -22,8 +22,31 @@ public class TimeUtil {
      * @return A localized string representing the duration.
      */
     public static String formatDate(Player player, LocalDateTime date) {
+        return formatDuration(player, Duration.between(LocalDateTime.now(), date).abs().getSeconds());
+    }
+
+    /**
+     * Formats the duration between the current time and a specified time into a localized string.
+     * The formatted string includes days, hours, minutes, and seconds, if applicable.
+     *
+     * @param player The player for whom the localized time string is generated.
+     * @param time   The target time in epoch milliseconds to calculate the duration from the current time.
+     * @return A localized string representing the duration.
+     */
+    public static String formatTime(Player player, long time) {
+        return formatDuration(player, Math.abs(System.currentTimeMillis() - time) / 1000);
+    }
+
+    /**
+     * Formats a duration into a localized string.
+     * The formatted string includes days, hours, minutes, and seconds, if applicable.
+     *
+     * @param player  The player for whom the localized time string is generated.
+     * @param seconds The duration in seconds.
+     * @return A localized string representing the duration.
+     */
+    public static String formatDuration(Player player, long seconds) {
         final PluginTranslator translator = SkyBlockCore.Instance.getTranslator();
-        final long seconds = Duration.between(LocalDateTime.now(), date).abs().getSeconds();
         long days = seconds / 86400;
         long hours = (seconds % 86400) / 3600;
         long minutes = (seconds % 3600) / 60;
@@ -45,4 +68,4 @@ public class TimeUtil {
 
         return sb.toString().trim();
     }
-}
\ No newline at end of file
+}
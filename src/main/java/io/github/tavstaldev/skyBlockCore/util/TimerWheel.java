@@ -0,0 +1,200 @@
+package io.github.tavstaldev.skyBlockCore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedules timeouts by due time in a hashed timer wheel.
+ * The wheel is a ring of buckets, one per tick, each holding a doubly linked list of the timeouts due in that tick,
+ * so scheduling, rescheduling and cancelling a timeout are O(1), and advancing the wheel only visits the buckets
+ * of the elapsed ticks. Timeouts due more than one turn of the wheel ahead wait out the remaining turns in their bucket.
+ * Not thread-safe, the caller has to synchronize access.
+ *
+ * @param <T> The type of the values of the timeouts.
+ */
+public class TimerWheel<T> {
+    private final long _tickMillis; // The length of a tick in milliseconds.
+    private final Timeout<T>[] _buckets; // The first timeout of every bucket, null when empty.
+    private final int _mask; // Maps a tick to its bucket.
+    private long _tick; // The last tick which was advanced past.
+    private int _size; // The number of scheduled timeouts.
+
+    /**
+     * Constructs a new, empty TimerWheel.
+     *
+     * @param tickMillis  The length of a tick in milliseconds, the precision of the due times.
+     * @param bucketCount The number of buckets, rounded up to a power of two. Covers one turn of the wheel.
+     * @param startMillis The current time in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int bucketCount, long startMillis) {
+        int capacity = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        _tickMillis = tickMillis;
+        _buckets = (Timeout<T>[]) new Timeout[capacity];
+        _mask = capacity - 1;
+        _tick = startMillis / tickMillis;
+    }
+
+    /**
+     * Retrieves the number of scheduled timeouts.
+     *
+     * @return The number of timeouts.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Schedules a new timeout.
+     *
+     * @param value    The value of the timeout.
+     * @param deadline The due time in milliseconds. A past due time is due at the next advance.
+     * @return The timeout, used to reschedule or cancel it.
+     */
+    public Timeout<T> schedule(T value, long deadline) {
+        var timeout = new Timeout<>(value);
+        insert(timeout, deadline);
+        return timeout;
+    }
+
+    /**
+     * Moves a timeout to a new due time, scheduling it again if it was already due or cancelled.
+     *
+     * @param timeout  The timeout.
+     * @param deadline The new due time in milliseconds.
+     */
+    public void reschedule(Timeout<T> timeout, long deadline) {
+        unlink(timeout);
+        insert(timeout, deadline);
+    }
+
+    /**
+     * Cancels a timeout.
+     *
+     * @param timeout The timeout.
+     * @return True if the timeout was cancelled, false if it was not scheduled.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        return unlink(timeout);
+    }
+
+    /**
+     * Advances the wheel to the current time and removes the timeouts due meanwhile.
+     *
+     * @param now The current time in milliseconds.
+     * @return The due timeouts, in the order of their ticks. An empty list without allocation if none were due.
+     */
+    public List<Timeout<T>> advance(long now) {
+        List<Timeout<T>> due = null;
+        long target = now / _tickMillis;
+        // A bucket holds the timeouts of later turns too, so a pause longer than a turn visits every bucket once
+        long last = Math.min(target, _tick + _buckets.length);
+        for (long tick = _tick + 1; tick <= last; tick++) {
+            var timeout = _buckets[(int) (tick & _mask)];
+            while (timeout != null) {
+                var next = timeout.next;
+                if (timeout.deadlineTick <= target) {
+                    unlink(timeout);
+                    if (due == null)
+                        due = new ArrayList<>();
+                    due.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+        _tick = target;
+        return due == null ? List.of() : due;
+    }
+
+    /**
+     * Adds a timeout to the bucket of its due tick.
+     *
+     * @param timeout  The timeout, not scheduled.
+     * @param deadline The due time in milliseconds.
+     */
+    private void insert(Timeout<T> timeout, long deadline) {
+        long tick = Math.max(_tick + 1, Math.floorDiv(deadline, _tickMillis));
+        int bucket = (int) (tick & _mask);
+        timeout.deadline = deadline;
+        timeout.deadlineTick = tick;
+        timeout.bucket = bucket;
+        timeout.previous = null;
+        timeout.next = _buckets[bucket];
+        if (timeout.next != null)
+            timeout.next.previous = timeout;
+        _buckets[bucket] = timeout;
+        _size++;
+    }
+
+    /**
+     * Removes a timeout from its bucket.
+     *
+     * @param timeout The timeout.
+     * @return True if the timeout was scheduled, false otherwise.
+     */
+    private boolean unlink(Timeout<T> timeout) {
+        if (timeout.bucket < 0)
+            return false;
+        if (timeout.previous != null)
+            timeout.previous.next = timeout.next;
+        else
+            _buckets[timeout.bucket] = timeout.next;
+        if (timeout.next != null)
+            timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        _size--;
+        return true;
+    }
+
+    /**
+     * A value scheduled in the wheel.
+     *
+     * @param <T> The type of the value.
+     */
+    public static final class Timeout<T> {
+        private final T value; // The value of the timeout.
+        private long deadline; // The due time in milliseconds.
+        private long deadlineTick; // The tick the timeout is due in.
+        private int bucket = -1; // The bucket of the timeout, -1 when not scheduled.
+        private Timeout<T> previous; // The previous timeout of the bucket.
+        private Timeout<T> next; // The next timeout of the bucket.
+
+        /**
+         * Constructs a new Timeout.
+         *
+         * @param value The value of the timeout.
+         */
+        private Timeout(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Retrieves the value of the timeout.
+         *
+         * @return The value.
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Retrieves the due time of the timeout.
+         *
+         * @return The due time in milliseconds.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Checks whether the timeout is scheduled.
+         *
+         * @return True if the timeout is waiting in the wheel, false if it was due or cancelled.
+         */
+        public boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import io.github.tavstaldev.skyBlockCore.models.PlayerDataField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the versioned writes and the increments of the {@link MemoryDatabase}.
+ */
+class MemoryDatabaseTest {
+    private final UUID _playerId = UUID.randomUUID(); // The player of the test.
+    private MemoryDatabase _database; // The database of the test.
+
+    /**
+     * Creates a database without snapshots or rankings, holding the default data of the player.
+     */
+    @BeforeEach
+    void createDatabase() {
+        // The plugin logger needs a running plugin, and none of the tested operations logs
+        _database = new MemoryDatabase(null, () -> new MemoryDatabase.Settings(Path.of("memory-test.snapshot"), false, 0), LeaderboardHook.NONE);
+        _database.load();
+        _database.checkSchema();
+        assertTrue(_database.loadOrCreate(_playerId).isPresent());
+    }
+
+    /**
+     * A write based on an older version keeps the changes of the newer row, and re-applies its own counter changes.
+     */
+    @Test
+    void staleWriteIsMerged() {
+        var data = _database.getPlayerData(_playerId).orElseThrow();
+        var other = PlayerData.fromValues(_playerId, data.getSavedValues(), data.getVersion());
+
+        other.setExperience(100);
+        other.setDailyRewardPeriod(7);
+        _database.updatePlayerData(other);
+        assertEquals(1, other.getVersion());
+
+        data.setExperience(30);
+        data.setLevel(2);
+        _database.updatePlayerData(data);
+
+        assertEquals(2, data.getVersion());
+        assertEquals(130, data.getExperience());
+        assertEquals(2, data.getLevel());
+        assertEquals(7, data.getDailyRewardPeriod());
+        assertArrayEquals(data.getValues(), data.getSavedValues());
+    }
+
+    /**
+     * Increments stay between 0 and the largest value of the column, and patch the loaded data.
+     */
+    @Test
+    void incrementIsClamped() {
+        var data = _database.getPlayerData(_playerId).orElseThrow();
+
+        assertEquals(OptionalInt.of(255), _database.incrementField(_playerId, PlayerDataField.LEVEL, 300));
+        assertEquals(255, data.getLevel());
+        assertEquals(OptionalInt.of(0), _database.incrementField(_playerId, PlayerDataField.LEVEL, -1000));
+        assertEquals(0, data.getLevel());
+        assertEquals(2, data.getVersion());
+        assertFalse(data.isDirty());
+
+        assertEquals(OptionalInt.empty(), _database.incrementField(UUID.randomUUID(), PlayerDataField.LEVEL, 1));
+        assertThrows(IllegalArgumentException.class, () -> _database.incrementField(_playerId, PlayerDataField.DAILY_REWARD_PERIOD, 1));
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.tavstaldev.skyBlockCore.database;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the batching and retrying of the {@link WriteBehindBuffer}.
+ */
+class WriteBehindBufferTest {
+
+    /**
+     * A write failing in a batch is queued again, while the other writes of the batch are done.
+     */
+    @Test
+    void failedWriteIsRetriedAlone() {
+        var failing = new PlayerData(UUID.randomUUID());
+        var other = new PlayerData(UUID.randomUUID());
+        List<List<UUID>> batches = new ArrayList<>();
+        var buffer = new WriteBehindBuffer(batch -> {
+            batches.add(batch.stream().map(pendingWrite -> pendingWrite.data().getUuid()).toList());
+            return batch.stream().filter(pendingWrite -> pendingWrite.data() == failing).toList();
+        });
+
+        failing.setLevel(5);
+        other.setLevel(7);
+        buffer.enqueue(failing);
+        buffer.enqueue(other);
+        buffer.flush(10);
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, buffer.size());
+        assertSame(failing, buffer.get(failing.getUuid()));
+        assertTrue(failing.isDirty());
+        assertFalse(other.isDirty());
+
+        buffer.flush(10);
+        assertEquals(List.of(failing.getUuid()), batches.get(1));
+    }
+
+    /**
+     * A fully written batch leaves nothing queued.
+     */
+    @Test
+    void writtenBatchIsNotRetried() {
+        var data = new PlayerData(UUID.randomUUID());
+        var buffer = new WriteBehindBuffer(batch -> List.of());
+
+        data.setExperience(42);
+        buffer.enqueue(data);
+        buffer.flush(10);
+
+        assertEquals(0, buffer.size());
+        assertFalse(data.isDirty());
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.tavstaldev.skyBlockCore.managers;
+
+import io.github.tavstaldev.skyBlockCore.models.PlayerSession;
+import io.github.tavstaldev.skyBlockCore.models.config.AfkPondReward;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the {@link PlayerCacheManager} from several threads, the way the main thread and the async tasks share it,
+ * and checks that the sessions, the AFK pond counter and the scheduled AFK pond rewards stay consistent.
+ */
+class PlayerCacheManagerStressTest {
+    private static final int THREADS = 8; // The number of threads changing the sessions.
+    private static final int PLAYERS = 64; // The number of players shared by the threads.
+    private static final int ITERATIONS = 20_000; // The number of operations per thread.
+    private static final List<AfkPondReward> REWARDS = List.of(
+            new AfkPondReward(1, "reward1 %player%"),
+            new AfkPondReward(5, "reward5 %player%")
+    ); // The rewards of the AFK pond.
+
+    private final List<UUID> _players = new ArrayList<>(); // The players used by the test.
+
+    /**
+     * Removes the sessions of the test, the manager is shared by every test.
+     */
+    @AfterEach
+    void removeSessions() {
+        for (var playerId : _players) {
+            PlayerCacheManager.removeSession(playerId);
+        }
+        assertEquals(0, PlayerCacheManager.getAfkPondSize());
+        assertEquals(0, PlayerCacheManager.getScheduledAfkRewardCount());
+    }
+
+    /**
+     * Joining, quitting, entering and leaving the pond concurrently while other threads iterate the sessions and poll
+     * the due rewards never fails, and leaves the snapshot, the pond counter and the scheduled rewards matching the sessions.
+     */
+    @Test
+    void concurrentSessionChangesStayConsistent() throws Exception {
+        createPlayers();
+        var failures = runConcurrently(THREADS, random -> {
+            var playerId = _players.get(random.nextInt(PLAYERS));
+            long now = System.currentTimeMillis();
+            switch (random.nextInt(7)) {
+                case 0 -> PlayerCacheManager.getOrCreateSession(playerId);
+                case 1 -> PlayerCacheManager.removeSession(playerId);
+                case 2, 3 -> PlayerCacheManager.addToAfkPond(playerId, now - random.nextInt(120_000), REWARDS);
+                case 4 -> PlayerCacheManager.removeFromAfkPond(playerId);
+                case 5 -> {
+                    for (var session : PlayerCacheManager.getSessions()) {
+                        assertNotNull(session.getUuid());
+                    }
+                }
+                default -> {
+                    for (var timer : PlayerCacheManager.pollDueAfkRewards(now)) {
+                        assertTrue(REWARDS.contains(timer.reward()));
+                    }
+                }
+            }
+        });
+        assertEquals(List.of(), failures);
+
+        Set<UUID> snapshot = new HashSet<>();
+        for (var session : PlayerCacheManager.getSessions()) {
+            snapshot.add(session.getUuid());
+        }
+        int inPond = 0;
+        for (var playerId : _players) {
+            assertEquals(PlayerCacheManager.getSession(playerId) != null, snapshot.contains(playerId));
+            if (PlayerCacheManager.getAfkTime(playerId) != PlayerSession.NONE)
+                inPond++;
+        }
+        assertEquals(inPond, PlayerCacheManager.getAfkPondSize());
+        assertEquals(inPond * REWARDS.size(), PlayerCacheManager.getScheduledAfkRewardCount());
+    }
+
+    /**
+     * A due AFK pond reward is returned once and scheduled again, and a player leaving the pond gets no more rewards.
+     */
+    @Test
+    void dueAfkRewardsAreRescheduledUntilThePlayerLeaves() {
+        var playerId = createPlayer();
+        long now = System.currentTimeMillis();
+        PlayerCacheManager.addToAfkPond(playerId, now - 90_000L, REWARDS);
+        assertTrue(PlayerCacheManager.hasPlayersInAfkPond());
+
+        // Polled a tick later, the wheel may already have advanced past the current one
+        long poll = now + 1_000L;
+        var due = PlayerCacheManager.pollDueAfkRewards(poll);
+        assertEquals(1, due.size());
+        assertEquals(playerId, due.get(0).playerId());
+        assertSame(REWARDS.get(0), due.get(0).reward());
+        assertTrue(PlayerCacheManager.pollDueAfkRewards(poll).isEmpty());
+        assertEquals(REWARDS.size(), PlayerCacheManager.getScheduledAfkRewardCount());
+
+        PlayerCacheManager.removeFromAfkPond(playerId);
+        assertEquals(0, PlayerCacheManager.getScheduledAfkRewardCount());
+        assertFalse(PlayerCacheManager.hasPlayersInAfkPond());
+    }
+
+    /**
+     * Several threads claiming the same due game time reward give it exactly once.
+     */
+    @Test
+    void gameRewardIsClaimedOnce() throws Exception {
+        createPlayers();
+        var claims = new AtomicInteger();
+        var rounds = 500;
+        for (int round = 1; round <= rounds; round++) {
+            long due = round;
+            for (var playerId : _players) {
+                PlayerCacheManager.addJoinTime(playerId, due);
+            }
+            var failures = runConcurrently(THREADS, PLAYERS, index -> {
+                var session = PlayerCacheManager.getSession(_players.get(index));
+                long time = session.getNextGameRewardTime();
+                if (time == due && session.claimGameReward(time, due + rounds))
+                    claims.incrementAndGet();
+            });
+            assertEquals(List.of(), failures);
+        }
+        assertEquals(rounds * PLAYERS, claims.get());
+    }
+
+    //#region Helpers
+
+    /**
+     * Creates a new player for the test.
+     *
+     * @return The unique identifier of the player.
+     */
+    private UUID createPlayer() {
+        var playerId = UUID.randomUUID();
+        _players.add(playerId);
+        PlayerCacheManager.getOrCreateSession(playerId);
+        return playerId;
+    }
+
+    /**
+     * Creates the players shared by the threads.
+     */
+    private void createPlayers() {
+        for (int i = 0; i < PLAYERS; i++) {
+            createPlayer();
+        }
+    }
+
+    /**
+     * Runs an operation {@link #ITERATIONS} times on each of several threads, starting them together.
+     *
+     * @param threads   The number of threads.
+     * @param operation The operation, called with a random source of the thread.
+     * @return The failures thrown by the threads.
+     */
+    private static List<Throwable> runConcurrently(int threads, ThrowingConsumer<Random> operation) throws Exception {
+        return runConcurrently(threads, ITERATIONS, iteration -> operation.accept(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Runs an operation on each of several threads, starting them together.
+     *
+     * @param threads    The number of threads.
+     * @param iterations The number of times each thread runs the operation.
+     * @param operation  The operation, called with the number of the iteration.
+     * @return The failures thrown by the threads.
+     */
+    private static List<Throwable> runConcurrently(int threads, int iterations, ThrowingConsumer<Integer> operation) throws Exception {
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        try {
+                            operation.accept(i);
+                        } catch (Throwable ex) {
+                            failures.add(ex);
+                            return null;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * An operation of a thread which may throw.
+     *
+     * @param <T> The type of the argument.
+     */
+    @FunctionalInterface
+    private interface ThrowingConsumer<T> {
+        /**
+         * Runs the operation.
+         *
+         * @param value The argument.
+         */
+        void accept(T value) throws Exception;
+    }
+    //#endregion
+}
@@ -0,0 +1,46 @@
+package io.github.tavstaldev.skyBlockCore.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the merging of fields changed both locally and in the database.
+ */
+class PlayerDataConflictResolverTest {
+
+    /**
+     * Concurrent counter changes add up, other fields keep the local value.
+     */
+    @Test
+    void defaultResolverReappliesLocalDelta() {
+        var resolver = PlayerDataConflictResolver.DEFAULT;
+
+        assertEquals(17, resolver.merge(PlayerDataField.EXPERIENCE, 10, 15, 12));
+        assertEquals(3, resolver.merge(PlayerDataField.DAILY_REWARD_PERIOD, 1, 3, 2));
+        assertEquals(12, resolver.merge(PlayerDataField.EXPERIENCE, 10, 10, 12));
+    }
+
+    /**
+     * A merged counter never leaves the range of its column.
+     */
+    @Test
+    void mergedCountersAreClamped() {
+        var resolver = PlayerDataConflictResolver.DEFAULT;
+
+        assertEquals(0, resolver.merge(PlayerDataField.EXPERIENCE, 10, 0, 5));
+        assertEquals(255, resolver.merge(PlayerDataField.LEVEL, 200, 250, 240));
+        assertEquals(Integer.MAX_VALUE, resolver.merge(PlayerDataField.EXPERIENCE, 0, Integer.MAX_VALUE, 100));
+    }
+
+    /**
+     * A custom resolver is clamped too, so it cannot produce a value the database rejects.
+     */
+    @Test
+    void customResolverIsClamped() {
+        PlayerDataConflictResolver resolver = (field, base, local, stored) -> -1;
+
+        assertEquals(0, resolver.merge(PlayerDataField.LEVEL, 1, 2, 3));
+        assertEquals(-1, resolver.merge(PlayerDataField.HOURLY_REWARD_PERIOD, 1, 2, 3));
+    }
+}
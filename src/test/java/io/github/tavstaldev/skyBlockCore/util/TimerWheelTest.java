@@ -0,0 +1,111 @@
+package io.github.tavstaldev.skyBlockCore.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the scheduling, rescheduling, cancelling and advancing of the {@link TimerWheel}.
+ */
+class TimerWheelTest {
+    private static final long TICK = 1000L; // The length of a tick in milliseconds.
+    private static final int BUCKETS = 8; // The number of buckets, one turn is 8 seconds.
+    private static final long START = 1_700_000_000_000L; // The time the wheels start at.
+
+    /**
+     * Timeouts are only returned once their tick was advanced past.
+     */
+    @Test
+    void advanceReturnsOnlyDueTimeouts() {
+        var wheel = new TimerWheel<String>(TICK, BUCKETS, START);
+        var first = wheel.schedule("first", START + 2_000L);
+        var second = wheel.schedule("second", START + 5_000L);
+
+        assertTrue(wheel.advance(START + 1_000L).isEmpty());
+        assertEquals(List.of(first), wheel.advance(START + 2_500L));
+        assertFalse(first.isScheduled());
+        assertTrue(second.isScheduled());
+        assertEquals(List.of(second), wheel.advance(START + 5_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * A timeout due in the past is due at the next advance.
+     */
+    @Test
+    void pastDeadlineIsDueAtNextAdvance() {
+        var wheel = new TimerWheel<String>(TICK, BUCKETS, START);
+        var timeout = wheel.schedule("late", START - 60_000L);
+
+        assertEquals(List.of(timeout), wheel.advance(START + TICK));
+    }
+
+    /**
+     * A cancelled timeout is never returned and cannot be cancelled twice.
+     */
+    @Test
+    void cancelRemovesTimeout() {
+        var wheel = new TimerWheel<String>(TICK, BUCKETS, START);
+        var kept = wheel.schedule("kept", START + 3_000L);
+        var cancelled = wheel.schedule("cancelled", START + 3_000L);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(kept), wheel.advance(START + 3_000L));
+    }
+
+    /**
+     * Rescheduling moves a pending timeout and schedules a due one again.
+     */
+    @Test
+    void rescheduleMovesTimeout() {
+        var wheel = new TimerWheel<String>(TICK, BUCKETS, START);
+        var timeout = wheel.schedule("moved", START + 2_000L);
+
+        wheel.reschedule(timeout, START + 4_000L);
+        assertTrue(wheel.advance(START + 3_000L).isEmpty());
+        assertEquals(List.of(timeout), wheel.advance(START + 4_000L));
+
+        wheel.reschedule(timeout, START + 6_000L);
+        assertTrue(timeout.isScheduled());
+        assertEquals(START + 6_000L, timeout.getDeadline());
+        assertEquals(List.of(timeout), wheel.advance(START + 6_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * A timeout due more than one turn ahead waits out the remaining turns in its bucket.
+     */
+    @Test
+    void timeoutBeyondOneTurnWaitsForItsTurn() {
+        var wheel = new TimerWheel<String>(TICK, BUCKETS, START);
+        var timeout = wheel.schedule("far", START + 3 * BUCKETS * TICK + 2_000L);
+
+        for (long now = START + TICK; now < timeout.getDeadline(); now += TICK) {
+            assertTrue(wheel.advance(now).isEmpty(), "Due too early at " + (now - START));
+        }
+        assertEquals(List.of(timeout), wheel.advance(timeout.getDeadline()));
+    }
+
+    /**
+     * A pause longer than a turn returns every timeout which became due meanwhile and keeps the later ones.
+     */
+    @Test
+    void pauseLongerThanTurnReturnsEveryDueTimeout() {
+        var wheel = new TimerWheel<Integer>(TICK, BUCKETS, START);
+        for (int i = 1; i <= 3 * BUCKETS; i++) {
+            wheel.schedule(i, START + i * TICK);
+        }
+
+        var due = wheel.advance(START + 2 * BUCKETS * TICK);
+        assertEquals(2 * BUCKETS, due.size());
+        assertTrue(due.stream().allMatch(timeout -> timeout.getValue() <= 2 * BUCKETS));
+        assertEquals(BUCKETS, wheel.size());
+
+        assertEquals(BUCKETS, wheel.advance(START + 3 * BUCKETS * TICK).size());
+        assertEquals(0, wheel.size());
+    }
+}